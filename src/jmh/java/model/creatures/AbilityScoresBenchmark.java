@@ -0,0 +1,152 @@
+package model.creatures;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.values.AbilityScore;
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Baseline benchmarks for the creation of {@link AbilityScores} objects and 
+ * the iteration over a {@link RWAbilityScores}, compared with the 
+ * allocation-free accessors on both implementations. Run with -prof gc to 
+ * check the allocation rate of each way of walking the scores.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AbilityScoresBenchmark {
+	private Map<AbilityName, Integer> input;
+	private RWAbilityScores scores;
+	private PackedAbilityScores packed;
+	private final int[] out = new int[AbilityScores.NUMBER_OF_ABILITIES];
+	private final ModifierSum visitor = new ModifierSum();
+	
+	@Setup
+	public void setUp() {
+		input = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		int i = 0;
+		for(AbilityName ability : AbilityName.values()) {
+			input.put(ability, 10 + i);
+			i++;
+		}
+		scores = new RWAbilityScores(input);
+		packed = new PackedAbilityScores(input);
+	}
+	
+	@Benchmark
+	public AbilityScores create() {
+		return AbilityScores.create(input);
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public AbilityScores createMultiThreaded() {
+		return AbilityScores.create(input);
+	}
+	
+	@Benchmark
+	public int iterate() {
+		return sumModifiers(scores);
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public int iterateMultiThreaded() {
+		return sumModifiers(scores);
+	}
+	
+	@Benchmark
+	public int iteratePacked() {
+		return sumModifiers(packed);
+	}
+	
+	@Benchmark
+	public int forEach() {
+		visitor.sum = 0;
+		scores.forEach(visitor);
+		return visitor.sum;
+	}
+	
+	@Benchmark
+	public int forEachPacked() {
+		visitor.sum = 0;
+		packed.forEach(visitor);
+		return visitor.sum;
+	}
+	
+	@Benchmark
+	public int getModifiers() {
+		scores.getModifiers(out);
+		return sum(out);
+	}
+	
+	@Benchmark
+	public int getModifiersPacked() {
+		packed.getModifiers(out);
+		return sum(out);
+	}
+	
+	@Benchmark
+	public int getScoresPacked() {
+		packed.getScores(out);
+		return sum(out);
+	}
+	
+	/**
+	 * @param values	to add.
+	 * @return the sum of the values.
+	 */
+	private static int sum(int[] values) {
+		int result = 0;
+		for(int value : values) {
+			result += value;
+		}
+		return result;
+	}
+	
+	/**
+	 * Visitor adding the modifiers of the abilities.
+	 * @author TLM
+	 */
+	private static final class ModifierSum implements AbilityScores.AbilityVisitor {
+		int sum;
+		
+		@Override
+		public void visit(AbilityName ability, int score, int modifier) {
+			sum += modifier;
+		}
+	}
+	
+	/**
+	 * Walks through all the abilities of the input the way client code does.
+	 * @param scores	to iterate over.
+	 * @return the sum of the modifiers of the defined abilities.
+	 */
+	static int sumModifiers(AbilityScores scores) {
+		int result = 0;
+		for(Map.Entry<AbilityName, AbilityScore> entry : scores) {
+			if(entry.getValue() != null) {
+				result += entry.getValue().getModifier();
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,67 @@
+package model.creatures;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.values.Roll;
+import service.parameters.CreatureParameters.AbilityGenerationMethod;
+
+/**
+ * Compares the generation of {@link AbilityScores} with the STANDARD method
+ * against rolling and selecting the dice of each score, and the bulk
+ * generation of many scores sequentially and in parallel.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AbilityScoresGeneratorBenchmark {
+	private AbilityScoresGenerator generator;
+	private Roll roll;
+	@Param({"100000"})
+	private int count;
+	
+	@Setup
+	public void setUp() {
+		generator = AbilityScoresGenerator.of(AbilityGenerationMethod.STANDARD);
+		roll = new Roll(3 + AbilityGenerationMethod.STANDARD.getParameter(), 6).keepHighest(3);
+	}
+	
+	@Benchmark
+	public AbilityScores generateStandard() {
+		return generator.generate();
+	}
+	
+	@Benchmark
+	public AbilityScores rollStandard() {
+		int[] scores = new int[6];
+		for(int i = 0; i < scores.length; i++) {
+			scores[i] = roll.rollTotal();
+		}
+		return new PackedAbilityScores(scores);
+	}
+
+	@Benchmark
+	public AbilityScores[] generateSequential() {
+		return generator.stream(0, count).toArray(AbilityScores[]::new);
+	}
+	
+	@Benchmark
+	public AbilityScores[] generateParallel() {
+		return generator.generate(0, count);
+	}
+}
@@ -0,0 +1,71 @@
+package model.creatures;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Compares the creation of many {@link AbilityScores} from primitive 
+ * columns with the creation from one boxed map per input.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AbilityScoresLoadingBenchmark {
+	@Param({"10000"})
+	private int count;
+	private int[][] columns;
+	private int[] results;
+	
+	@Setup
+	public void setUp() {
+		columns = new int[AbilityScores.NUMBER_OF_ABILITIES][count];
+		for(int i = 0; i < count; i++) {
+			for(int ability = 0; ability < columns.length; ability++) {
+				columns[ability][i] = 3 + (i + 5 * ability) % 16;
+			}
+		}
+		results = new int[count];
+	}
+	
+	@Benchmark
+	public AbilityScores[] createFromMaps() {
+		AbilityScores[] scores = new AbilityScores[count];
+		AbilityName[] names = AbilityName.values();
+		for(int i = 0; i < count; i++) {
+			EnumMap<AbilityName, Integer> input = new EnumMap<AbilityName, Integer>(AbilityName.class);
+			for(AbilityName ability : names) {
+				input.put(ability, columns[ability.ordinal()][i]);
+			}
+			scores[i] = AbilityScores.create(input);
+		}
+		return scores;
+	}
+	
+	@Benchmark
+	public AbilityScores[] createAll() {
+		return AbilityScores.createAll(columns, results, false);
+	}
+	
+	@Benchmark
+	public AbilityScores[] createAllParallel() {
+		return AbilityScores.createAll(columns, results, true);
+	}
+}
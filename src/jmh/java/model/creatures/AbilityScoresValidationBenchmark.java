@@ -0,0 +1,76 @@
+package model.creatures;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.exceptions.IllegalAbilityScoreException;
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Compares the validation of a batch of inputs, one in ten being invalid,
+ * with and without exceptions.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AbilityScoresValidationBenchmark {
+	private static final int BATCH = 100;
+	private List<Map<AbilityName, Integer>> inputs;
+	
+	@Setup
+	public void setUp() {
+		inputs = new ArrayList<Map<AbilityName, Integer>>(BATCH);
+		for(int i = 0; i < BATCH; i++) {
+			EnumMap<AbilityName, Integer> input = new EnumMap<AbilityName, Integer>(AbilityName.class);
+			for(AbilityName ability : AbilityName.values()) {
+				input.put(ability, 8 + (i + ability.ordinal()) % 10);
+			}
+			if(i % 10 == 0) {
+				input.put(AbilityName.WISDOM, -1);
+			}
+			inputs.add(input);
+		}
+	}
+	
+	@Benchmark
+	public int validate() {
+		int invalid = 0;
+		for(Map<AbilityName, Integer> input : inputs) {
+			if(!AbilityScoresValidation.isValid(AbilityScoresValidation.validate(input))) {
+				invalid++;
+			}
+		}
+		return invalid;
+	}
+	
+	@Benchmark
+	public int validateWithExceptions() {
+		int invalid = 0;
+		for(Map<AbilityName, Integer> input : inputs) {
+			try {
+				AbilityScores.isValidAbilityScoreInput(input, true);
+			} catch (IllegalAbilityScoreException e) {
+				invalid++;
+			}
+		}
+		return invalid;
+	}
+}
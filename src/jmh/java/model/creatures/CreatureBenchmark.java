@@ -0,0 +1,111 @@
+package model.creatures;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Baseline benchmarks for the access to the {@link AbilityScores} of a 
+ * {@link Creature}.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CreatureBenchmark {
+	private AbilityScores scores;
+	private Creature creature;
+	private static final DerivedStat[] STATS = DerivedStat.values();
+	private int score = 10;
+	
+	@Setup
+	public void setUp() {
+		EnumMap<AbilityName, Integer> input = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		int i = 0;
+		for(AbilityName ability : AbilityName.values()) {
+			input.put(ability, 10 + i);
+			i++;
+		}
+		scores = AbilityScores.create(input);
+		creature = new Creature();
+		creature.setAbilityScores(scores);
+		creature.getDerivedStat(DerivedStat.COMBAT_MANEUVER_DEFENSE);
+	}
+	
+	@Benchmark
+	public Creature setAbilityScores() {
+		creature.setAbilityScores(scores);
+		return creature;
+	}
+	
+	@Benchmark
+	public Creature setAbilityScore() {
+		score ^= 1;
+		creature.setAbilityScore(AbilityName.STRENGTH, score);
+		return creature;
+	}
+	
+	@Benchmark
+	public AbilityScores getAbilityScores() {
+		return creature.getAbilityScores();
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public AbilityScores getAbilityScoresMultiThreaded() {
+		return creature.getAbilityScores();
+	}
+	
+	@Benchmark
+	public int getAbilityScoresAndModifier() {
+		return creature.getAbilityScores().getModifier(AbilityName.DEXTERITY);
+	}
+	
+	@Benchmark
+	public int getDerivedStat() {
+		return creature.getDerivedStat(DerivedStat.COMBAT_MANEUVER_DEFENSE);
+	}
+	
+	@Benchmark
+	public int buffAndReadDerivedStats() {
+		score ^= 1;
+		creature.setAbilityScore(AbilityName.STRENGTH, score);
+		return readDerivedStats();
+	}
+	
+	/**
+	 * Baseline for {@link #buffAndReadDerivedStats()} which drops the cache
+	 * and computes every derived statistic again after each change.
+	 */
+	@Benchmark
+	public int buffAndRecomputeDerivedStats() {
+		score ^= 1;
+		creature.setAbilityScore(AbilityName.STRENGTH, score);
+		creature.derived = null;
+		return readDerivedStats();
+	}
+	
+	private int readDerivedStats() {
+		int result = 0;
+		for(DerivedStat stat : STATS) {
+			result += creature.getDerivedStat(stat);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,100 @@
+package model.creatures;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Measures the reads and writes of a {@link Creature} shared between 
+ * threads, with several ratios of readers to writers. The readers read the
+ * scores and a derived statistic, and the writers change the Strength 
+ * score.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class CreatureConcurrencyBenchmark {
+	private Creature creature;
+	
+	@Setup
+	public void setUp() {
+		EnumMap<AbilityName, Integer> input = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		for(AbilityName ability : AbilityName.values()) {
+			input.put(ability, 10);
+		}
+		creature = new Creature();
+		creature.setAbilityScores(AbilityScores.create(input));
+	}
+	
+	/**
+	 * Score written by each writer thread, so that every write changes the
+	 * scores.
+	 */
+	@State(Scope.Thread)
+	public static class Writer {
+		int score = 10;
+	}
+	
+	private int read() {
+		return creature.getAbilityScores().getModifier(AbilityName.DEXTERITY) 
+				+ creature.getDerivedStat(DerivedStat.COMBAT_MANEUVER_DEFENSE);
+	}
+	
+	private void write(Writer writer) {
+		writer.score ^= 1;
+		creature.updateAbilityScores(scores -> scores.with(AbilityName.STRENGTH, writer.score));
+	}
+	
+	@Benchmark
+	@Group("readOnly")
+	@GroupThreads(4)
+	public int readOnlyRead() {
+		return read();
+	}
+	
+	@Benchmark
+	@Group("readMostly")
+	@GroupThreads(3)
+	public int readMostlyRead() {
+		return read();
+	}
+	
+	@Benchmark
+	@Group("readMostly")
+	@GroupThreads(1)
+	public void readMostlyWrite(Writer writer) {
+		write(writer);
+	}
+	
+	@Benchmark
+	@Group("balanced")
+	@GroupThreads(2)
+	public int balancedRead() {
+		return read();
+	}
+	
+	@Benchmark
+	@Group("balanced")
+	@GroupThreads(2)
+	public void balancedWrite(Writer writer) {
+		write(writer);
+	}
+}
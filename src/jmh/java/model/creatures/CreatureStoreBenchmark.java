@@ -0,0 +1,68 @@
+package model.creatures;
+
+import java.util.EnumMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Compares a scan of the whole population, the average Dexterity modifier,
+ * over a {@link CreatureStore} and over an array of {@link Creature}.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Thread)
+public class CreatureStoreBenchmark {
+	@Param({"1000000"})
+	private int creatures;
+	private CreatureStore store;
+	private Creature[] objects;
+	
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		store = new CreatureStore(creatures);
+		objects = new Creature[creatures];
+		EnumMap<AbilityName, Integer> input = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		for(int i = 0; i < creatures; i++) {
+			for(AbilityName ability : AbilityName.values()) {
+				input.put(ability, 3 + random.nextInt(16));
+			}
+			AbilityScores scores = AbilityScores.create(input);
+			store.add(scores);
+			objects[i] = new Creature();
+			objects[i].setAbilityScores(scores);
+		}
+	}
+	
+	@Benchmark
+	public double store() {
+		return store.averageModifier(AbilityName.DEXTERITY);
+	}
+	
+	@Benchmark
+	public double objects() {
+		long sum = 0;
+		for(Creature creature : objects) {
+			sum += creature.getAbilityScores().getModifier(AbilityName.DEXTERITY);
+		}
+		return (double) sum / objects.length;
+	}
+}
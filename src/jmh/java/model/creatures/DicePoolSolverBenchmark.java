@@ -0,0 +1,57 @@
+package model.creatures;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Measures the time to find the best assignment of the extra dice of the
+ * DICE_POOL method, depending on the size of the pool.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DicePoolSolverBenchmark {
+	@Param({"6", "60", "996"})
+	private int pool;
+	private Map<AbilityName, Double> weights;
+	private Map<AbilityName, Integer> thresholds;
+	
+	@Setup
+	public void setUp() {
+		weights = new EnumMap<AbilityName, Double>(AbilityName.class);
+		thresholds = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		for(AbilityName ability : AbilityName.values()) {
+			weights.put(ability, 1.0 + ability.ordinal());
+			thresholds.put(ability, 10 + ability.ordinal());
+		}
+	}
+	
+	@Benchmark
+	public DicePoolSolver.Allocation maximiseMean() {
+		return DicePoolSolver.maximiseMean(weights, pool);
+	}
+	
+	@Benchmark
+	public DicePoolSolver.Allocation maximiseSuccess() {
+		return DicePoolSolver.maximiseSuccess(thresholds, pool);
+	}
+}
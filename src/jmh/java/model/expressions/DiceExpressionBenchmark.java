@@ -0,0 +1,58 @@
+package model.expressions;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.creatures.AbilityScores;
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Measures the lookup of compiled {@link DiceExpression}s in the cache and 
+ * their evaluation, which should not allocate anything.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiceExpressionBenchmark {
+	/**Expression to parse and evaluate.*/
+	@Param({"3d6+2d8+5", "4d6kh3", "d20+STR"})
+	public String text;
+	private DiceExpression expression;
+	private AbilityScores scores;
+	
+	@Setup
+	public void setUp() {
+		expression = DiceExpression.parse(text);
+		EnumMap<AbilityName, Integer> values = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		for(AbilityName ability : AbilityName.values()) {
+			values.put(ability, 14);
+		}
+		scores = AbilityScores.create(values);
+	}
+	
+	@Benchmark
+	public DiceExpression parse() {
+		return DiceExpression.parse(text);
+	}
+	
+	@Benchmark
+	public int evaluate() {
+		return expression.evaluate(scores);
+	}
+}
@@ -0,0 +1,64 @@
+package model.random;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.values.Roll;
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+/**
+ * Compares the speed of the different {@link RandomAlgorithm} backends of 
+ * {@link RandomSource}, alone and when rolling dice.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RandomSourceBenchmark {
+	@Param
+	public RandomAlgorithm algorithm;
+	private RandomSource source;
+	private Roll fourD6;
+	private Roll largePool;
+	
+	@Setup
+	public void setUp() {
+		source = RandomSource.create(algorithm, 42);
+		fourD6 = new Roll(4, 6);
+		largePool = new Roll(999, 999);
+	}
+	
+	@Benchmark
+	public long nextLong() {
+		return source.nextLong();
+	}
+	
+	@Benchmark
+	public int nextD20() {
+		return source.nextInt(20);
+	}
+	
+	@Benchmark
+	public int roll4d6() {
+		return fourD6.roll(source).getScore();
+	}
+	
+	@Benchmark
+	public int roll999d999() {
+		return largePool.roll(source).getScore();
+	}
+}
@@ -0,0 +1,72 @@
+package model.values;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one round of a game holding a steady number of temporary
+ * bonuses, one of which expires and is replaced each round: with a
+ * {@link BonusScheduler}, and with a scan of all the bonuses as a baseline.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Thread)
+public class BonusSchedulerBenchmark {
+	@Param({"1000", "1000000"})
+	private int bonuses;
+	private BonusScheduler scheduler;
+	private Value[] values;
+	private Bonus bonus;
+	// Baseline: expiry round of each bonus, scanned every round
+	private long[] expiries;
+	private long round;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		scheduler = new BonusScheduler();
+		values = new Value[bonuses];
+		expiries = new long[bonuses];
+		bonus = new Bonus(2, Bonus.Type.MORALE);
+		for(int i = 0; i < bonuses; i++) {
+			values[i] = new Value(10);
+			scheduler.schedule(values[i], bonus, i + 1);
+			expiries[i] = i + 1;
+		}
+	}
+
+	@Benchmark
+	public int scheduler() {
+		scheduler.schedule(values[next], bonus, bonuses);
+		next = next + 1 == bonuses ? 0 : next + 1;
+		return scheduler.advance();
+	}
+
+	@Benchmark
+	public int scan() {
+		round++;
+		int expired = 0;
+		for(int i = 0; i < expiries.length; i++) {
+			if(expiries[i] == round) {
+				expiries[i] = round + bonuses;
+				expired++;
+			}
+		}
+		return expired;
+	}
+}
@@ -0,0 +1,63 @@
+package model.values;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.random.RandomSource;
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+/**
+ * Compares the {@link DiceSampler}, which rolls several dice with each 
+ * random number, with one call to {@link RandomSource#nextInt(int)} per die.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiceSamplerBenchmark {
+	/**Number of sides of the dice.*/
+	@Param({"4", "6", "20", "999"})
+	public int sides;
+	/**Number of dice rolled at once.*/
+	@Param({"4", "100"})
+	public int count;
+	/**Generator of the random numbers, from the fastest to the slowest.*/
+	@Param({"SPLITTABLE", "MERSENNE_TWISTER"})
+	public RandomAlgorithm algorithm;
+	private RandomSource random;
+	private short[] values;
+	
+	@Setup
+	public void setUp() {
+		random = RandomSource.create(algorithm, 42);
+		values = new short[count];
+	}
+	
+	@Benchmark
+	public short[] perDie() {
+		for(int i = 0; i < count; i++) {
+			values[i] = (short) (random.nextInt(sides) + 1);
+		}
+		return values;
+	}
+	
+	@Benchmark
+	public short[] batched() {
+		DiceSampler.roll(random, sides, count, values, 0);
+		return values;
+	}
+}
@@ -0,0 +1,138 @@
+package model.values;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline benchmarks for the hot paths of {@link Roll}, from the smallest 
+ * rolls to the largest one allowed by 
+ * {@link service.parameters.ValueParameters}.
+ * Each thread works on its own {@link Roll}, so that the multi-threaded 
+ * variants only measure the contention on shared state.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RollBenchmark {
+	/**Dice to roll, written as "NdS".*/
+	@Param({"1d20", "4d6", "999d999"})
+	public String dice;
+	private Roll roll;
+	// Same dice keeping the highest half of them
+	private Roll kept;
+	private RollResult result;
+	private int sides;
+	// Destination of the batch benchmarks, one roll per die in the largest pool
+	private int[] batch;
+	
+	@Setup
+	public void setUp() {
+		roll = parse(dice);
+		kept = roll.keepHighest((roll.getNumberOfDice() + 1) / 2);
+		result = roll.roll();
+		sides = Integer.parseInt(dice.substring(dice.indexOf('d') + 1));
+		batch = new int[1024 * roll.getNumberOfDice()];
+	}
+	
+	@Benchmark
+	public RollResult roll() {
+		return roll.roll();
+	}
+	
+	@Benchmark
+	public RollResult rollScore() {
+		return roll.rollScore();
+	}
+	
+	@Benchmark
+	public int rollTotal() {
+		return roll.rollTotal();
+	}
+	
+	@Benchmark
+	public RollResult rollKept() {
+		return kept.roll();
+	}
+	
+	@Benchmark
+	public int rollTotalKept() {
+		return kept.rollTotal();
+	}
+	
+	@Benchmark
+	public int[] getResults() {
+		return result.getResults(sides);
+	}
+	
+	@Benchmark
+	public int getScore() {
+		return result.getScore();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(1024)
+	public int[] rollTotals() {
+		roll.rollTotals(batch, 0, 1024);
+		return batch;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(1024)
+	public int[] rollDice() {
+		roll.rollDice(batch, 0, 1024);
+		return batch;
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public RollResult rollMultiThreaded() {
+		return roll.roll();
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public RollResult rollSharedMultiThreaded(SharedRoll shared) {
+		return shared.roll.roll();
+	}
+	
+	/**
+	 * Single {@link Roll} shared by all the threads of a benchmark.
+	 */
+	@State(Scope.Benchmark)
+	public static class SharedRoll {
+		private Roll roll;
+		
+		@Setup
+		public void setUp(RollBenchmark benchmark) {
+			roll = parse(benchmark.dice);
+		}
+	}
+	
+	/**
+	 * Builds a {@link Roll} from a string such as "4d6".
+	 * @param dice	number of dice and number of sides separated by a 'd'.
+	 * @return the corresponding {@link Roll}.
+	 */
+	static Roll parse(String dice) {
+		int separator = dice.indexOf('d');
+		return new Roll(Integer.parseInt(dice.substring(0, separator)), 
+				Integer.parseInt(dice.substring(separator + 1)));
+	}
+}
@@ -0,0 +1,70 @@
+package model.values;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how the number of rolls per second scales with the number of 
+ * threads rolling at the same time. With per-thread generators, the 
+ * throughput of each thread should stay flat up to the number of cores.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RollScalingBenchmark {
+	/**Dice to roll, written as "NdS".*/
+	@Param({"1d20", "4d6"})
+	public String dice;
+	private Roll roll;
+	
+	@Setup
+	public void setUp() {
+		roll = RollBenchmark.parse(dice);
+	}
+	
+	@Benchmark
+	@Threads(1)
+	public RollResult oneThread() {
+		return roll.roll();
+	}
+	
+	@Benchmark
+	@Threads(2)
+	public RollResult twoThreads() {
+		return roll.roll();
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public RollResult fourThreads() {
+		return roll.roll();
+	}
+	
+	@Benchmark
+	@Threads(8)
+	public RollResult eightThreads() {
+		return roll.roll();
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public RollResult allCores() {
+		return roll.roll();
+	}
+}
@@ -0,0 +1,55 @@
+package model.values;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the reading of a {@link Value} carrying many bonuses, and the
+ * cost of changing one of them.
+ * @author TLM
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueBenchmark {
+	@Param({"0", "30"})
+	private int bonuses;
+	private Value value;
+	private Bonus toggled;
+	
+	@Setup
+	public void setUp() {
+		value = new Value(10);
+		Bonus.Type[] types = Bonus.Type.values();
+		for(int i = 0; i < bonuses; i++) {
+			value.addBonus(new Bonus(i % 5 - 1, types[i % types.length]));
+		}
+		toggled = new Bonus(2, Bonus.Type.MORALE);
+	}
+	
+	@Benchmark
+	public int getValue() {
+		return value.getValue();
+	}
+	
+	@Benchmark
+	public int toggleBonus() {
+		value.addBonus(toggled);
+		value.removeBonus(toggled);
+		return value.getValue();
+	}
+}
@@ -3,6 +3,7 @@
  */
 package model.creatures;
 
+import java.nio.IntBuffer;
 import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -10,10 +11,12 @@ import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import model.exceptions.IllegalAbilityScoreException;
 import model.values.AbilityScore;
+import model.values.Bonus;
 import model.values.Value;
 import service.parameters.CreatureParameters.AbilityName;
 import service.parameters.ValueParameters;
@@ -31,6 +34,15 @@ public interface AbilityScores extends Iterable<Map.Entry<AbilityName, AbilitySc
 	public final static Set<AbilityName> MANDATORY_ABILITIES = Collections.unmodifiableSet(EnumSet.of(
 			AbilityName.DEXTERITY, AbilityName.WISDOM, AbilityName.CHARISMA));
 	
+	/**Number of abilities, which is the length needed by the bulk accessors.*/
+	public final static int NUMBER_OF_ABILITIES = AbilityName.values().length;
+	
+	/**
+	 * Value written by {@link #getScores(int[])} for the abilities which are
+	 * not defined, below any valid score.
+	 */
+	public final static int UNDEFINED_SCORE = -1;
+	
 	/**
 	 * Returns the modifier associated with the given ability.
 	 * @param ability
@@ -48,7 +60,84 @@ public interface AbilityScores extends Iterable<Map.Entry<AbilityName, AbilitySc
 	public AbilityScore getScore(AbilityName ability);
 	
 	/**
-	 * Checks that the input is valid to build an AbilityScore.
+	 * Returns immutable {@link AbilityScores} equal to these ones except for
+	 * the score of one ability. This object is not modified.
+	 * @param ability	to change.
+	 * @param score		new value of the ability.
+	 * @return an immutable {@link AbilityScores} object, which is this one
+	 * if it is immutable and the score does not change.
+	 * @throws IllegalAbilityScoreException if the score is not valid.
+	 */
+	public default AbilityScores with(AbilityName ability, int score) {
+		return PackedAbilityScores.copyOf(this).with(ability, score);
+	}
+	
+	/**
+	 * Returns immutable {@link AbilityScores} equal to these ones except 
+	 * that an optional ability is not defined. This object is not modified.
+	 * @param ability	to remove.
+	 * @return an immutable {@link AbilityScores} object, which is this one
+	 * if it is immutable and the ability is already undefined.
+	 * @throws IllegalAbilityScoreException if the ability is mandatory.
+	 */
+	public default AbilityScores without(AbilityName ability) {
+		return PackedAbilityScores.copyOf(this).without(ability);
+	}
+	
+	/**
+	 * Visits the defined abilities in the order of {@link AbilityName}, 
+	 * without allocating anything.
+	 * @param visitor	called with the name, score and modifier of each 
+	 * defined ability.
+	 */
+	public default void forEach(AbilityVisitor visitor) {
+		for(AbilityName ability : AbilityName.values()) {
+			AbilityScore score = getScore(ability);
+			if(score != null) {
+				visitor.visit(ability, score.getValue(), score.getModifier());
+			}
+		}
+	}
+	
+	/**
+	 * Copies the scores of all the abilities into an array, without 
+	 * allocating anything.
+	 * @param out	array of at least six elements, receiving the score of 
+	 * each ability at the index of its ordinal in {@link AbilityName}, or 
+	 * {@link #UNDEFINED_SCORE} if it is not defined.
+	 * @throws IllegalArgumentException if the array is too short.
+	 */
+	public default void getScores(int[] out) {
+		if(out.length < NUMBER_OF_ABILITIES) {
+			throw new IllegalArgumentException("The output needs room for " + NUMBER_OF_ABILITIES + " abilities");
+		}
+		for(AbilityName ability : AbilityName.values()) {
+			AbilityScore score = getScore(ability);
+			out[ability.ordinal()] = score == null ? UNDEFINED_SCORE : score.getValue();
+		}
+	}
+	
+	/**
+	 * Copies the modifiers of all the abilities into an array, without 
+	 * allocating anything.
+	 * @param out	array of at least six elements, receiving the modifier of
+	 * each ability at the index of its ordinal in {@link AbilityName}, which
+	 * is 0 if it is not defined.
+	 * @throws IllegalArgumentException if the array is too short.
+	 */
+	public default void getModifiers(int[] out) {
+		if(out.length < NUMBER_OF_ABILITIES) {
+			throw new IllegalArgumentException("The output needs room for " + NUMBER_OF_ABILITIES + " abilities");
+		}
+		for(AbilityName ability : AbilityName.values()) {
+			out[ability.ordinal()] = getModifier(ability);
+		}
+	}
+	
+	/**
+	 * Checks that the input is valid to build an AbilityScore. Use 
+	 * {@link AbilityScoresValidation#validate(Map)} to check many inputs 
+	 * without building exceptions.
 	 * @param values	the input to check.
 	 * @param fail		if true, raise an {@link IllegalAbilityScoreException}
 	 * instead of returning false.
@@ -56,36 +145,11 @@ public interface AbilityScores extends Iterable<Map.Entry<AbilityName, AbilitySc
 	 * abilities have valid values.
 	 */
 	public static boolean isValidAbilityScoreInput(Map<AbilityName, Integer> values, boolean fail) {
-		//Reject null input
-		if(values == null) {
-			if(fail) {
-				throw new IllegalAbilityScoreException(IllegalAbilityScoreException.Cause.NULL);
-			}
-			return false;
-		}
-		//Check if all mandatory abilities are present
-		if(!MANDATORY_ABILITIES.containsAll(values.keySet())) {
-			//If not, find the missing one and throw an exception
-			for(AbilityName ability: MANDATORY_ABILITIES) {
-				if (!values.containsKey(ability)) {
-					if(fail) {
-						throw new IllegalAbilityScoreException(ability.toString(), values.keySet().toString());
-					}
-					return false;
-				}
-			}
+		int result = AbilityScoresValidation.validate(values);
+		if(fail && !AbilityScoresValidation.isValid(result)) {
+			throw AbilityScoresValidation.toException(result, values);
 		}
-		//Verify that all model.values are valid
-		for(Entry<AbilityName, Integer> entry : values.entrySet()) {
-			if(entry.getValue() < ValueParameters.MIN_ABILITY_SCORE 
-					|| entry.getValue() > ValueParameters.MAX_ABILITY_SCORE) {
-				if(fail) {
-					throw new IllegalAbilityScoreException(entry.getKey().toString(), entry.getValue());
-				}
-				return false;
-			}
-		}
-		return true;
+		return AbilityScoresValidation.isValid(result);
 	}
 
 	/**
@@ -99,6 +163,84 @@ public interface AbilityScores extends Iterable<Map.Entry<AbilityName, AbilitySc
 	public static AbilityScores create(Map<AbilityName, Integer> values) {
 		return new RWAbilityScores(values);
 	}
+
+	/**
+	 * Returns the canonical immutable instance of the given scores: all the
+	 * equal {@link AbilityScores} interned while it is in use give the same
+	 * object, so that large populations of identical creatures share their
+	 * scores, and that interned scores can be compared by reference. The 
+	 * canonical instances are held weakly and collected when they are no 
+	 * longer used. Interning is thread-safe.
+	 * @param abilities	scores to intern.
+	 * @return an immutable {@link AbilityScores} object equal to the input.
+	 * @throws IllegalAbilityScoreException if the input is null.
+	 */
+	public static AbilityScores intern(AbilityScores abilities) {
+		return PackedAbilityScores.intern(abilities);
+	}
+
+	/**
+	 * Validates and builds a number of immutable {@link AbilityScores} from
+	 * primitive columns, without boxing any score. Input i is made of the
+	 * elements i of the six columns, {@link #UNDEFINED_SCORE} marking an 
+	 * undefined ability.
+	 * @param columns	scores of each ability, in the order of 
+	 * {@link AbilityName}, all of the same length.
+	 * @param results	array receiving the result of 
+	 * {@link AbilityScoresValidation} for each input, in which case the 
+	 * invalid inputs give null, or null to throw an exception for the first
+	 * invalid input.
+	 * @param parallel	true to split the inputs between the threads of the
+	 * common fork-join pool, which does not change the result.
+	 * @return the {@link AbilityScores} of each input.
+	 * @throws IllegalAbilityScoreException if columns is null, or if an 
+	 * input is invalid and results is null.
+	 * @throws IllegalArgumentException if there are not six columns of the
+	 * same length, or if results is too short.
+	 */
+	public static AbilityScores[] createAll(int[][] columns, int[] results, boolean parallel) {
+		return PackedAbilityScores.createAll(columns, results, parallel);
+	}
+
+	/**
+	 * Validates and builds a number of immutable {@link AbilityScores} from
+	 * a buffer of primitive scores, without boxing any score. Each input is
+	 * made of six consecutive scores, in the order of {@link AbilityName}, 
+	 * {@link #UNDEFINED_SCORE} marking an undefined ability. The scores are 
+	 * read from the position to the limit of the buffer, which is not 
+	 * modified.
+	 * @param scores	buffer of the inputs.
+	 * @param results	array receiving the result of 
+	 * {@link AbilityScoresValidation} for each input, in which case the 
+	 * invalid inputs give null, or null to throw an exception for the first
+	 * invalid input.
+	 * @param parallel	true to split the inputs between the threads of the
+	 * common fork-join pool, which does not change the result.
+	 * @return the {@link AbilityScores} of each input.
+	 * @throws IllegalAbilityScoreException if scores is null, or if an 
+	 * input is invalid and results is null.
+	 * @throws IllegalArgumentException if the number of scores is not a 
+	 * multiple of six, or if results is too short.
+	 */
+	public static AbilityScores[] createAll(IntBuffer scores, int[] results, boolean parallel) {
+		return PackedAbilityScores.createAll(scores, results, parallel);
+	}
+
+	/**
+	 * Receives the primitive values of the abilities visited by
+	 * {@link AbilityScores#forEach(AbilityVisitor)}.
+	 * @author TLM
+	 */
+	@FunctionalInterface
+	public static interface AbilityVisitor {
+		/**
+		 * Visits one defined ability.
+		 * @param ability	name of the ability.
+		 * @param score		value of the ability.
+		 * @param modifier	modifier of the ability.
+		 */
+		public void visit(AbilityName ability, int score, int modifier);
+	}
 }
 
 /**
@@ -134,6 +276,21 @@ class ROAbilityScores implements AbilityScores{
 	public Iterator<Map.Entry<AbilityName, AbilityScore>> iterator() {
 		return abilities.iterator();
 	}
+
+	@Override
+	public void forEach(AbilityVisitor visitor) {
+		abilities.forEach(visitor);
+	}
+
+	@Override
+	public void getScores(int[] out) {
+		abilities.getScores(out);
+	}
+
+	@Override
+	public void getModifiers(int[] out) {
+		abilities.getModifiers(out);
+	}
 	
 }
 
@@ -142,9 +299,14 @@ class ROAbilityScores implements AbilityScores{
  * This class offers additional methods to increment abilities or add bonuses.
  * Classes using a {@link RWAbilityScores} attribute should never expose it 
  * directly but only expose its {@link ROAbilityScores} counterpart.
+ * <p>
+ * The bonuses only live in this class: the immutable copies, such as the 
+ * ones held by a {@link Creature}, keep the total of each score, and do not
+ * see the bonuses added or removed afterwards.
  * @author TLM
  */
 class RWAbilityScores implements AbilityScores{
+	private static final AbilityName[] ABILITIES = AbilityName.values();
 	/**
 	 * Map of the scores associated with the abilities.
 	 */
@@ -194,6 +356,64 @@ class RWAbilityScores implements AbilityScores{
 		return abilities.get(ability);
 	}
 	
+	@Override
+	public void forEach(AbilityVisitor visitor) {
+		for(AbilityName ability : ABILITIES) {
+			AbilityScoreType score = abilities.get(ability);
+			if(score != null) {
+				visitor.visit(ability, score.getValue(), score.getModifier());
+			}
+		}
+	}
+	
+	@Override
+	public void getScores(int[] out) {
+		if(out.length < NUMBER_OF_ABILITIES) {
+			throw new IllegalArgumentException("The output needs room for " + NUMBER_OF_ABILITIES + " abilities");
+		}
+		for(AbilityName ability : ABILITIES) {
+			AbilityScoreType score = abilities.get(ability);
+			out[ability.ordinal()] = score == null ? UNDEFINED_SCORE : score.getValue();
+		}
+	}
+	
+	@Override
+	public void getModifiers(int[] out) {
+		if(out.length < NUMBER_OF_ABILITIES) {
+			throw new IllegalArgumentException("The output needs room for " + NUMBER_OF_ABILITIES + " abilities");
+		}
+		for(AbilityName ability : ABILITIES) {
+			out[ability.ordinal()] = getModifier(ability);
+		}
+	}
+	
+	/**
+	 * Applies a bonus to one of the abilities.
+	 * @param ability	receiving the bonus.
+	 * @param bonus		to apply.
+	 * @throws IllegalArgumentException if the ability is not defined or if
+	 * the bonus is null.
+	 */
+	public void addBonus(AbilityName ability, Bonus bonus) {
+		AbilityScoreType score = abilities.get(ability);
+		if(score == null) {
+			throw new IllegalArgumentException("Cannot apply a bonus to " + ability 
+					+ ", which is not defined in " + this);
+		}
+		score.addBonus(bonus);
+	}
+	
+	/**
+	 * Removes a bonus previously applied to one of the abilities.
+	 * @param ability	which received the bonus.
+	 * @param bonus		instance to remove.
+	 * @return true if the bonus was applied to the ability.
+	 */
+	public boolean removeBonus(AbilityName ability, Bonus bonus) {
+		AbilityScoreType score = abilities.get(ability);
+		return score != null && score.removeBonus(bonus);
+	}
+	
 	/**
 	 * @return a read-only object encapsulating this one.
 	 */
@@ -228,12 +448,18 @@ class RWAbilityScores implements AbilityScores{
 		}
 		
 		/**
-		 * Makes a deep copy of the input {@link AbilityScore} object.
+		 * Makes a deep copy of the input {@link AbilityScore} object, with 
+		 * the same base value and bonuses if it is a {@link Value}. The 
+		 * bonuses are immutable and shared.
 		 * @param value	to copy.
 		 */
 		AbilityScoreType(AbilityScore value){
-			//XXX This should probably fail if any bonuses apply to value
-			super(value.getValue());
+			super(value instanceof Value ? ((Value) value).getBaseValue() : value.getValue());
+			if(value instanceof Value) {
+				for(Bonus bonus : ((Value) value).getBonuses()) {
+					addBonus(bonus);
+				}
+			}
 		}
 
 		@Override
@@ -246,16 +472,19 @@ class RWAbilityScores implements AbilityScores{
 	@Override
 	public Iterator<Map.Entry<AbilityName, AbilityScore>> iterator() {
 		return new Iterator<Map.Entry<AbilityName, AbilityScore>>(){
-			//Build atop an iterator for the names
-			Iterator<AbilityName> nameIterator = EnumSet.allOf(AbilityName.class).iterator();
+			//Ordinal of the next name
+			int next;
 			@Override
 			public boolean hasNext() {
-				return nameIterator.hasNext();
+				return next < ABILITIES.length;
 			}
 
 			@Override
 			public Entry<AbilityName, AbilityScore> next() {
-				AbilityName name = nameIterator.next();
+				if(!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				AbilityName name = ABILITIES[next++];
 				return new AbstractMap.SimpleImmutableEntry<AbilityName, AbilityScore>(name, getScore(name));
 			}
 		};
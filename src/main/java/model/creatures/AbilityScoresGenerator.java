@@ -0,0 +1,127 @@
+package model.creatures;
+
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import model.random.RandomSource;
+import service.parameters.CreatureParameters.AbilityGenerationMethod;
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Generates the {@link AbilityScores} of new creatures following one of the
+ * {@link AbilityGenerationMethod}s. Generators are stateless and may be
+ * shared between threads, each thread providing its own
+ * {@link RandomSource}.
+ * <p>
+ * Large numbers of {@link AbilityScores} are generated with
+ * {@link #stream(long, long)} or {@link #generate(long, int)}: the scores
+ * with index i always use the stream i of the seed, given by
+ * {@link RandomSource#stream(long, long)}, so that the results only depend
+ * on the seed and not on how the work is split between threads.
+ * @author TLM
+ */
+public interface AbilityScoresGenerator {
+
+	/**
+	 * Generates a value for each ability with the {@link RandomSource} of
+	 * the current thread.
+	 * @return a new {@link AbilityScores} object.
+	 */
+	public default AbilityScores generate() {
+		return generate(RandomSource.current());
+	}
+
+	/**
+	 * Generates a value for each ability with the given
+	 * {@link RandomSource}. The scores are assigned to the abilities in the
+	 * order of their declaration.
+	 * @param random	source of the random numbers.
+	 * @return a new {@link AbilityScores} object.
+	 */
+	public AbilityScores generate(RandomSource random);
+
+	/**
+	 * Returns a lazy stream generating a number of {@link AbilityScores}.
+	 * The stream is sequential: calling {@link Stream#parallel()} splits the
+	 * indices between the threads of the common fork-join pool, without
+	 * changing the scores or their order.
+	 * @param seed	shared by all the generations.
+	 * @param count	number of {@link AbilityScores} to generate.
+	 * @return an ordered and sized {@link Stream} whose element i is 
+	 * generated with the stream i of the seed.
+	 * @throws IllegalArgumentException if the count is negative.
+	 */
+	public default Stream<AbilityScores> stream(long seed, long count) {
+		if(count < 0) {
+			throw new IllegalArgumentException("Cannot generate a negative number of ability scores: " + count);
+		}
+		return LongStream.range(0, count).mapToObj(index -> generate(RandomSource.stream(seed, index)));
+	}
+
+	/**
+	 * Generates a number of {@link AbilityScores} in parallel. The result
+	 * is the same as collecting {@link #stream(long, long)}, whatever the
+	 * number of threads.
+	 * @param seed	shared by all the generations.
+	 * @param count	number of {@link AbilityScores} to generate.
+	 * @return a new array whose element i is generated with the stream i
+	 * of the seed.
+	 * @throws IllegalArgumentException if the count is negative.
+	 */
+	public default AbilityScores[] generate(long seed, int count) {
+		return stream(seed, count).parallel().toArray(AbilityScores[]::new);
+	}
+
+	/**
+	 * Returns the generator implementing the given method with its default
+	 * settings: {@link AbilityGenerationMethod#DICE_POOL} spreads the extra
+	 * dice as evenly as possible between the abilities, in the order of
+	 * {@link AbilityName}, and {@link AbilityGenerationMethod#DIRECT_ASSIGNMENT}
+	 * gives a score of 10 to every ability.
+	 * @param method	to generate the ability scores with.
+	 * @return a shared {@link AbilityScoresGenerator}.
+	 * @throws IllegalArgumentException if the method is null.
+	 */
+	public static AbilityScoresGenerator of(AbilityGenerationMethod method) {
+		if(method == null) {
+			throw new IllegalArgumentException("The generation method cannot be null");
+		}
+		switch(method) {
+		case STANDARD:
+			return StandardGenerator.INSTANCE;
+		case DICE_POOL:
+			return DicePoolGenerator.EVEN;
+		case DIRECT_ASSIGNMENT:
+			return DirectAssignmentGenerator.DEFAULT;
+		default:
+			throw new AssertionError("Unknown generation method " + method);
+		}
+	}
+
+	/**
+	 * Returns a generator for {@link AbilityGenerationMethod#DICE_POOL} with
+	 * a given assignment of the extra dice.
+	 * @param extraDice	number of extra dice of each ability, the missing
+	 * abilities having none. They must add up to the parameter of the
+	 * method.
+	 * @return a new {@link AbilityScoresGenerator}.
+	 * @throws IllegalArgumentException if the assignment is not valid.
+	 */
+	public static AbilityScoresGenerator dicePool(Map<AbilityName, Integer> extraDice) {
+		return new DicePoolGenerator(extraDice);
+	}
+
+	/**
+	 * Returns a generator for {@link AbilityGenerationMethod#DIRECT_ASSIGNMENT}
+	 * always giving the same scores.
+	 * @param scores	value of each ability, following the rules of
+	 * {@link AbilityScores#create(Map)}. A copy is made.
+	 * @return a new {@link AbilityScoresGenerator}.
+	 * @throws model.exceptions.IllegalAbilityScoreException if the scores
+	 * are not valid.
+	 */
+	public static AbilityScoresGenerator directAssignment(Map<AbilityName, Integer> scores) {
+		return new DirectAssignmentGenerator(scores);
+	}
+}
@@ -0,0 +1,151 @@
+package model.creatures;
+
+import java.util.Map;
+
+import model.exceptions.IllegalAbilityScoreException;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
+
+/**
+ * Non-instanciable container for the validation of the input of
+ * {@link AbilityScores#create(Map)} without exceptions.
+ * <p>
+ * {@link #validate(Map)} returns an int whose bits give every problem of
+ * the input, so that a large number of inputs can be checked without
+ * allocating anything, even when they are invalid:
+ * <ul>
+ * <li>the bit of ordinal o, for a mandatory ability of ordinal o which is
+ * missing,</li>
+ * <li>the bit of ordinal 6 + o, for an ability of ordinal o whose value is
+ * null or out of range,</li>
+ * <li>{@link #NULL_INPUT}, if the input itself is null.</li>
+ * </ul>
+ * The result is {@link #VALID} if there is no problem. An exception is only
+ * built on demand, with {@link #toException(int, Map)}. The bulk factories
+ * of {@link AbilityScores} report the problems of each input the same way.
+ * @author TLM
+ */
+public final class AbilityScoresValidation {
+	private static final AbilityName[] ABILITIES = AbilityName.values();
+	/**Result of the validation of a valid input.*/
+	public static final int VALID = 0;
+	/**Offset of the bits flagging the abilities whose value is invalid.*/
+	private static final int OUT_OF_RANGE_SHIFT = ABILITIES.length;
+	/**Bit flagging a null input, in which case no other bit is set.*/
+	public static final int NULL_INPUT = 1 << (2 * ABILITIES.length);
+	/**Bits of the missing mandatory abilities if the input is empty.*/
+	private static final int MANDATORY;
+
+	static {
+		int mandatory = 0;
+		for(AbilityName ability : AbilityScores.MANDATORY_ABILITIES) {
+			mandatory |= 1 << ability.ordinal();
+		}
+		MANDATORY = mandatory;
+	}
+
+	/**Prevents the class from being instantiated.*/
+	private AbilityScoresValidation() {}
+
+	/**
+	 * Checks the input of {@link AbilityScores#create(Map)} without
+	 * allocating anything.
+	 * @param values	the input to check, whose null keys are ignored.
+	 * @return {@link #VALID}, or the bits of all the problems of the input.
+	 */
+	public static int validate(Map<AbilityName, Integer> values) {
+		if(values == null) {
+			return NULL_INPUT;
+		}
+		int result = VALID;
+		for(int i = 0; i < ABILITIES.length; i++) {
+			Integer value = values.get(ABILITIES[i]);
+			if(value == null) {
+				if(values.containsKey(ABILITIES[i])) {
+					result |= 1 << (OUT_OF_RANGE_SHIFT + i);
+				} else {
+					result |= MANDATORY & 1 << i;
+				}
+			} else if(value < ValueParameters.MIN_ABILITY_SCORE || value > ValueParameters.MAX_ABILITY_SCORE) {
+				result |= 1 << (OUT_OF_RANGE_SHIFT + i);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks one score of a primitive input, where
+	 * {@link AbilityScores#UNDEFINED_SCORE} marks an undefined ability.
+	 * @param ability	ordinal of the ability.
+	 * @param score		value of the ability.
+	 * @return the bits of the problems of this score, to combine with the
+	 * ones of the other scores.
+	 */
+	static int validate(int ability, int score) {
+		if(score == AbilityScores.UNDEFINED_SCORE) {
+			return MANDATORY & 1 << ability;
+		}
+		if(score < ValueParameters.MIN_ABILITY_SCORE || score > ValueParameters.MAX_ABILITY_SCORE) {
+			return 1 << (OUT_OF_RANGE_SHIFT + ability);
+		}
+		return VALID;
+	}
+
+	/**
+	 * @param result	of {@link #validate(Map)}.
+	 * @return true if the input has no problem.
+	 */
+	public static boolean isValid(int result) {
+		return result == VALID;
+	}
+
+	/**
+	 * @param result	of {@link #validate(Map)}.
+	 * @param ability	to check.
+	 * @return true if the ability is mandatory and missing from the input.
+	 */
+	public static boolean isMissing(int result, AbilityName ability) {
+		return (result & 1 << ability.ordinal()) != 0;
+	}
+
+	/**
+	 * @param result	of {@link #validate(Map)}.
+	 * @param ability	to check.
+	 * @return true if the value of the ability is null or out of range.
+	 */
+	public static boolean isOutOfRange(int result, AbilityName ability) {
+		return (result & 1 << (OUT_OF_RANGE_SHIFT + ability.ordinal())) != 0;
+	}
+
+	/**
+	 * Builds the exception describing the first problem of an input: a null
+	 * input, then a missing mandatory ability, then an invalid value.
+	 * @param result	of {@link #validate(Map)} for the input.
+	 * @param values	input which has been checked.
+	 * @return a new {@link IllegalAbilityScoreException}, or null if the
+	 * input is valid.
+	 */
+	public static IllegalAbilityScoreException toException(int result, Map<AbilityName, Integer> values) {
+		if(result == VALID) {
+			return null;
+		}
+		if((result & NULL_INPUT) != 0) {
+			return new IllegalAbilityScoreException(IllegalAbilityScoreException.Cause.NULL);
+		}
+		for(AbilityName ability : ABILITIES) {
+			if(isMissing(result, ability)) {
+				return new IllegalAbilityScoreException(ability.toString(), values.keySet().toString());
+			}
+		}
+		for(AbilityName ability : ABILITIES) {
+			if(isOutOfRange(result, ability)) {
+				Integer value = values.get(ability);
+				if(value == null) {
+					return new IllegalAbilityScoreException(ability.toString(), values.keySet().toString());
+				}
+				return new IllegalAbilityScoreException(ability.toString(), value);
+			}
+		}
+		throw new IllegalArgumentException("Unknown validation result: " + result);
+	}
+}
@@ -3,13 +3,33 @@
  */
 package model.creatures;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.UnaryOperator;
+
+import service.parameters.CreatureParameters.AbilityName;
+
 /**
  * Actor in the game. Can be a player character, a non player character, or a 
  * monster.
+ * <p>
+ * A creature can be shared between threads. Its state is a set of 
+ * immutable {@link AbilityScores}, which writers replace atomically, so 
+ * that readers never block and always see a consistent snapshot. 
+ * {@link #updateAbilityScores(UnaryOperator)} and 
+ * {@link #setAbilityScore(AbilityName, int)} apply their change to the 
+ * latest snapshot, and try again if another writer has replaced it in the
+ * meantime, so that no change is lost. The derived statistics are cached 
+ * for each snapshot and computed by the readers.
  * @author TLM
  */
 public class Creature {
-	RWAbilityScores abilities;
+	private static final AtomicReferenceFieldUpdater<Creature, PackedAbilityScores> ABILITIES =
+			AtomicReferenceFieldUpdater.newUpdater(Creature.class, PackedAbilityScores.class, "abilities");
+	private static final AtomicReferenceFieldUpdater<Creature, DerivedStats> DERIVED =
+			AtomicReferenceFieldUpdater.newUpdater(Creature.class, DerivedStats.class, "derived");
+	volatile PackedAbilityScores abilities;
+	// Derived statistics of a recent snapshot, null until the first one is read
+	volatile DerivedStats derived;
 
 	/**
 	 * Initialise an empty creature.
@@ -22,18 +42,120 @@ public class Creature {
 	
 	/**
 	 * Sets the creature's {@link AbilityScores} and propagates the modifiers
-	 * wherever applicable.
-	 * @param abilities valid set of abilities. A deep copy is made.
+	 * wherever applicable: the {@link DerivedStat} depending on the 
+	 * abilities which have changed are computed again the next time they 
+	 * are read. Immutable scores are kept as they are, and the other ones 
+	 * are copied into a private immutable object. The scores are not 
+	 * interned: to make creatures with the same scores share a single 
+	 * object, give them the result of 
+	 * {@link AbilityScores#intern(AbilityScores)}, which they keep until 
+	 * one of them changes a score with 
+	 * {@link #setAbilityScore(AbilityName, int)}. The creature only keeps 
+	 * the total of each score: the bonuses added to or removed from the 
+	 * input afterwards are not seen until it is set again.
+	 * @param abilities valid set of abilities.
+	 * @throws model.exceptions.IllegalAbilityScoreException if abilities is
+	 * null.
 	 */
 	public void setAbilityScores(AbilityScores abilities) {
-		this.abilities = new RWAbilityScores(abilities);
+		this.abilities = PackedAbilityScores.copyOf(abilities);
+	}
+	
+	/**
+	 * Changes the score of one of the creature's abilities. The creature 
+	 * gets its own {@link AbilityScores}, which are not interned, and the
+	 * previous ones, which may be shared, are not modified. Only the 
+	 * {@link DerivedStat} depending on this ability are computed again.
+	 * @param ability	to change.
+	 * @param score		new value of the ability.
+	 * @throws model.exceptions.IllegalAbilityScoreException if the score is
+	 * not valid.
+	 * @throws IllegalStateException if the creature has no 
+	 * {@link AbilityScores} yet.
+	 */
+	public void setAbilityScore(AbilityName ability, int score) {
+		PackedAbilityScores current;
+		PackedAbilityScores next;
+		do {
+			current = getCurrentAbilityScores();
+			next = current.with(ability, score);
+		} while(next != current && !ABILITIES.compareAndSet(this, current, next));
+	}
+	
+	/**
+	 * Changes the creature's {@link AbilityScores} according to their 
+	 * current value, for instance to drain or buff an ability, without 
+	 * losing the changes made concurrently by other threads. The update is 
+	 * applied again to the new scores if they have been replaced in the 
+	 * meantime, so it must have no side effect. The result is not interned.
+	 * @param update	function giving the new scores from the current ones.
+	 * @return the new scores of the creature.
+	 * @throws model.exceptions.IllegalAbilityScoreException if the update 
+	 * gives null or invalid scores.
+	 * @throws IllegalStateException if the creature has no 
+	 * {@link AbilityScores} yet.
+	 */
+	public AbilityScores updateAbilityScores(UnaryOperator<AbilityScores> update) {
+		PackedAbilityScores current;
+		PackedAbilityScores next;
+		do {
+			current = getCurrentAbilityScores();
+			next = PackedAbilityScores.copyOf(update.apply(current));
+		} while(!ABILITIES.compareAndSet(this, current, next));
+		return next;
+	}
+
+	/**
+	 * @return the latest snapshot of the creature's scores.
+	 * @throws IllegalStateException if the creature has no 
+	 * {@link AbilityScores} yet.
+	 */
+	private PackedAbilityScores getCurrentAbilityScores() {
+		PackedAbilityScores current = this.abilities;
+		if(current == null) {
+			throw new IllegalStateException("The ability scores of the creature must be set first");
+		}
+		return current;
 	}
 	
 	/**
-	 * @return a read-only view of the creature's {@link AbilityScores}.
+	 * @return the creature's {@link AbilityScores}, which are immutable.
 	 */
 	public AbilityScores getAbilityScores() {
-		return this.abilities.getROAbilityScores();
+		return this.abilities;
+	}
+	
+	/**
+	 * Reads one of the creature's derived statistics, which is only 
+	 * computed again if one of the abilities it depends on has changed since
+	 * it was last read.
+	 * @param stat	to read.
+	 * @return the value of the statistic for the latest scores.
+	 * @throws IllegalStateException if the creature has no 
+	 * {@link AbilityScores} yet.
+	 */
+	public int getDerivedStat(DerivedStat stat) {
+		return getDerivedStats().get(stat);
+	}
+
+	/**
+	 * Gives the cache of the derived statistics of the latest scores, 
+	 * building it from the cache of the previous ones if the scores have 
+	 * changed since it was last read.
+	 * @return the cache matching the latest scores.
+	 * @throws IllegalStateException if the creature has no 
+	 * {@link AbilityScores} yet.
+	 */
+	DerivedStats getDerivedStats() {
+		PackedAbilityScores current = getCurrentAbilityScores();
+		DerivedStats cached = this.derived;
+		if(cached != null && cached.getAbilityScores() == current) {
+			return cached;
+		}
+		DerivedStats result = new DerivedStats(cached, current);
+		// Another reader may have published a cache of newer scores
+		DERIVED.compareAndSet(this, cached, result);
+		return result;
 	}
 
 }
@@ -0,0 +1,364 @@
+package model.creatures;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import model.exceptions.IllegalAbilityScoreException;
+import model.values.AbilityScore;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
+
+/**
+ * Columnar storage of the {@link AbilityScores} of a large population of
+ * creatures, each identified by the index of its row. Each ability has its
+ * own array of scores, and each ability which is not mandatory has a bitmap
+ * telling the rows in which it is defined. A row thus costs about 12 bytes
+ * instead of one object per creature.
+ * <p>
+ * A score which is not defined is stored as 0, so that the statistics of
+ * the whole population, like {@link #averageModifier(AbilityName)}, are
+ * sequential sweeps of one array that the JIT compiler can vectorise.
+ * {@link #getAbilityScores(int)} gives a light view of one row, which reads
+ * the arrays directly and sees the later changes of the row.
+ * <p>
+ * A store is not thread-safe.
+ * @author TLM
+ */
+public final class CreatureStore {
+	private static final AbilityName[] ABILITIES = AbilityName.values();
+	private static final int DEFAULT_CAPACITY = 16;
+	/**
+	 * Number of rows summed in an int before being added to a long: the
+	 * half of the maximum score times this stays below Integer.MAX_VALUE.
+	 */
+	private static final int BLOCK = 1 << 22;
+
+	// Scores, indexed by ordinal of the ability then by row
+	private final short[][] scores = new short[ABILITIES.length][];
+	// Bitmaps of the rows defining each ability, null for the mandatory ones
+	private final long[][] defined = new long[ABILITIES.length][];
+	// Buffer to read the scores added to the store
+	private final int[] buffer = new int[AbilityScores.NUMBER_OF_ABILITIES];
+	private int size;
+
+	/**
+	 * Initialises an empty store.
+	 */
+	public CreatureStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Initialises an empty store with room for a number of creatures.
+	 * @param capacity	number of creatures the store can hold before its
+	 * arrays must grow.
+	 * @throws IllegalArgumentException if the capacity is negative.
+	 */
+	public CreatureStore(int capacity) {
+		if(capacity < 0) {
+			throw new IllegalArgumentException("The capacity of a store cannot be negative: " + capacity);
+		}
+		for(AbilityName ability : ABILITIES) {
+			scores[ability.ordinal()] = new short[capacity];
+			if(!AbilityScores.MANDATORY_ABILITIES.contains(ability)) {
+				defined[ability.ordinal()] = new long[words(capacity)];
+			}
+		}
+	}
+
+	/**
+	 * @return the number of creatures in the store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the scores of a creature at the end of the store. Their bonuses
+	 * are included in the stored scores.
+	 * @param abilities	to store.
+	 * @return the row of the creature.
+	 * @throws IllegalAbilityScoreException if the scores are null, or if a
+	 * bonus takes a score out of range.
+	 */
+	public int add(AbilityScores abilities) {
+		if(abilities == null) {
+			throw new IllegalAbilityScoreException(IllegalAbilityScoreException.Cause.NULL);
+		}
+		ensureCapacity(size + 1);
+		write(size, abilities);
+		return size++;
+	}
+
+	/**
+	 * Replaces the scores of a creature. Their bonuses are included in the
+	 * stored scores.
+	 * @param row		of the creature.
+	 * @param abilities	new scores of the creature.
+	 * @throws IllegalAbilityScoreException if the scores are null, or if a
+	 * bonus takes a score out of range.
+	 * @throws IndexOutOfBoundsException if the row is not in the store.
+	 */
+	public void setAbilityScores(int row, AbilityScores abilities) {
+		checkRow(row);
+		if(abilities == null) {
+			throw new IllegalAbilityScoreException(IllegalAbilityScoreException.Cause.NULL);
+		}
+		write(row, abilities);
+	}
+
+	/**
+	 * Changes the score of one ability of a creature.
+	 * @param row		of the creature.
+	 * @param ability	to change.
+	 * @param score		new value of the ability.
+	 * @throws IllegalAbilityScoreException if the score is not valid.
+	 * @throws IndexOutOfBoundsException if the row is not in the store.
+	 */
+	public void setAbilityScore(int row, AbilityName ability, int score) {
+		checkRow(row);
+		if(score < ValueParameters.MIN_ABILITY_SCORE || score > ValueParameters.MAX_ABILITY_SCORE) {
+			throw new IllegalAbilityScoreException(ability.toString(), score);
+		}
+		write(row, ability.ordinal(), score);
+	}
+
+	/**
+	 * Removes one ability of a creature, which must not be mandatory.
+	 * @param row		of the creature.
+	 * @param ability	to remove.
+	 * @throws IllegalAbilityScoreException if the ability is mandatory.
+	 * @throws IndexOutOfBoundsException if the row is not in the store.
+	 */
+	public void removeAbilityScore(int row, AbilityName ability) {
+		checkRow(row);
+		if(AbilityScores.MANDATORY_ABILITIES.contains(ability)) {
+			throw new IllegalAbilityScoreException(ability.toString(), getAbilityScores(row).toString());
+		}
+		write(row, ability.ordinal(), AbilityScores.UNDEFINED_SCORE);
+	}
+
+	/**
+	 * Gives a view of the scores of a creature, which reads the store and
+	 * reflects the later changes of the row. It does not allocate anything
+	 * but itself, and is neither equal to another view of the same row nor
+	 * to a copy of the scores: use {@link #copyAbilityScores(int)} to keep
+	 * the current scores.
+	 * @param row	of the creature.
+	 * @return the read-only scores of the creature.
+	 * @throws IndexOutOfBoundsException if the row is not in the store.
+	 */
+	public AbilityScores getAbilityScores(int row) {
+		checkRow(row);
+		return new Row(row);
+	}
+
+	/**
+	 * @param row	of the creature.
+	 * @return an immutable copy of the current scores of the creature.
+	 * @throws IndexOutOfBoundsException if the row is not in the store.
+	 */
+	public AbilityScores copyAbilityScores(int row) {
+		checkRow(row);
+		return snapshot(row);
+	}
+
+	/**
+	 * @param ability	to count.
+	 * @return the number of creatures of the store for which the ability is
+	 * defined.
+	 */
+	public int countDefined(AbilityName ability) {
+		long[] bitmap = defined[ability.ordinal()];
+		if(bitmap == null) {
+			return size;
+		}
+		int result = 0;
+		for(int word = 0, words = words(size); word < words; word++) {
+			result += Long.bitCount(bitmap[word]);
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the average modifier of an ability over the creatures for
+	 * which it is defined, with one sweep of the scores.
+	 * @param ability	to average.
+	 * @return the average modifier, or {@link Double#NaN} if no creature of
+	 * the store has the ability.
+	 */
+	public double averageModifier(AbilityName ability) {
+		int count = countDefined(ability);
+		if(count == 0) {
+			return Double.NaN;
+		}
+		// The modifier is half the score minus 5, and undefined scores are 0
+		short[] column = scores[ability.ordinal()];
+		long halves = 0;
+		for(int start = 0; start < size; start += BLOCK) {
+			int end = Math.min(size, start + BLOCK);
+			int block = 0;
+			for(int row = start; row < end; row++) {
+				block += column[row] >> 1;
+			}
+			halves += block;
+		}
+		return (double) (halves - 5L * count) / count;
+	}
+
+	/**
+	 * @param rows	number of rows.
+	 * @return the number of longs of a bitmap of the rows.
+	 */
+	private static int words(int rows) {
+		return (rows + Long.SIZE - 1) >>> 6;
+	}
+
+	private void checkRow(int row) {
+		if(row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " is not in a store of " + size + " creatures");
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		int current = scores[0].length;
+		if(capacity <= current) {
+			return;
+		}
+		int grown = Math.max(capacity, current + (current >> 1) + 1);
+		for(int ability = 0; ability < ABILITIES.length; ability++) {
+			scores[ability] = Arrays.copyOf(scores[ability], grown);
+			if(defined[ability] != null) {
+				defined[ability] = Arrays.copyOf(defined[ability], words(grown));
+			}
+		}
+	}
+
+	/**
+	 * @param row		to change.
+	 * @param abilities	new scores of the row.
+	 * @throws IllegalAbilityScoreException if a bonus takes a score out of
+	 * range, in which case the row is not changed.
+	 */
+	private void write(int row, AbilityScores abilities) {
+		abilities.getScores(buffer);
+		for(int ability = 0; ability < ABILITIES.length; ability++) {
+			int score = buffer[ability];
+			if(score == AbilityScores.UNDEFINED_SCORE ? defined[ability] == null
+					: score < ValueParameters.MIN_ABILITY_SCORE || score > ValueParameters.MAX_ABILITY_SCORE) {
+				throw new IllegalAbilityScoreException(ABILITIES[ability].toString(), score);
+			}
+		}
+		for(int ability = 0; ability < ABILITIES.length; ability++) {
+			write(row, ability, buffer[ability]);
+		}
+	}
+
+	/**
+	 * @param row		to change.
+	 * @param ability	ordinal of the ability to change.
+	 * @param score		valid value of the ability, or
+	 * {@link AbilityScores#UNDEFINED_SCORE} for an ability which is not
+	 * mandatory.
+	 */
+	private void write(int row, int ability, int score) {
+		long[] bitmap = defined[ability];
+		if(score == AbilityScores.UNDEFINED_SCORE) {
+			scores[ability][row] = 0;
+			bitmap[row >>> 6] &= ~(1L << row);
+		} else {
+			scores[ability][row] = (short) score;
+			if(bitmap != null) {
+				bitmap[row >>> 6] |= 1L << row;
+			}
+		}
+	}
+
+	/**
+	 * @param row		to read.
+	 * @param ability	ordinal of the ability to read.
+	 * @return the score of the ability, or
+	 * {@link AbilityScores#UNDEFINED_SCORE}.
+	 */
+	private int read(int row, int ability) {
+		long[] bitmap = defined[ability];
+		if(bitmap != null && (bitmap[row >>> 6] & 1L << row) == 0) {
+			return AbilityScores.UNDEFINED_SCORE;
+		}
+		return scores[ability][row];
+	}
+
+	private PackedAbilityScores snapshot(int row) {
+		int[] result = new int[ABILITIES.length];
+		for(int ability = 0; ability < result.length; ability++) {
+			result[ability] = read(row, ability);
+		}
+		return new PackedAbilityScores(result);
+	}
+
+	/**
+	 * Read-only view of the scores of one row of the store.
+	 * @author TLM
+	 */
+	private final class Row implements AbilityScores {
+		private final int row;
+
+		Row(int row) {
+			this.row = row;
+		}
+
+		@Override
+		public int getModifier(AbilityName ability) {
+			int score = read(row, ability.ordinal());
+			return score == UNDEFINED_SCORE ? 0 : PackedAbilityScores.modifier(score);
+		}
+
+		@Override
+		public AbilityScore getScore(AbilityName ability) {
+			int score = read(row, ability.ordinal());
+			return score == UNDEFINED_SCORE ? null : PackedAbilityScores.shared(score);
+		}
+
+		@Override
+		public void forEach(AbilityVisitor visitor) {
+			for(int ability = 0; ability < ABILITIES.length; ability++) {
+				int score = read(row, ability);
+				if(score != UNDEFINED_SCORE) {
+					visitor.visit(ABILITIES[ability], score, PackedAbilityScores.modifier(score));
+				}
+			}
+		}
+
+		@Override
+		public void getScores(int[] out) {
+			if(out.length < NUMBER_OF_ABILITIES) {
+				throw new IllegalArgumentException("The output needs room for " + NUMBER_OF_ABILITIES + " abilities");
+			}
+			for(int ability = 0; ability < ABILITIES.length; ability++) {
+				out[ability] = read(row, ability);
+			}
+		}
+
+		@Override
+		public void getModifiers(int[] out) {
+			if(out.length < NUMBER_OF_ABILITIES) {
+				throw new IllegalArgumentException("The output needs room for " + NUMBER_OF_ABILITIES + " abilities");
+			}
+			for(int ability = 0; ability < ABILITIES.length; ability++) {
+				int score = read(row, ability);
+				out[ability] = score == UNDEFINED_SCORE ? 0 : PackedAbilityScores.modifier(score);
+			}
+		}
+
+		@Override
+		public Iterator<Entry<AbilityName, AbilityScore>> iterator() {
+			return snapshot(row).iterator();
+		}
+
+		@Override
+		public String toString() {
+			return snapshot(row).toString();
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package model.creatures;
+
+import static service.parameters.CreatureParameters.AbilityName.CHARISMA;
+import static service.parameters.CreatureParameters.AbilityName.CONSTITUTION;
+import static service.parameters.CreatureParameters.AbilityName.DEXTERITY;
+import static service.parameters.CreatureParameters.AbilityName.INTELLIGENCE;
+import static service.parameters.CreatureParameters.AbilityName.STRENGTH;
+import static service.parameters.CreatureParameters.AbilityName.WISDOM;
+
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Statistics of a {@link Creature} derived from its {@link AbilityScores}
+ * and from other derived statistics, which form a dependency graph rooted
+ * at the abilities. A statistic only depends on statistics declared before
+ * it, so the graph has no cycle.
+ * <p>
+ * The class levels, skill ranks and equipment are not modelled yet: each
+ * statistic only holds the part given by the abilities, plus its constant
+ * base. Read them with {@link Creature#getDerivedStat(DerivedStat)}, which
+ * only computes them again when one of the abilities they depend on has
+ * changed.
+ * @author TLM
+ */
+public enum DerivedStat {
+	FORTITUDE(0, CONSTITUTION),
+	REFLEX(0, DEXTERITY),
+	WILL(0, WISDOM),
+	INITIATIVE(0, DEXTERITY),
+	ARMOR_CLASS(10, DEXTERITY),
+	MELEE_ATTACK(0, STRENGTH),
+	RANGED_ATTACK(0, DEXTERITY),
+	COMBAT_MANEUVER_BONUS(0, STRENGTH),
+	COMBAT_MANEUVER_DEFENSE(10, new DerivedStat[] {COMBAT_MANEUVER_BONUS}, DEXTERITY),
+	/**
+	 * Heavy load in pounds, which depends on the Strength score rather than
+	 * on its modifier: 10 pounds per point up to 10, then the table up to
+	 * 20, and four times more for every 10 points above. A creature without
+	 * Strength cannot carry anything.
+	 */
+	CARRYING_CAPACITY(0, STRENGTH) {
+		@Override
+		int compute(AbilityScores scores, DerivedStats stats) {
+			if(scores.getScore(STRENGTH) == null) {
+				return 0;
+			}
+			int score = scores.getScore(STRENGTH).getValue();
+			if(score <= 10) {
+				return 10 * score;
+			}
+			long capacity = HEAVY_LOADS[(score - 11) % 10];
+			for(int tens = (score - 11) / 10; tens > 0 && capacity < Integer.MAX_VALUE; tens--) {
+				capacity *= 4;
+			}
+			return (int) Math.min(capacity, Integer.MAX_VALUE);
+		}
+	},
+	ACROBATICS(0, DEXTERITY),
+	APPRAISE(0, INTELLIGENCE),
+	BLUFF(0, CHARISMA),
+	CLIMB(0, STRENGTH),
+	CRAFT(0, INTELLIGENCE),
+	DIPLOMACY(0, CHARISMA),
+	DISABLE_DEVICE(0, DEXTERITY),
+	DISGUISE(0, CHARISMA),
+	ESCAPE_ARTIST(0, DEXTERITY),
+	FLY(0, DEXTERITY),
+	HANDLE_ANIMAL(0, CHARISMA),
+	HEAL(0, WISDOM),
+	INTIMIDATE(0, CHARISMA),
+	KNOWLEDGE(0, INTELLIGENCE),
+	LINGUISTICS(0, INTELLIGENCE),
+	PERCEPTION(0, WISDOM),
+	PERFORM(0, CHARISMA),
+	PROFESSION(0, WISDOM),
+	RIDE(0, DEXTERITY),
+	SENSE_MOTIVE(0, WISDOM),
+	SLEIGHT_OF_HAND(0, DEXTERITY),
+	SPELLCRAFT(0, INTELLIGENCE),
+	STEALTH(0, DEXTERITY),
+	SURVIVAL(0, WISDOM),
+	SWIM(0, STRENGTH),
+	USE_MAGIC_DEVICE(0, CHARISMA);
+
+	/**Heavy loads for a Strength score from 11 to 20.*/
+	private static final int[] HEAVY_LOADS = {115, 130, 150, 175, 200, 230, 260, 300, 350, 400};
+	private static final DerivedStat[] STATS = values();
+	private static final AbilityName[] ABILITIES = AbilityName.values();
+	/**
+	 * Bits, indexed by ordinal, of the statistics depending directly or not
+	 * on each ability.
+	 */
+	private static final long[] DEPENDENTS = new long[AbilityScores.NUMBER_OF_ABILITIES];
+
+	static {
+		for(DerivedStat stat : STATS) {
+			for(int ability = 0; ability < DEPENDENTS.length; ability++) {
+				boolean depends = (stat.abilities & 1 << ability) != 0;
+				for(DerivedStat input : stat.inputs) {
+					depends |= (DEPENDENTS[ability] & input.bit()) != 0;
+				}
+				if(depends) {
+					DEPENDENTS[ability] |= stat.bit();
+				}
+			}
+		}
+	}
+
+	private final int base;
+	private final DerivedStat[] inputs;
+	// Bits, indexed by ordinal, of the abilities whose modifier is added
+	private final int abilities;
+
+	private DerivedStat(int base, AbilityName... abilities) {
+		this(base, new DerivedStat[0], abilities);
+	}
+
+	private DerivedStat(int base, DerivedStat[] inputs, AbilityName... abilities) {
+		this.base = base;
+		this.inputs = inputs;
+		int bits = 0;
+		for(AbilityName ability : abilities) {
+			bits |= 1 << ability.ordinal();
+		}
+		this.abilities = bits;
+	}
+
+	/**
+	 * @return the bit of the statistic in the masks of statistics.
+	 */
+	long bit() {
+		return 1L << ordinal();
+	}
+
+	/**
+	 * @param abilities	bits, indexed by ordinal, of a set of abilities.
+	 * @return the bits, indexed by ordinal, of the statistics which depend
+	 * directly or not on any of the abilities.
+	 */
+	static long dependents(int abilities) {
+		long result = 0;
+		for(int ability = 0; abilities != 0; ability++, abilities >>>= 1) {
+			if((abilities & 1) != 0) {
+				result |= DEPENDENTS[ability];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the statistic. By default, it is the sum of its base, of the
+	 * modifiers of its abilities and of the statistics it depends on.
+	 * @param scores	of the creature.
+	 * @param stats		giving the statistics this one depends on.
+	 * @return the value of the statistic.
+	 */
+	int compute(AbilityScores scores, DerivedStats stats) {
+		int result = base;
+		for(int ability = 0; ability < AbilityScores.NUMBER_OF_ABILITIES; ability++) {
+			if((abilities & 1 << ability) != 0) {
+				result += scores.getModifier(ABILITIES[ability]);
+			}
+		}
+		for(DerivedStat input : inputs) {
+			result += stats.get(input);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,77 @@
+package model.creatures;
+
+import java.util.Arrays;
+
+/**
+ * Cache of the {@link DerivedStat} values of one creature for one set of
+ * {@link AbilityScores}. When the scores change, a new cache is built from
+ * the previous one: it keeps the values of the statistics which do not
+ * depend on the abilities which have changed, and the other ones are
+ * computed again when they are read, along with the statistics they depend
+ * on.
+ * <p>
+ * The cache can be read by several threads without locking. Each value is
+ * a function of the immutable scores of the cache, so two threads computing
+ * the same statistic store the same int, and a thread seeing a statistic
+ * as not computed yet only computes it again.
+ * @author TLM
+ */
+final class DerivedStats {
+	private static final DerivedStat[] STATS = DerivedStat.values();
+	/**Value of a statistic which has not been computed yet.*/
+	private static final int UNKNOWN = Integer.MIN_VALUE;
+
+	private final PackedAbilityScores abilities;
+	private final int[] values;
+
+	/**
+	 * Initialises the cache of new scores.
+	 * @param previous	cache of the previous scores of the creature, or null
+	 * if there is none.
+	 * @param abilities	new scores of the creature.
+	 */
+	DerivedStats(DerivedStats previous, PackedAbilityScores abilities) {
+		this.abilities = abilities;
+		if(previous == null) {
+			this.values = new int[STATS.length];
+			Arrays.fill(values, UNKNOWN);
+			return;
+		}
+		this.values = previous.values.clone();
+		long dirty = DerivedStat.dependents(abilities.changedAbilities(previous.abilities));
+		for(int stat = 0; dirty != 0; stat++, dirty >>>= 1) {
+			if((dirty & 1) != 0) {
+				values[stat] = UNKNOWN;
+			}
+		}
+	}
+
+	/**
+	 * @return the scores whose statistics are cached.
+	 */
+	PackedAbilityScores getAbilityScores() {
+		return abilities;
+	}
+
+	/**
+	 * @param stat	to read.
+	 * @return the value of the statistic, computed only if it is not known
+	 * yet.
+	 */
+	int get(DerivedStat stat) {
+		int value = values[stat.ordinal()];
+		if(value == UNKNOWN) {
+			value = stat.compute(abilities, this);
+			values[stat.ordinal()] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * @param stat	to check.
+	 * @return true if the statistic will be computed when read.
+	 */
+	boolean isDirty(DerivedStat stat) {
+		return values[stat.ordinal()] == UNKNOWN;
+	}
+}
@@ -0,0 +1,104 @@
+package model.creatures;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import model.random.RandomSource;
+import model.values.AliasTable;
+import model.values.Roll;
+import service.parameters.CreatureParameters.AbilityGenerationMethod;
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * {@link AbilityScoresGenerator} for {@link AbilityGenerationMethod#DICE_POOL}.
+ * The extra dice are assigned to the abilities once, when the generator is
+ * built, and each score is then drawn from an {@link AliasTable} of the
+ * distribution of the three highest of its dice. The tables for each
+ * number of extra dice are built once when the class is loaded and shared
+ * by all the generators.
+ * @author TLM
+ */
+final class DicePoolGenerator implements AbilityScoresGenerator {
+	/**Number of dice kept for each score.*/
+	private static final int KEPT_DICE = 3;
+	/**Number of sides of the dice.*/
+	private static final int SIDES = 6;
+	private static final int NUMBER_OF_ABILITIES = AbilityName.values().length;
+	/**Number of extra dice to distribute between the abilities.*/
+	private static final int POOL = AbilityGenerationMethod.DICE_POOL.getParameter();
+	/**Sampler for one score, indexed by number of extra dice.*/
+	private static final AliasTable[] TABLES = new AliasTable[POOL + 1];
+
+	static {
+		for(int extra = 0; extra <= POOL; extra++) {
+			TABLES[extra] = new AliasTable(new Roll(KEPT_DICE + extra, SIDES)
+					.keepHighest(KEPT_DICE).getDistribution());
+		}
+	}
+
+	/**Generator spreading the extra dice as evenly as possible.*/
+	static final DicePoolGenerator EVEN = new DicePoolGenerator(evenTables());
+
+	// Sampler of each ability, in the order of AbilityName
+	private final AliasTable[] tables;
+
+	/**
+	 * @param tables	sampler of each ability, in the order of
+	 * {@link AbilityName}. The array is not copied.
+	 */
+	private DicePoolGenerator(AliasTable[] tables) {
+		this.tables = tables;
+	}
+
+	/**
+	 * Initialises a generator with a given assignment of the extra dice.
+	 * @param extraDice	number of extra dice of each ability, the missing
+	 * abilities having none.
+	 * @throws IllegalArgumentException if the assignment is null, if a
+	 * number of dice is null or negative, or if the extra dice do not add up
+	 * to the parameter of the method.
+	 */
+	DicePoolGenerator(Map<AbilityName, Integer> extraDice) {
+		if(extraDice == null) {
+			throw new IllegalArgumentException("The assignment of the dice cannot be null");
+		}
+		this.tables = new AliasTable[NUMBER_OF_ABILITIES];
+		int total = 0;
+		for(AbilityName ability : AbilityName.values()) {
+			tables[ability.ordinal()] = TABLES[0];
+		}
+		for(Entry<AbilityName, Integer> entry : extraDice.entrySet()) {
+			Integer extra = entry.getValue();
+			if(entry.getKey() == null || extra == null || extra < 0 || extra > POOL) {
+				throw new IllegalArgumentException("Invalid number of extra dice for " + entry.getKey()
+						+ ": " + extra);
+			}
+			tables[entry.getKey().ordinal()] = TABLES[extra];
+			total += extra;
+		}
+		if(total != POOL) {
+			throw new IllegalArgumentException("The extra dice must add up to " + POOL + ", not " + total);
+		}
+	}
+
+	/**
+	 * @return the samplers giving the extra dice to each ability in turn,
+	 * in the order of {@link AbilityName}.
+	 */
+	private static AliasTable[] evenTables() {
+		AliasTable[] tables = new AliasTable[NUMBER_OF_ABILITIES];
+		for(int i = 0; i < tables.length; i++) {
+			tables[i] = TABLES[POOL / NUMBER_OF_ABILITIES + (i < POOL % NUMBER_OF_ABILITIES ? 1 : 0)];
+		}
+		return tables;
+	}
+
+	@Override
+	public AbilityScores generate(RandomSource random) {
+		int[] scores = new int[NUMBER_OF_ABILITIES];
+		for(int i = 0; i < scores.length; i++) {
+			scores[i] = tables[i].sample(random);
+		}
+		return new PackedAbilityScores(scores);
+	}
+}
@@ -0,0 +1,241 @@
+package model.creatures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import model.values.Roll;
+import model.values.RollDistribution;
+import service.parameters.CreatureParameters.AbilityGenerationMethod;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
+
+/**
+ * Finds the best way to spread the extra dice of
+ * {@link AbilityGenerationMethod#DICE_POOL} between the abilities, from the
+ * exact distribution of the three highest dice of each score.
+ * <p>
+ * The objective is either a weighted sum of the expected scores, or the
+ * probability that every score reaches a threshold. Both are computed
+ * exactly with a dynamic program over the abilities, which tries every
+ * number of extra dice for each ability and every number of dice left: the
+ * cost grows with the square of the size of the pool, instead of the fifth
+ * power for an exhaustive search. Beyond a few hundred dice, the highest
+ * score is certain up to rounding errors, and the distribution is not
+ * computed again for larger numbers of dice.
+ * @author TLM
+ */
+public final class DicePoolSolver {
+	/**Number of dice kept for each score.*/
+	private static final int KEPT_DICE = 3;
+	/**Number of sides of the dice.*/
+	private static final int SIDES = 6;
+	/**Largest number of extra dice of a score.*/
+	public static final int MAX_POOL = ValueParameters.MAX_NUMBER_OF_DICE - KEPT_DICE;
+	/**Probability of the highest score above which it is considered certain.*/
+	private static final double CERTAINTY = 1 - 1e-15;
+	private static final AbilityName[] ABILITIES = AbilityName.values();
+	/*
+	 * Distribution of a score for each number of extra dice, computed on
+	 * demand up to the first one giving the highest score with certainty.
+	 * Guarded by the class.
+	 */
+	private static final List<RollDistribution> distributions = new ArrayList<RollDistribution>();
+	private static boolean saturated;
+
+	/**Prevents the class from being instantiated.*/
+	private DicePoolSolver() {}
+
+	/**
+	 * Finds the assignment of the extra dice maximising the weighted sum of
+	 * the expected scores.
+	 * @param weights	weight of each ability, which may be negative. The
+	 * missing abilities have a weight of 0.
+	 * @param pool		number of extra dice to assign.
+	 * @return the best {@link Allocation}, whose value is the weighted sum of
+	 * the expected scores.
+	 * @throws IllegalArgumentException if the weights are null or contain
+	 * null or non-finite values, or if the pool is negative or larger than
+	 * {@link #MAX_POOL}.
+	 */
+	public static Allocation maximiseMean(Map<AbilityName, Double> weights, int pool) {
+		if(weights == null) {
+			throw new IllegalArgumentException("The weights cannot be null");
+		}
+		RollDistribution[] distributions = distributions(pool);
+		double[][] values = new double[ABILITIES.length][pool + 1];
+		for(Entry<AbilityName, Double> entry : weights.entrySet()) {
+			Double weight = entry.getValue();
+			if(entry.getKey() == null || weight == null || Double.isNaN(weight) || Double.isInfinite(weight)) {
+				throw new IllegalArgumentException("Invalid weight for " + entry.getKey() + ": " + weight);
+			}
+			double[] abilityValues = values[entry.getKey().ordinal()];
+			for(int extra = 0; extra <= pool; extra++) {
+				abilityValues[extra] = weight * distributions[extra].getMean();
+			}
+		}
+		return solve(values, pool, false);
+	}
+
+	/**
+	 * Finds the assignment of the extra dice maximising the probability that
+	 * every score reaches its threshold.
+	 * @param thresholds	lowest acceptable score of each ability. The
+	 * missing abilities have no threshold.
+	 * @param pool			number of extra dice to assign.
+	 * @return the best {@link Allocation}, whose value is the probability
+	 * that all the thresholds are reached.
+	 * @throws IllegalArgumentException if the thresholds are null or contain
+	 * null values, or if the pool is negative or larger than
+	 * {@link #MAX_POOL}.
+	 */
+	public static Allocation maximiseSuccess(Map<AbilityName, Integer> thresholds, int pool) {
+		if(thresholds == null) {
+			throw new IllegalArgumentException("The thresholds cannot be null");
+		}
+		RollDistribution[] distributions = distributions(pool);
+		double[][] values = new double[ABILITIES.length][pool + 1];
+		for(double[] abilityValues : values) {
+			Arrays.fill(abilityValues, 1);
+		}
+		for(Entry<AbilityName, Integer> entry : thresholds.entrySet()) {
+			Integer threshold = entry.getValue();
+			if(entry.getKey() == null || threshold == null) {
+				throw new IllegalArgumentException("Invalid threshold for " + entry.getKey() + ": " + threshold);
+			}
+			double[] abilityValues = values[entry.getKey().ordinal()];
+			for(int extra = 0; extra <= pool; extra++) {
+				abilityValues[extra] = distributions[extra].getProbabilityAtLeast(threshold);
+			}
+		}
+		return solve(values, pool, true);
+	}
+
+	/**
+	 * Runs the dynamic program over the abilities.
+	 * @param values	value of each ability for each number of extra dice.
+	 * @param pool		number of extra dice to assign.
+	 * @param product	true if the values of the abilities are multiplied,
+	 * false if they are added.
+	 * @return the best {@link Allocation}.
+	 */
+	private static Allocation solve(double[][] values, int pool, boolean product) {
+		// Best value of the first abilities for each number of dice, and the dice of the last one
+		double[][] best = new double[ABILITIES.length][pool + 1];
+		int[][] choices = new int[ABILITIES.length][pool + 1];
+		System.arraycopy(values[0], 0, best[0], 0, pool + 1);
+		for(int dice = 0; dice <= pool; dice++) {
+			choices[0][dice] = dice;
+		}
+		for(int ability = 1; ability < ABILITIES.length; ability++) {
+			double[] previous = best[ability - 1];
+			double[] abilityValues = values[ability];
+			for(int dice = 0; dice <= pool; dice++) {
+				double bestValue = Double.NEGATIVE_INFINITY;
+				int bestChoice = 0;
+				for(int extra = 0; extra <= dice; extra++) {
+					double value = product ? previous[dice - extra] * abilityValues[extra]
+							: previous[dice - extra] + abilityValues[extra];
+					if(value > bestValue) {
+						bestValue = value;
+						bestChoice = extra;
+					}
+				}
+				best[ability][dice] = bestValue;
+				choices[ability][dice] = bestChoice;
+			}
+		}
+		int[] extraDice = new int[ABILITIES.length];
+		int dice = pool;
+		for(int ability = ABILITIES.length - 1; ability >= 0; ability--) {
+			extraDice[ability] = choices[ability][dice];
+			dice -= extraDice[ability];
+		}
+		return new Allocation(extraDice, best[ABILITIES.length - 1][pool]);
+	}
+
+	/**
+	 * Returns the distribution of a score for each number of extra dice.
+	 * @param pool	largest number of extra dice.
+	 * @return an array indexed by number of extra dice.
+	 * @throws IllegalArgumentException if the pool is negative or larger
+	 * than {@link #MAX_POOL}.
+	 */
+	private static synchronized RollDistribution[] distributions(int pool) {
+		if(pool < 0 || pool > MAX_POOL) {
+			throw new IllegalArgumentException("The pool must be between 0 and " + MAX_POOL + ", not " + pool);
+		}
+		while(!saturated && distributions.size() <= pool) {
+			RollDistribution distribution = new Roll(KEPT_DICE + distributions.size(), SIDES)
+					.keepHighest(KEPT_DICE).getDistribution();
+			distributions.add(distribution);
+			saturated = distribution.getProbability(distribution.getMaximum()) >= CERTAINTY;
+		}
+		RollDistribution[] result = new RollDistribution[pool + 1];
+		for(int extra = 0; extra <= pool; extra++) {
+			result[extra] = distributions.get(Math.min(extra, distributions.size() - 1));
+		}
+		return result;
+	}
+
+	/**
+	 * Assignment of the extra dice found by a {@link DicePoolSolver}, with
+	 * the value it reaches.
+	 * @author TLM
+	 */
+	public static final class Allocation {
+		// Number of extra dice of each ability, in the order of AbilityName
+		private final int[] extraDice;
+		private final double value;
+
+		/**
+		 * @param extraDice	number of extra dice of each ability, in the
+		 * order of {@link AbilityName}. The array is not copied.
+		 * @param value		of the objective.
+		 */
+		private Allocation(int[] extraDice, double value) {
+			this.extraDice = extraDice;
+			this.value = value;
+		}
+
+		/**
+		 * @param ability	to get the number of extra dice of.
+		 * @return the number of extra dice assigned to the ability.
+		 */
+		public int getExtraDice(AbilityName ability) {
+			return extraDice[ability.ordinal()];
+		}
+
+		/**
+		 * @return the number of extra dice of each ability. They add up to
+		 * the pool given to the solver, so they may only be given to
+		 * {@link AbilityScoresGenerator#dicePool(Map)} when that pool is the
+		 * parameter of {@link AbilityGenerationMethod#DICE_POOL}.
+		 */
+		public Map<AbilityName, Integer> getExtraDice() {
+			EnumMap<AbilityName, Integer> result = new EnumMap<AbilityName, Integer>(AbilityName.class);
+			for(AbilityName ability : ABILITIES) {
+				result.put(ability, extraDice[ability.ordinal()]);
+			}
+			return Collections.unmodifiableMap(result);
+		}
+
+		/**
+		 * @return the value of the objective reached by the assignment: the
+		 * weighted sum of the expected scores or the probability of
+		 * reaching all the thresholds.
+		 */
+		public double getValue() {
+			return value;
+		}
+
+		@Override
+		public String toString() {
+			return getExtraDice() + " -> " + value;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package model.creatures;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import model.random.RandomSource;
+import service.parameters.CreatureParameters.AbilityGenerationMethod;
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * {@link AbilityScoresGenerator} for
+ * {@link AbilityGenerationMethod#DIRECT_ASSIGNMENT}: every generation gives the
+ * same immutable scores, chosen when the generator is built, and does not
+ * use the random numbers.
+ * @author TLM
+ */
+final class DirectAssignmentGenerator implements AbilityScoresGenerator {
+	/**Score of every ability in the default generator, whose modifier is 0.*/
+	private static final int DEFAULT_SCORE = 10;
+	/**Generator giving the default score to every ability.*/
+	static final DirectAssignmentGenerator DEFAULT = new DirectAssignmentGenerator(defaultScores());
+
+	private final PackedAbilityScores scores;
+
+	/**
+	 * Initialises a generator with the given scores.
+	 * @param scores	value of each ability, following the rules of
+	 * {@link AbilityScores#create(Map)}. A copy is made.
+	 * @throws model.exceptions.IllegalAbilityScoreException if the scores
+	 * are not valid.
+	 */
+	DirectAssignmentGenerator(Map<AbilityName, Integer> scores) {
+		this.scores = new PackedAbilityScores(scores);
+	}
+
+	/**
+	 * @return the default score for each ability.
+	 */
+	private static Map<AbilityName, Integer> defaultScores() {
+		EnumMap<AbilityName, Integer> scores = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		for(AbilityName ability : AbilityName.values()) {
+			scores.put(ability, DEFAULT_SCORE);
+		}
+		return scores;
+	}
+
+	@Override
+	public AbilityScores generate(RandomSource random) {
+		return scores;
+	}
+}
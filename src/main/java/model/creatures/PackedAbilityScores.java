@@ -0,0 +1,470 @@
+package model.creatures;
+
+import java.nio.IntBuffer;
+import java.util.AbstractMap;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import model.exceptions.IllegalAbilityScoreException;
+import model.values.AbilityScore;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
+
+/**
+ * Immutable implementation of the {@link AbilityScores} interface packing
+ * the six scores into a single long, instead of a map of objects. Each
+ * ability owns ten bits, in the order of {@link AbilityName}, which hold
+ * its score or a sentinel if it is not defined. Since the objects are
+ * immutable, they are shared instead of copied, and
+ * {@link #with(AbilityName, int)} only builds a new long.
+ * <p>
+ * The {@link AbilityScore} objects and the entries returned by the
+ * iterator are shared between all the instances: there is one for each
+ * valid score, built once when the class is loaded, along with the table of
+ * the modifiers. Reading a score or a modifier thus never allocates
+ * anything.
+ * @author TLM
+ */
+final class PackedAbilityScores implements AbilityScores {
+	/**Number of bits of each score.*/
+	private static final int BITS = 10;
+	private static final int MASK = (1 << BITS) - 1;
+	/**Value of the bits of an ability which is not defined.*/
+	private static final int UNDEFINED = MASK;
+	private static final AbilityName[] ABILITIES = AbilityName.values();
+	/**Packed value of a set of scores where no ability is defined.*/
+	private static final long NONE = (1L << (BITS * ABILITIES.length)) - 1;
+	/**Modifier of each score.*/
+	private static final int[] MODIFIERS = new int[ValueParameters.MAX_ABILITY_SCORE + 1];
+	/**Shared read-only object for each score.*/
+	private static final AbilityScore[] SCORES = new AbilityScore[ValueParameters.MAX_ABILITY_SCORE + 1];
+	/**Shared iterator entries, indexed by ability and by score.*/
+	private static final Entry<?, ?>[][] ENTRIES = new Entry<?, ?>[ABILITIES.length][];
+
+	static {
+		for(int score = ValueParameters.MIN_ABILITY_SCORE; score <= ValueParameters.MAX_ABILITY_SCORE; score++) {
+			MODIFIERS[score] = AbilityScore.computeModifier(score);
+			SCORES[score] = new SharedAbilityScore(score, MODIFIERS[score]);
+		}
+		for(AbilityName ability : ABILITIES) {
+			Entry<?, ?>[] entries = new Entry<?, ?>[SCORES.length];
+			for(int score = ValueParameters.MIN_ABILITY_SCORE; score <= ValueParameters.MAX_ABILITY_SCORE; score++) {
+				entries[score] = new AbstractMap.SimpleImmutableEntry<AbilityName, AbilityScore>(ability, SCORES[score]);
+			}
+			ENTRIES[ability.ordinal()] = entries;
+		}
+	}
+
+	/*
+	 * Canonical instances, held weakly so that the scores no longer used by
+	 * any creature can be collected.
+	 */
+	private static final Interner<PackedAbilityScores> interner = Interners.newWeakInterner();
+
+	private final long packed;
+
+	/**
+	 * @param packed	scores of the abilities, already packed.
+	 */
+	private PackedAbilityScores(long packed) {
+		this.packed = packed;
+	}
+
+	/**
+	 * Initialises a {@link PackedAbilityScores} object with a value for each
+	 * ability, without validating them.
+	 * @param scores	valid value of each ability, in the order of
+	 * {@link AbilityName}, or {@link AbilityScores#UNDEFINED_SCORE}.
+	 */
+	PackedAbilityScores(int[] scores) {
+		long packed = 0;
+		for(int i = scores.length - 1; i >= 0; i--) {
+			packed = packed << BITS | (scores[i] == UNDEFINED_SCORE ? UNDEFINED : scores[i]);
+		}
+		this.packed = packed;
+	}
+
+	/**
+	 * Initialises a {@link PackedAbilityScores} object with values for at
+	 * least some of the abilities.
+	 * @param values	must follow the rules of {@link AbilityScores#create(Map)}.
+	 * @throws IllegalAbilityScoreException if a mandatory ability is missing
+	 * or if a value is invalid.
+	 */
+	PackedAbilityScores(Map<AbilityName, Integer> values) {
+		AbilityScores.isValidAbilityScoreInput(values, true);
+		long packed = NONE;
+		for(Entry<AbilityName, Integer> entry : values.entrySet()) {
+			packed = with(packed, entry.getKey(), entry.getValue());
+		}
+		this.packed = packed;
+	}
+
+	/**
+	 * Returns a {@link PackedAbilityScores} object with the same scores as
+	 * the input, which is returned directly if it is already packed. The
+	 * bonuses of the input are included in the copied scores.
+	 * @param abilities	to copy.
+	 * @return an immutable copy of the input.
+	 * @throws IllegalAbilityScoreException if the input is null, if a 
+	 * mandatory ability is missing, or if a bonus takes a score out of 
+	 * range.
+	 */
+	static PackedAbilityScores copyOf(AbilityScores abilities) {
+		if(abilities == null) {
+			throw new IllegalAbilityScoreException(IllegalAbilityScoreException.Cause.NULL);
+		}
+		if(abilities instanceof PackedAbilityScores) {
+			return (PackedAbilityScores) abilities;
+		}
+		long packed = NONE;
+		for(AbilityName ability : ABILITIES) {
+			AbilityScore score = abilities.getScore(ability);
+			if(score == null) {
+				if(AbilityScoresValidation.validate(ability.ordinal(), UNDEFINED_SCORE) != AbilityScoresValidation.VALID) {
+					throw new IllegalAbilityScoreException(ability.toString(), abilities.toString());
+				}
+			} else {
+				int value = score.getValue();
+				// A total equal to UNDEFINED_SCORE is out of range, not undefined
+				if(value == UNDEFINED_SCORE 
+						|| AbilityScoresValidation.validate(ability.ordinal(), value) != AbilityScoresValidation.VALID) {
+					throw new IllegalAbilityScoreException(ability.toString(), value);
+				}
+				packed = with(packed, ability, value);
+			}
+		}
+		return new PackedAbilityScores(packed);
+	}
+
+	/**
+	 * Builds {@link PackedAbilityScores} objects from six columns of
+	 * primitive scores, as described in
+	 * {@link AbilityScores#createAll(int[][], int[], boolean)}.
+	 * @param columns	scores of each ability, indexed by ordinal then by
+	 * input.
+	 * @param results	receives the validation result of each input, or null
+	 * to throw an exception for the first invalid one.
+	 * @param parallel	true to split the inputs between threads.
+	 * @return the scores of each valid input, null for the invalid ones.
+	 */
+	static AbilityScores[] createAll(int[][] columns, int[] results, boolean parallel) {
+		if(columns == null) {
+			throw new IllegalAbilityScoreException(IllegalAbilityScoreException.Cause.NULL);
+		}
+		if(columns.length != ABILITIES.length) {
+			throw new IllegalArgumentException("Expected " + ABILITIES.length + " columns, received " 
+					+ columns.length);
+		}
+		int count = columns[0].length;
+		for(int[] column : columns) {
+			if(column.length != count) {
+				throw new IllegalArgumentException("All the columns must have " + count + " scores");
+			}
+		}
+		return createAll(count, (input, ability) -> columns[ability][input], results, parallel);
+	}
+
+	/**
+	 * Builds {@link PackedAbilityScores} objects from a buffer of primitive
+	 * scores, as described in
+	 * {@link AbilityScores#createAll(IntBuffer, int[], boolean)}.
+	 * @param scores	six scores for each input, from the position to the
+	 * limit of the buffer.
+	 * @param results	receives the validation result of each input, or null
+	 * to throw an exception for the first invalid one.
+	 * @param parallel	true to split the inputs between threads.
+	 * @return the scores of each valid input, null for the invalid ones.
+	 */
+	static AbilityScores[] createAll(IntBuffer scores, int[] results, boolean parallel) {
+		if(scores == null) {
+			throw new IllegalAbilityScoreException(IllegalAbilityScoreException.Cause.NULL);
+		}
+		if(scores.remaining() % ABILITIES.length != 0) {
+			throw new IllegalArgumentException("The buffer must hold " + ABILITIES.length 
+					+ " scores for each input, received " + scores.remaining());
+		}
+		int start = scores.position();
+		return createAll(scores.remaining() / ABILITIES.length, 
+				(input, ability) -> scores.get(start + input * ABILITIES.length + ability), results, parallel);
+	}
+
+	/**
+	 * Validates and packs the scores of each input in a single pass.
+	 * @param count		number of inputs.
+	 * @param source	of the score of each input and ability.
+	 * @param results	receives the validation result of each input, or null
+	 * to throw an exception for the first invalid one.
+	 * @param parallel	true to split the inputs between threads.
+	 * @return the scores of each valid input, null for the invalid ones.
+	 */
+	private static AbilityScores[] createAll(int count, ScoreSource source, int[] results, boolean parallel) {
+		if(results != null && results.length < count) {
+			throw new IllegalArgumentException("The results need room for " + count + " inputs");
+		}
+		AbilityScores[] scores = new AbilityScores[count];
+		int[] validation = results == null ? new int[count] : results;
+		IntStream inputs = IntStream.range(0, count);
+		(parallel ? inputs.parallel() : inputs).forEach(input -> {
+			long packed = 0;
+			int result = AbilityScoresValidation.VALID;
+			for(int ability = ABILITIES.length - 1; ability >= 0; ability--) {
+				int score = source.get(input, ability);
+				result |= AbilityScoresValidation.validate(ability, score);
+				packed = packed << BITS | (score == UNDEFINED_SCORE ? UNDEFINED : score & MASK);
+			}
+			validation[input] = result;
+			if(result == AbilityScoresValidation.VALID) {
+				scores[input] = new PackedAbilityScores(packed);
+			}
+		});
+		if(results == null) {
+			for(int input = 0; input < count; input++) {
+				if(validation[input] != AbilityScoresValidation.VALID) {
+					EnumMap<AbilityName, Integer> values = new EnumMap<AbilityName, Integer>(AbilityName.class);
+					for(AbilityName ability : ABILITIES) {
+						int score = source.get(input, ability.ordinal());
+						if(score != UNDEFINED_SCORE) {
+							values.put(ability, score);
+						}
+					}
+					throw AbilityScoresValidation.toException(validation[input], values);
+				}
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Primitive input of the bulk factories.
+	 * @author TLM
+	 */
+	@FunctionalInterface
+	private static interface ScoreSource {
+		/**
+		 * @param input		index of the input.
+		 * @param ability	ordinal of the ability.
+		 * @return the score of the ability in the input.
+		 */
+		int get(int input, int ability);
+	}
+
+	/**
+	 * Returns the canonical instance equal to the input, which is shared by
+	 * all the equal scores interned while it is in use.
+	 * @param abilities	to intern.
+	 * @return a canonical {@link PackedAbilityScores} object.
+	 * @throws IllegalAbilityScoreException if the input is null.
+	 */
+	static PackedAbilityScores intern(AbilityScores abilities) {
+		return interner.intern(copyOf(abilities));
+	}
+
+	/**
+	 * @param packed	scores of the abilities.
+	 * @param ability	to change.
+	 * @param score		new value of the ability.
+	 * @return the packed scores with the new value of the ability.
+	 */
+	private static long with(long packed, AbilityName ability, int score) {
+		int shift = ability.ordinal() * BITS;
+		return packed & ~((long) MASK << shift) | (long) score << shift;
+	}
+
+	/**
+	 * @param score	valid value of an ability.
+	 * @return the {@link AbilityScore} shared by all the abilities with this
+	 * value.
+	 */
+	static AbilityScore shared(int score) {
+		return SCORES[score];
+	}
+
+	/**
+	 * @param score	valid value of an ability.
+	 * @return the modifier of the value, read from a table.
+	 */
+	static int modifier(int score) {
+		return MODIFIERS[score];
+	}
+
+	/**
+	 * Compares the scores with other ones, ability by ability.
+	 * @param other	scores to compare, or null if there are none.
+	 * @return the bits, indexed by the ordinal of the abilities, of the
+	 * abilities whose score or definition differs, or of all of them if the
+	 * other scores are null.
+	 */
+	int changedAbilities(PackedAbilityScores other) {
+		if(other == null) {
+			return (1 << ABILITIES.length) - 1;
+		}
+		long difference = packed ^ other.packed;
+		int result = 0;
+		for(int ability = 0; difference != 0; ability++, difference >>>= BITS) {
+			if((difference & MASK) != 0) {
+				result |= 1 << ability;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param ability	to read.
+	 * @return the bits of the ability: its score or {@link #UNDEFINED}.
+	 */
+	private int bits(int ability) {
+		return (int) (packed >>> (ability * BITS)) & MASK;
+	}
+
+	@Override
+	public int getModifier(AbilityName ability) {
+		int score = bits(ability.ordinal());
+		return score == UNDEFINED ? 0 : MODIFIERS[score];
+	}
+
+	@Override
+	public AbilityScore getScore(AbilityName ability) {
+		int score = bits(ability.ordinal());
+		return score == UNDEFINED ? null : SCORES[score];
+	}
+
+	@Override
+	public PackedAbilityScores with(AbilityName ability, int score) {
+		if(score < ValueParameters.MIN_ABILITY_SCORE || score > ValueParameters.MAX_ABILITY_SCORE) {
+			throw new IllegalAbilityScoreException(ability.toString(), score);
+		}
+		long result = with(packed, ability, score);
+		return result == packed ? this : new PackedAbilityScores(result);
+	}
+
+	@Override
+	public PackedAbilityScores without(AbilityName ability) {
+		if(MANDATORY_ABILITIES.contains(ability)) {
+			throw new IllegalAbilityScoreException(ability.toString(), toString());
+		}
+		long result = with(packed, ability, UNDEFINED);
+		return result == packed ? this : new PackedAbilityScores(result);
+	}
+
+	@Override
+	public void forEach(AbilityVisitor visitor) {
+		for(int ability = 0; ability < ABILITIES.length; ability++) {
+			int score = bits(ability);
+			if(score != UNDEFINED) {
+				visitor.visit(ABILITIES[ability], score, MODIFIERS[score]);
+			}
+		}
+	}
+
+	@Override
+	public void getScores(int[] out) {
+		if(out.length < NUMBER_OF_ABILITIES) {
+			throw new IllegalArgumentException("The output needs room for " + NUMBER_OF_ABILITIES + " abilities");
+		}
+		for(int ability = 0; ability < ABILITIES.length; ability++) {
+			int score = bits(ability);
+			out[ability] = score == UNDEFINED ? UNDEFINED_SCORE : score;
+		}
+	}
+
+	@Override
+	public void getModifiers(int[] out) {
+		if(out.length < NUMBER_OF_ABILITIES) {
+			throw new IllegalArgumentException("The output needs room for " + NUMBER_OF_ABILITIES + " abilities");
+		}
+		for(int ability = 0; ability < ABILITIES.length; ability++) {
+			int score = bits(ability);
+			out[ability] = score == UNDEFINED ? 0 : MODIFIERS[score];
+		}
+	}
+
+	@Override
+	public Iterator<Entry<AbilityName, AbilityScore>> iterator() {
+		return new Iterator<Entry<AbilityName, AbilityScore>>() {
+			// Ordinal of the next ability
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < ABILITIES.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public Entry<AbilityName, AbilityScore> next() {
+				if(!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				int ability = next++;
+				int score = bits(ability);
+				if(score == UNDEFINED) {
+					return new AbstractMap.SimpleImmutableEntry<AbilityName, AbilityScore>(ABILITIES[ability], null);
+				}
+				return (Entry<AbilityName, AbilityScore>) ENTRIES[ability][score];
+			}
+		};
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof PackedAbilityScores && ((PackedAbilityScores) obj).packed == packed;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(packed);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("{");
+		for(int ability = 0; ability < ABILITIES.length; ability++) {
+			int score = bits(ability);
+			if(score != UNDEFINED) {
+				if(result.length() > 1) {
+					result.append(", ");
+				}
+				result.append(ABILITIES[ability]).append('=').append(score);
+			}
+		}
+		return result.append('}').toString();
+	}
+
+	/**
+	 * Immutable {@link AbilityScore} shared by all the abilities with the
+	 * same score. It is not a {@link model.values.Value}, so that no bonus
+	 * can be added to it.
+	 * @author TLM
+	 */
+	private static final class SharedAbilityScore implements AbilityScore {
+		private final int value;
+		private final int modifier;
+
+		/**
+		 * @param value		of the score.
+		 * @param modifier	of the score.
+		 */
+		SharedAbilityScore(int value, int modifier) {
+			this.value = value;
+			this.modifier = modifier;
+		}
+
+		@Override
+		public int getValue() {
+			return value;
+		}
+
+		@Override
+		public int getModifier() {
+			return modifier;
+		}
+	}
+}
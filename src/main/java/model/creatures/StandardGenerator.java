@@ -0,0 +1,39 @@
+package model.creatures;
+
+import model.random.RandomSource;
+import model.values.AliasTable;
+import model.values.Roll;
+import service.parameters.CreatureParameters.AbilityGenerationMethod;
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * {@link AbilityScoresGenerator} for {@link AbilityGenerationMethod#STANDARD}.
+ * Instead of rolling the dice and discarding the lowest ones, each score is
+ * drawn from an {@link AliasTable} of the distribution of the three highest
+ * dice, built once when the class is loaded. A score thus costs a single
+ * random number.
+ * @author TLM
+ */
+final class StandardGenerator implements AbilityScoresGenerator {
+	/**Number of dice kept for each score.*/
+	private static final int KEPT_DICE = 3;
+	/**Number of sides of the dice.*/
+	private static final int SIDES = 6;
+	private static final int NUMBER_OF_ABILITIES = AbilityName.values().length;
+	/**Sampler for one score, with the extra dice of the method.*/
+	private static final AliasTable TABLE = new AliasTable(
+			new Roll(KEPT_DICE + AbilityGenerationMethod.STANDARD.getParameter(), SIDES)
+			.keepHighest(KEPT_DICE).getDistribution());
+	static final StandardGenerator INSTANCE = new StandardGenerator();
+
+	private StandardGenerator() {}
+
+	@Override
+	public AbilityScores generate(RandomSource random) {
+		int[] scores = new int[NUMBER_OF_ABILITIES];
+		for(int i = 0; i < scores.length; i++) {
+			scores[i] = TABLE.sample(random);
+		}
+		return new PackedAbilityScores(scores);
+	}
+}
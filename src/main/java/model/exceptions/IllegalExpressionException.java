@@ -0,0 +1,43 @@
+package model.exceptions;
+
+/**
+ * Exception raised when a dice expression such as "4d6kh3+STR" cannot be 
+ * parsed.
+ * @author TLM
+ */
+public class IllegalExpressionException extends IllegalArgumentException {
+	private static final long serialVersionUID = 3127659412985310467L;
+	
+	/**
+	 * Initialises an {@link IllegalExpressionException} pointing at the 
+	 * faulty part of the expression.
+	 * @param expression	text of the expression.
+	 * @param position		index in the text of the first invalid character.
+	 * @param reason		description of the error.
+	 */
+	public IllegalExpressionException(String expression, int position, String reason) {
+		super("Invalid dice expression \"" + expression + "\" at position " + position + ": " + reason);
+	}
+	
+	/**
+	 * Initialises an {@link IllegalExpressionException} caused by an invalid
+	 * {@link model.values.Roll}.
+	 * @param expression	text of the expression.
+	 * @param position		index in the text of the invalid roll.
+	 * @param cause			exception raised by the roll.
+	 */
+	public IllegalExpressionException(String expression, int position, IllegalArgumentException cause) {
+		super("Invalid dice expression \"" + expression + "\" at position " + position + ": " 
+				+ cause.getMessage(), cause);
+	}
+	
+	/**
+	 * Initialises an {@link IllegalExpressionException} raised when the 
+	 * value of an expression does not fit in an int.
+	 * @param expression	text of the expression.
+	 * @param cause			exception raised by the overflowing operation.
+	 */
+	public IllegalExpressionException(String expression, ArithmeticException cause) {
+		super("The value of dice expression \"" + expression + "\" overflows an int", cause);
+	}
+}
@@ -24,4 +24,13 @@ public class IllegalRollException extends IllegalArgumentException {
 				+ " and " + ValueParameters.MAX_NUMBER_OF_SIDES + " sides (received " 
 				+ numberOfSides + ").");
 	}
+	
+	/**
+	 * Constructor for an {@link IllegalRollException} raised by a valid 
+	 * roll when an operation does not support it.
+	 * @param message	explaining why the roll is not supported.
+	 */
+	public IllegalRollException(String message){
+		super(message);
+	}
 }
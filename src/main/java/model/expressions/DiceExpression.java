@@ -0,0 +1,363 @@
+package model.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import model.creatures.AbilityScores;
+import model.exceptions.IllegalExpressionException;
+import model.expressions.ExpressionNode.ConstantNode;
+import model.expressions.ExpressionNode.DiceNode;
+import model.expressions.ExpressionNode.ModifierNode;
+import model.expressions.ExpressionNode.SumNode;
+import model.random.RandomSource;
+import model.values.Roll;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
+
+/**
+ * Compiled dice expression such as "3d6+2d8+5", "4d6kh3" or "d20+STR".
+ * <p>
+ * An expression is a sum of terms separated by '+' or '-', where each term
+ * is either an integer, the modifier of an ability written with its first
+ * three letters or its full name, or a set of identical dice "NdS", N being
+ * 1 if omitted. Dice may be followed by a selection: "khK" or "klK" to keep
+ * the K highest or lowest dice, "dhK" or "dlK" to drop them, K being 1 if
+ * omitted. Spaces are allowed between terms, and letters may be in any
+ * case.
+ * <p>
+ * An expression is compiled once into an immutable tree: the constants are
+ * summed, and the added dice without selection are merged into a single
+ * {@link Roll}. Compiled expressions are kept in a bounded cache, keyed by
+ * their text, and may be shared between threads. Evaluating an expression
+ * does not allocate anything.
+ * @author TLM
+ */
+public final class DiceExpression {
+	/**Maximum number of compiled expressions kept in the cache.*/
+	private static final int MAX_CACHED_EXPRESSIONS = 1024;
+	private static final Cache<String, DiceExpression> cache = CacheBuilder.newBuilder()
+			.maximumSize(MAX_CACHED_EXPRESSIONS).build();
+
+	private final ExpressionNode root;
+
+	/**
+	 * @param root	of the compiled tree.
+	 */
+	private DiceExpression(ExpressionNode root) {
+		this.root = root;
+	}
+
+	/**
+	 * Returns the compiled form of an expression, from the cache if it has
+	 * already been compiled recently.
+	 * @param expression	text of the expression.
+	 * @return the compiled {@link DiceExpression}.
+	 * @throws IllegalExpressionException if the expression is not valid.
+	 * @throws IllegalArgumentException if the expression is null.
+	 */
+	public static DiceExpression parse(String expression) {
+		if(expression == null) {
+			throw new IllegalArgumentException("A dice expression cannot be null");
+		}
+		DiceExpression result = cache.getIfPresent(expression);
+		if(result == null) {
+			//Two threads may compile the same expression, which is harmless
+			result = new DiceExpression(new Parser(expression).parse());
+			cache.put(expression, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates an expression without ability modifiers, with the
+	 * {@link RandomSource} of the current thread.
+	 * @return the value of the expression.
+	 * @throws IllegalArgumentException if the expression uses ability
+	 * modifiers.
+	 * @throws IllegalExpressionException if the value of the expression
+	 * overflows an int.
+	 */
+	public int evaluate() {
+		return root.evaluate(null, RandomSource.current());
+	}
+
+	/**
+	 * Evaluates an expression with the {@link RandomSource} of the current
+	 * thread.
+	 * @param scores	to read the ability modifiers from, may be null if the
+	 * expression does not use them.
+	 * @return the value of the expression.
+	 * @throws IllegalArgumentException if the expression uses ability
+	 * modifiers and scores is null.
+	 * @throws IllegalExpressionException if the value of the expression
+	 * overflows an int.
+	 */
+	public int evaluate(AbilityScores scores) {
+		return root.evaluate(scores, RandomSource.current());
+	}
+
+	/**
+	 * Evaluates an expression.
+	 * @param scores	to read the ability modifiers from, may be null if the
+	 * expression does not use them.
+	 * @param random	source of the results of the dice.
+	 * @return the value of the expression.
+	 * @throws IllegalArgumentException if the expression uses ability
+	 * modifiers and scores is null.
+	 * @throws IllegalExpressionException if the value of the expression
+	 * overflows an int.
+	 */
+	public int evaluate(AbilityScores scores, RandomSource random) {
+		return root.evaluate(scores, random);
+	}
+
+	/**
+	 * @return true if the expression reads ability modifiers.
+	 */
+	public boolean usesAbilities() {
+		return root.usesAbilities();
+	}
+
+	/**
+	 * @return the compiled expression, such as "3d6+2d8+5" for
+	 * "2d8 + 3d6 + 2 + 3".
+	 */
+	@Override
+	public String toString() {
+		return root.toString();
+	}
+
+	/**
+	 * @param ability	to write in an expression.
+	 * @return the first three letters of the name of the ability.
+	 */
+	static String abbreviate(AbilityName ability) {
+		return ability.name().substring(0, 3);
+	}
+
+	/**
+	 * Recursive descent parser compiling the text of an expression.
+	 * @author TLM
+	 */
+	private static final class Parser {
+		private final String text;
+		// Index of the next character to read
+		private int position;
+		private long constant;
+		// Number of dice of each number of sides in the added dice without selection
+		private final TreeMap<Integer, Integer> dice = new TreeMap<Integer, Integer>();
+		private int numberOfDice;
+		private final List<ExpressionNode> terms = new ArrayList<ExpressionNode>();
+		private final List<Boolean> subtracted = new ArrayList<Boolean>();
+
+		Parser(String text) {
+			this.text = text;
+		}
+
+		/**
+		 * @return the root of the compiled tree.
+		 * @throws IllegalExpressionException if the expression is not valid.
+		 */
+		ExpressionNode parse() {
+			skipSpaces();
+			boolean minus = false;
+			if(position < text.length() && (peek() == '+' || peek() == '-')) {
+				minus = next() == '-';
+			}
+			while(true) {
+				skipSpaces();
+				parseTerm(minus);
+				skipSpaces();
+				if(position == text.length()) {
+					break;
+				}
+				char operator = next();
+				if(operator != '+' && operator != '-') {
+					throw error(position - 1, "expected '+' or '-'");
+				}
+				minus = operator == '-';
+			}
+			return build();
+		}
+
+		/**
+		 * Parses a constant, an ability or dice.
+		 * @param minus	true if the term is subtracted.
+		 */
+		private void parseTerm(boolean minus) {
+			int start = position;
+			if(position == text.length()) {
+				throw error(start, "expected a term");
+			}
+			if(Character.isDigit(peek())) {
+				int number = parseNumber();
+				if(position < text.length() && isDice()) {
+					parseDice(start, number, minus);
+				} else {
+					constant += minus ? -number : number;
+					if(Math.abs(constant) > Integer.MAX_VALUE) {
+						throw error(start, "number too large");
+					}
+				}
+			} else if(isDice()) {
+				parseDice(start, 1, minus);
+			} else if(Character.isLetter(peek())) {
+				String word = parseWord().toUpperCase(Locale.ROOT);
+				for(AbilityName ability : AbilityName.values()) {
+					if(word.equals(ability.name()) || word.equals(abbreviate(ability))) {
+						add(new ModifierNode(ability), minus);
+						return;
+					}
+				}
+				throw error(start, "unknown ability " + word);
+			} else {
+				throw error(start, "expected a term");
+			}
+		}
+
+		/**
+		 * Parses the number of sides of dice and their selection.
+		 * @param start		index of the term in the text.
+		 * @param count		number of dice.
+		 * @param minus		true if the dice are subtracted.
+		 */
+		private void parseDice(int start, int count, boolean minus) {
+			next();
+			if(position == text.length() || !Character.isDigit(peek())) {
+				throw error(position, "expected a number of sides");
+			}
+			int sides = parseNumber();
+			Roll roll;
+			try {
+				roll = new Roll(count, sides);
+				if(position < text.length() && Character.isLetter(peek())) {
+					int selectionStart = position;
+					String selection = parseWord().toLowerCase(Locale.ROOT);
+					int number = position < text.length() && Character.isDigit(peek()) ? parseNumber() : 1;
+					switch(selection) {
+					case "k":
+					case "kh":
+						roll = roll.keepHighest(number);
+						break;
+					case "kl":
+						roll = roll.keepLowest(number);
+						break;
+					case "dh":
+						roll = roll.dropHighest(number);
+						break;
+					case "dl":
+						roll = roll.dropLowest(number);
+						break;
+					default:
+						throw error(selectionStart, "unknown selection " + selection);
+					}
+				}
+			} catch (IllegalExpressionException e) {
+				throw e;
+			} catch (IllegalArgumentException e) {
+				throw new IllegalExpressionException(text, start, e);
+			}
+			if(!minus && roll.getNumberOfKeptDice() == count
+					&& numberOfDice + count <= ValueParameters.MAX_NUMBER_OF_DICE) {
+				dice.merge(sides, count, Integer::sum);
+				numberOfDice += count;
+			} else {
+				add(new DiceNode(roll), minus);
+			}
+		}
+
+		/**
+		 * @return true if the next characters are a 'd' followed by a digit.
+		 */
+		private boolean isDice() {
+			return (peek() == 'd' || peek() == 'D') && position + 1 < text.length()
+					&& Character.isDigit(text.charAt(position + 1));
+		}
+
+		/**
+		 * @return the non-negative integer starting at the current position.
+		 */
+		private int parseNumber() {
+			int start = position;
+			long result = 0;
+			while(position < text.length() && Character.isDigit(peek())) {
+				result = result * 10 + Character.digit(next(), 10);
+				if(result > Integer.MAX_VALUE) {
+					throw error(start, "number too large");
+				}
+			}
+			return (int) result;
+		}
+
+		/**
+		 * @return the letters starting at the current position.
+		 */
+		private String parseWord() {
+			int start = position;
+			while(position < text.length() && Character.isLetter(peek())) {
+				position++;
+			}
+			return text.substring(start, position);
+		}
+
+		/**
+		 * Adds a term to the compiled sum.
+		 * @param term	to add.
+		 * @param minus	true if the term is subtracted.
+		 */
+		private void add(ExpressionNode term, boolean minus) {
+			terms.add(term);
+			subtracted.add(minus);
+		}
+
+		/**
+		 * @return the root of the tree: the merged dice, the other terms and
+		 * the constant.
+		 */
+		private ExpressionNode build() {
+			if(!dice.isEmpty()) {
+				terms.add(0, new DiceNode(new Roll(dice)));
+				subtracted.add(0, false);
+			}
+			if(constant != 0 || terms.isEmpty()) {
+				add(new ConstantNode((int) constant), false);
+			}
+			if(terms.size() == 1 && !subtracted.get(0)) {
+				return terms.get(0);
+			}
+			boolean[] signs = new boolean[subtracted.size()];
+			for(int i = 0; i < signs.length; i++) {
+				signs[i] = subtracted.get(i);
+			}
+			return new SumNode(terms.toArray(new ExpressionNode[terms.size()]), signs);
+		}
+
+		private void skipSpaces() {
+			while(position < text.length() && Character.isWhitespace(peek())) {
+				position++;
+			}
+		}
+
+		private char peek() {
+			return text.charAt(position);
+		}
+
+		private char next() {
+			return text.charAt(position++);
+		}
+
+		/**
+		 * @param at		index of the error in the text.
+		 * @param reason	description of the error.
+		 * @return an exception to throw.
+		 */
+		private IllegalExpressionException error(int at, String reason) {
+			return new IllegalExpressionException(text, at, reason);
+		}
+	}
+}
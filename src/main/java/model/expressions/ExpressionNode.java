@@ -0,0 +1,179 @@
+package model.expressions;
+
+import model.creatures.AbilityScores;
+import model.exceptions.IllegalExpressionException;
+import model.random.RandomSource;
+import model.values.Roll;
+import service.parameters.CreatureParameters.AbilityName;
+
+/**
+ * Immutable node of a compiled {@link DiceExpression}. Evaluating a node
+ * does not allocate anything, so that a compiled expression can be
+ * evaluated in hot loops. The nodes check that their arithmetic does not
+ * overflow an int.
+ * @author TLM
+ */
+interface ExpressionNode {
+
+	/**
+	 * Computes the value of the node.
+	 * @param scores	to read the ability modifiers from, may be null if the
+	 * node does not use them.
+	 * @param random	source of the results of the dice.
+	 * @return the value of the node.
+	 * @throws IllegalArgumentException if the node uses ability modifiers 
+	 * and scores is null.
+	 */
+	public int evaluate(AbilityScores scores, RandomSource random);
+
+	/**
+	 * @return true if the node reads ability modifiers.
+	 */
+	public boolean usesAbilities();
+
+	/**
+	 * Integer constant.
+	 * @author TLM
+	 */
+	static final class ConstantNode implements ExpressionNode {
+		private final int value;
+
+		ConstantNode(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int evaluate(AbilityScores scores, RandomSource random) {
+			return value;
+		}
+
+		@Override
+		public boolean usesAbilities() {
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return Integer.toString(value);
+		}
+	}
+
+	/**
+	 * Total of a {@link Roll}.
+	 * @author TLM
+	 */
+	static final class DiceNode implements ExpressionNode {
+		private final Roll roll;
+
+		DiceNode(Roll roll) {
+			this.roll = roll;
+		}
+
+		@Override
+		public int evaluate(AbilityScores scores, RandomSource random) {
+			return roll.rollTotal(random);
+		}
+
+		@Override
+		public boolean usesAbilities() {
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return roll.toString();
+		}
+	}
+
+	/**
+	 * Modifier of an ability, read from the {@link AbilityScores} given at
+	 * evaluation time.
+	 * @author TLM
+	 */
+	static final class ModifierNode implements ExpressionNode {
+		private final AbilityName ability;
+
+		ModifierNode(AbilityName ability) {
+			this.ability = ability;
+		}
+
+		@Override
+		public int evaluate(AbilityScores scores, RandomSource random) {
+			if(scores == null) {
+				throw new IllegalArgumentException("The expression reads the modifier of " + ability 
+						+ " but was evaluated without ability scores");
+			}
+			return scores.getModifier(ability);
+		}
+
+		@Override
+		public boolean usesAbilities() {
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return DiceExpression.abbreviate(ability);
+		}
+	}
+
+	/**
+	 * Sum of several nodes, each one being added or subtracted.
+	 * @author TLM
+	 */
+	static final class SumNode implements ExpressionNode {
+		private final ExpressionNode[] terms;
+		// Whether each term is subtracted rather than added
+		private final boolean[] subtracted;
+		private final boolean usesAbilities;
+
+		/**
+		 * @param terms			nodes to add. The array is not copied.
+		 * @param subtracted	whether each node is subtracted. The array is not
+		 * copied.
+		 */
+		SumNode(ExpressionNode[] terms, boolean[] subtracted) {
+			this.terms = terms;
+			this.subtracted = subtracted;
+			boolean usesAbilities = false;
+			for(ExpressionNode term : terms) {
+				usesAbilities |= term.usesAbilities();
+			}
+			this.usesAbilities = usesAbilities;
+		}
+
+		@Override
+		public int evaluate(AbilityScores scores, RandomSource random) {
+			int result = 0;
+			try {
+				for(int i = 0; i < terms.length; i++) {
+					int value = terms[i].evaluate(scores, random);
+					result = subtracted[i] ? Math.subtractExact(result, value) : Math.addExact(result, value);
+				}
+			} catch (ArithmeticException e) {
+				throw new IllegalExpressionException(toString(), e);
+			}
+			return result;
+		}
+
+		@Override
+		public boolean usesAbilities() {
+			return usesAbilities;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder result = new StringBuilder();
+			for(int i = 0; i < terms.length; i++) {
+				String term = terms[i].toString();
+				if(subtracted[i]) {
+					result.append('-');
+				} else if(i > 0 && !term.startsWith("-")) {
+					result.append('+');
+				}
+				result.append(term);
+			}
+			return result.toString();
+		}
+	}
+}
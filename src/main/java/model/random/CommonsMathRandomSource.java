@@ -0,0 +1,35 @@
+package model.random;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * {@link RandomSource} backed by one of the generators of commons-math3.
+ * @author TLM
+ */
+class CommonsMathRandomSource implements RandomSource {
+	private final RandomGenerator random;
+	
+	/**
+	 * Initialises a {@link CommonsMathRandomSource} on top of the given
+	 * generator.
+	 * @param random	generator to encapsulate.
+	 */
+	CommonsMathRandomSource(RandomGenerator random) {
+		this.random = random;
+	}
+
+	@Override
+	public long nextLong() {
+		return random.nextLong();
+	}
+	
+	@Override
+	public int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+	
+	@Override
+	public double nextDouble() {
+		return random.nextDouble();
+	}
+}
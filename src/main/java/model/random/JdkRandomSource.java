@@ -0,0 +1,35 @@
+package model.random;
+
+import java.util.Random;
+
+/**
+ * {@link RandomSource} backed by the linear congruential generator of 
+ * {@link Random}.
+ * @author TLM
+ */
+class JdkRandomSource implements RandomSource {
+	private final Random random;
+	
+	/**
+	 * Initialises a seeded {@link JdkRandomSource}.
+	 * @param seed	of the generator.
+	 */
+	JdkRandomSource(long seed) {
+		random = new Random(seed);
+	}
+
+	@Override
+	public long nextLong() {
+		return random.nextLong();
+	}
+	
+	@Override
+	public int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+	
+	@Override
+	public double nextDouble() {
+		return random.nextDouble();
+	}
+}
@@ -0,0 +1,78 @@
+package model.random;
+
+/**
+ * Counter-based {@link RandomSource} implementing the Philox4x32-10
+ * generator of Salmon et al.: each block of 128 random bits is a keyed
+ * bijection of a 128-bit counter, so any block can be computed directly
+ * without generating the previous ones.
+ * The key is the seed of the source. The upper half of the counter selects
+ * a stream and the lower half is the position of the block in the stream,
+ * which gives 2^64 independent streams of 2^64 blocks for each seed.
+ * @author TLM
+ */
+class PhiloxRandomSource implements RandomSource {
+	private static final long MULTIPLIER_0 = 0xD2511F53L;
+	private static final long MULTIPLIER_1 = 0xCD9E8D57L;
+	private static final int WEYL_0 = 0x9E3779B9;
+	private static final int WEYL_1 = 0xBB67AE85;
+	private static final int ROUNDS = 10;
+	private static final long LOW_MASK = 0xFFFFFFFFL;
+	private final int key0;
+	private final int key1;
+	private final long stream;
+	// Position of the next block in the stream
+	private long position;
+	// Second half of the last block, not returned yet
+	private long buffer;
+	private boolean buffered;
+
+	/**
+	 * Initialises a {@link PhiloxRandomSource} at the start of a stream.
+	 * @param seed		key of the generator.
+	 * @param stream	index of the stream.
+	 */
+	PhiloxRandomSource(long seed, long stream) {
+		this.key0 = (int) seed;
+		this.key1 = (int) (seed >>> 32);
+		this.stream = stream;
+	}
+
+	/**
+	 * Moves to another block of the stream.
+	 * @param position	of the next block to generate.
+	 */
+	void seek(long position) {
+		this.position = position;
+		this.buffered = false;
+	}
+
+	@Override
+	public long nextLong() {
+		if(buffered) {
+			buffered = false;
+			return buffer;
+		}
+		int c0 = (int) position;
+		int c1 = (int) (position >>> 32);
+		int c2 = (int) stream;
+		int c3 = (int) (stream >>> 32);
+		int k0 = key0;
+		int k1 = key1;
+		for(int round = 0; round < ROUNDS; round++) {
+			if(round > 0) {
+				k0 += WEYL_0;
+				k1 += WEYL_1;
+			}
+			long product0 = MULTIPLIER_0 * (c0 & LOW_MASK);
+			long product1 = MULTIPLIER_1 * (c2 & LOW_MASK);
+			c0 = (int) (product1 >>> 32) ^ c1 ^ k0;
+			c1 = (int) product1;
+			c2 = (int) (product0 >>> 32) ^ c3 ^ k1;
+			c3 = (int) product0;
+		}
+		position++;
+		buffer = (c3 & LOW_MASK) << 32 | (c2 & LOW_MASK);
+		buffered = true;
+		return (c1 & LOW_MASK) << 32 | (c0 & LOW_MASK);
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * 
+ */
+package model.random;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.Well19937c;
+
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+/**
+ * Source of random numbers used to roll the dice. Implementations are not 
+ * thread-safe: each thread should use its own source, which is what 
+ * {@link #current()} provides.
+ * @author TLM
+ */
+public interface RandomSource {
+	
+	/**
+	 * @return a uniformly distributed long value.
+	 */
+	public long nextLong();
+	
+	/**
+	 * Returns a uniformly distributed integer between 0 (inclusive) and 
+	 * bound (exclusive).
+	 * The default implementation uses the nearly divisionless method of 
+	 * Lemire on the upper 32 bits of {@link #nextLong()}, and only rejects 
+	 * a value when needed to stay unbiased.
+	 * @param bound	upper bound of the result, must be positive.
+	 * @return an integer in [0, bound).
+	 */
+	public default int nextInt(int bound) {
+		long product = (nextLong() >>> 32) * bound;
+		long low = product & 0xFFFFFFFFL;
+		if(low < bound) {
+			long threshold = (0x100000000L - bound) % bound;
+			while(low < threshold) {
+				product = (nextLong() >>> 32) * bound;
+				low = product & 0xFFFFFFFFL;
+			}
+		}
+		return (int) (product >>> 32);
+	}
+	
+	/**
+	 * @return a uniformly distributed double value in [0, 1).
+	 */
+	public default double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+	
+	/**
+	 * Creates a new unseeded {@link RandomSource}.
+	 * @param algorithm	used to generate the random numbers.
+	 * @return a new {@link RandomSource} based on the given algorithm.
+	 */
+	public static RandomSource create(RandomAlgorithm algorithm) {
+		return ThreadRandomSources.create(algorithm);
+	}
+	
+	/**
+	 * Creates a new seeded {@link RandomSource}: two sources created with 
+	 * the same algorithm and seed generate the same sequence of numbers.
+	 * @param algorithm	used to generate the random numbers.
+	 * @param seed		of the source.
+	 * @return a new {@link RandomSource} based on the given algorithm.
+	 */
+	public static RandomSource create(RandomAlgorithm algorithm, long seed) {
+		switch(algorithm) {
+		case JDK:
+			return new JdkRandomSource(seed);
+		case SPLITTABLE:
+			return new SplittableRandomSource(seed);
+		case XOSHIRO:
+			return new XoshiroRandomSource(seed);
+		case WELL19937C:
+			return new CommonsMathRandomSource(new Well19937c(seed));
+		case MERSENNE_TWISTER:
+			return new CommonsMathRandomSource(new MersenneTwister(seed));
+		case PHILOX:
+			return new PhiloxRandomSource(seed, 0);
+		default:
+			throw new IllegalArgumentException("Unknown random algorithm " + algorithm);
+		}
+	}
+	
+	/**
+	 * Creates a new counter-based {@link RandomSource} generating one of the
+	 * independent streams of numbers of a seed, with the 
+	 * {@link RandomAlgorithm#PHILOX} algorithm. Creating a source is cheap 
+	 * and does not depend on the index of the stream, so that a stream can 
+	 * be generated again at any time without generating the other ones, and
+	 * that several threads can generate different streams of the same seed.
+	 * The stream 0 is the sequence generated by 
+	 * {@link #create(RandomAlgorithm, long)}.
+	 * @param seed		shared by all the streams.
+	 * @param stream	index of the stream.
+	 * @return a new {@link RandomSource} at the start of the stream.
+	 */
+	public static RandomSource stream(long seed, long stream) {
+		return new PhiloxRandomSource(seed, stream);
+	}
+	
+	/**
+	 * Returns the {@link RandomSource} of the current thread. Unless 
+	 * {@link #setCurrent(RandomSource)} or {@link #seed(Long)} have been 
+	 * called on this thread, it is an unseeded source based on the default
+	 * algorithm.
+	 * @return the source of the current thread.
+	 */
+	public static RandomSource current() {
+		return ThreadRandomSources.current();
+	}
+	
+	/**
+	 * Replaces the {@link RandomSource} of the current thread, until the 
+	 * default algorithm is changed.
+	 * @param source	to use on this thread, must not be null.
+	 */
+	public static void setCurrent(RandomSource source) {
+		if(source == null) {
+			throw new IllegalArgumentException("The random source of a thread cannot be null");
+		}
+		ThreadRandomSources.setCurrent(source);
+	}
+	
+	/**
+	 * Seeds the {@link RandomSource} of the current thread, using the 
+	 * default algorithm. Once seeded, a thread always generates the same 
+	 * sequence of numbers, whatever the other threads do.
+	 * @param seed	of the source, or null to go back to an unseeded source.
+	 */
+	public static void seed(Long seed) {
+		RandomAlgorithm algorithm = getDefaultAlgorithm();
+		ThreadRandomSources.setCurrent(seed == null ? create(algorithm) : create(algorithm, seed));
+	}
+	
+	/**
+	 * @return the algorithm used by the threads that did not choose their 
+	 * own {@link RandomSource}.
+	 */
+	public static RandomAlgorithm getDefaultAlgorithm() {
+		return ThreadRandomSources.getDefaultAlgorithm();
+	}
+	
+	/**
+	 * Changes the algorithm used by all threads. Each thread replaces its 
+	 * source with an unseeded one based on the new algorithm the next time 
+	 * it calls {@link #current()}, including the threads that had seeded 
+	 * their source or set their own.
+	 * @param algorithm	to use by default, must not be null.
+	 */
+	public static void setDefaultAlgorithm(RandomAlgorithm algorithm) {
+		if(algorithm == null) {
+			throw new IllegalArgumentException("The default random algorithm cannot be null");
+		}
+		ThreadRandomSources.setDefaultAlgorithm(algorithm);
+	}
+}
@@ -0,0 +1,34 @@
+package model.random;
+
+import java.util.SplittableRandom;
+
+/**
+ * {@link RandomSource} backed by a {@link SplittableRandom}.
+ * @author TLM
+ */
+class SplittableRandomSource implements RandomSource {
+	private final SplittableRandom random;
+	
+	/**
+	 * Initialises a seeded {@link SplittableRandomSource}.
+	 * @param seed	of the generator.
+	 */
+	SplittableRandomSource(long seed) {
+		random = new SplittableRandom(seed);
+	}
+
+	@Override
+	public long nextLong() {
+		return random.nextLong();
+	}
+	
+	@Override
+	public int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+	
+	@Override
+	public double nextDouble() {
+		return random.nextDouble();
+	}
+}
@@ -0,0 +1,69 @@
+package model.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+/**
+ * Non-instanciable holder of the per-thread {@link RandomSource} objects and
+ * of the default algorithm, backing the static methods of 
+ * {@link RandomSource}.
+ * @author TLM
+ */
+final class ThreadRandomSources {
+	/**Algorithm used by the threads that did not choose their own source.*/
+	private static volatile RandomAlgorithm defaultAlgorithm = RandomAlgorithm.SPLITTABLE;
+	/*
+	 * Incremented each time the default algorithm changes, so that each 
+	 * thread notices it must replace its source. It is written after 
+	 * defaultAlgorithm and read before it.
+	 */
+	private static volatile int epoch = 0;
+	private static final ThreadLocal<Holder> sources = ThreadLocal.withInitial(Holder::new);
+	
+	/**Prevents the class from being instantiated.*/
+	private ThreadRandomSources() {}
+	
+	/**
+	 * Source of a thread and epoch at which it was chosen.
+	 */
+	private static final class Holder {
+		int epoch = -1;
+		RandomSource source;
+	}
+	
+	static RandomSource current() {
+		Holder holder = sources.get();
+		int currentEpoch = epoch;
+		if(holder.epoch != currentEpoch) {
+			holder.source = create(defaultAlgorithm);
+			holder.epoch = currentEpoch;
+		}
+		return holder.source;
+	}
+	
+	static void setCurrent(RandomSource source) {
+		Holder holder = sources.get();
+		holder.source = source;
+		holder.epoch = epoch;
+	}
+	
+	static RandomAlgorithm getDefaultAlgorithm() {
+		return defaultAlgorithm;
+	}
+	
+	static synchronized void setDefaultAlgorithm(RandomAlgorithm algorithm) {
+		defaultAlgorithm = algorithm;
+		epoch++;
+	}
+	
+	/**
+	 * Creates an unseeded {@link RandomSource}, seeded from the thread-local
+	 * generator of the JDK.
+	 * @param algorithm	used by the source.
+	 * @return a new source.
+	 */
+	static RandomSource create(RandomAlgorithm algorithm) {
+		return RandomSource.create(algorithm, ThreadLocalRandom.current().nextLong());
+	}
+}
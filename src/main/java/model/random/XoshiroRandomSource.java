@@ -0,0 +1,49 @@
+package model.random;
+
+/**
+ * {@link RandomSource} implementing the xoshiro256** generator of Blackman 
+ * and Vigna. Its state is initialised from the seed with SplitMix64, as 
+ * recommended by the authors.
+ * @author TLM
+ */
+class XoshiroRandomSource implements RandomSource {
+	private long s0;
+	private long s1;
+	private long s2;
+	private long s3;
+	
+	/**
+	 * Initialises a seeded {@link XoshiroRandomSource}.
+	 * @param seed	of the generator.
+	 */
+	XoshiroRandomSource(long seed) {
+		s0 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s1 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s2 = splitMix(seed += 0x9E3779B97F4A7C15L);
+		s3 = splitMix(seed + 0x9E3779B97F4A7C15L);
+	}
+	
+	/**
+	 * Output function of the SplitMix64 generator.
+	 * @param z	state of the SplitMix64 generator.
+	 * @return a well mixed value, never leading to an all-zero state.
+	 */
+	static long splitMix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+}
@@ -0,0 +1,96 @@
+package model.values;
+
+import model.random.RandomSource;
+
+/**
+ * Constant-time sampler for the total of a {@link Roll}, built with the alias
+ * method from its {@link RollDistribution}: each total owns a column of the
+ * table, which is shared with at most one other total, its alias. Drawing a
+ * total costs a single random number, whose high half selects a column and
+ * whose low half decides between the column and its alias. The
+ * probabilities are thus rounded to multiples of 2^-32.
+ * An {@link AliasTable} is immutable and may be shared between threads.
+ * @author TLM
+ */
+public final class AliasTable {
+	private static final double SCALE = 0x1.0p32;
+	private final int minimum;
+	// Probability, scaled to 2^32, to keep the total of each column rather than its alias
+	private final long[] thresholds;
+	// Index of the alias of each column
+	private final int[] aliases;
+
+	/**
+	 * Builds the table of a distribution with Vose's algorithm, in time
+	 * linear in the number of totals.
+	 * @param distribution	of the totals to draw.
+	 */
+	public AliasTable(RollDistribution distribution) {
+		this.minimum = distribution.getMinimum();
+		int length = distribution.getMaximum() - minimum + 1;
+		this.thresholds = new long[length];
+		this.aliases = new int[length];
+		double[] scaled = new double[length];
+		// Columns with less and more than their share, used as stacks
+		int[] small = new int[length];
+		int[] large = new int[length];
+		int smallSize = 0;
+		int largeSize = 0;
+		for(int i = 0; i < length; i++) {
+			scaled[i] = distribution.getProbability(minimum + i) * length;
+			if(scaled[i] < 1) {
+				small[smallSize++] = i;
+			} else {
+				large[largeSize++] = i;
+			}
+		}
+		while(smallSize > 0 && largeSize > 0) {
+			int column = small[--smallSize];
+			int alias = large[--largeSize];
+			thresholds[column] = Math.round(scaled[column] * SCALE);
+			aliases[column] = alias;
+			scaled[alias] -= 1 - scaled[column];
+			if(scaled[alias] < 1) {
+				small[smallSize++] = alias;
+			} else {
+				large[largeSize++] = alias;
+			}
+		}
+		//The remaining columns are full, up to rounding errors
+		while(largeSize > 0) {
+			int column = large[--largeSize];
+			thresholds[column] = (long) SCALE;
+			aliases[column] = column;
+		}
+		while(smallSize > 0) {
+			int column = small[--smallSize];
+			thresholds[column] = (long) SCALE;
+			aliases[column] = column;
+		}
+	}
+
+	/**
+	 * @return the lowest total of the table.
+	 */
+	public int getMinimum() {
+		return minimum;
+	}
+
+	/**
+	 * @return the highest total of the table.
+	 */
+	public int getMaximum() {
+		return minimum + thresholds.length - 1;
+	}
+
+	/**
+	 * Draws a total with a single call to {@link RandomSource#nextLong()}.
+	 * @param random	source of the random number.
+	 * @return a total between the minimum and the maximum of the table.
+	 */
+	public int sample(RandomSource random) {
+		long word = random.nextLong();
+		int column = (int) (((word >>> 32) * thresholds.length) >>> 32);
+		return minimum + ((word & 0xFFFFFFFFL) < thresholds[column] ? column : aliases[column]);
+	}
+}
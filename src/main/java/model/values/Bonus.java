@@ -0,0 +1,100 @@
+package model.values;
+
+/**
+ * Immutable modifier applied to a {@link Value}. A bonus with a negative
+ * value is a penalty. How bonuses combine depends on their {@link Type}:
+ * <ul>
+ * <li>penalties always stack,</li>
+ * <li>bonuses of a type that stacks, such as {@link Type#UNTYPED} or
+ * {@link Type#DODGE}, are added,</li>
+ * <li>only the highest bonus of each other type applies.</li>
+ * </ul>
+ * Each instance is a distinct source: two equal bonuses added to a
+ * {@link Value} are both kept, and removed separately.
+ * @author TLM
+ */
+public final class Bonus {
+	private final int value;
+	private final Type type;
+
+	/**
+	 * Initialises a {@link Bonus}.
+	 * @param value	of the bonus, negative for a penalty.
+	 * @param type	of the bonus, deciding how it stacks.
+	 * @throws IllegalArgumentException if the type is null.
+	 */
+	public Bonus(int value, Type type) {
+		if(type == null) {
+			throw new IllegalArgumentException("The type of a bonus cannot be null");
+		}
+		this.value = value;
+		this.type = type;
+	}
+
+	/**
+	 * @return the value of the bonus, negative for a penalty.
+	 */
+	public int getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the type of the bonus.
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return true if the bonus is a penalty, which always stacks.
+	 */
+	public boolean isPenalty() {
+		return value < 0;
+	}
+
+	@Override
+	public String toString() {
+		return (value < 0 ? "" : "+") + value + " " + type;
+	}
+
+	/**
+	 * Types of bonuses, deciding whether bonuses of the same type stack.
+	 * @author TLM
+	 */
+	public static enum Type {
+		/**Bonuses without a type, which stack.*/
+		UNTYPED(true),
+		/**Bonuses from dodging, which stack.*/
+		DODGE(true),
+		ALCHEMICAL(false),
+		ARMOR(false),
+		CIRCUMSTANCE(false),
+		COMPETENCE(false),
+		DEFLECTION(false),
+		ENHANCEMENT(false),
+		INSIGHT(false),
+		LUCK(false),
+		MORALE(false),
+		NATURAL_ARMOR(false),
+		PROFANE(false),
+		RACIAL(false),
+		RESISTANCE(false),
+		SACRED(false),
+		SHIELD(false),
+		SIZE(false);
+
+		private final boolean stacks;
+
+		private Type(boolean stacks) {
+			this.stacks = stacks;
+		}
+
+		/**
+		 * @return true if all the bonuses of this type are added, false if
+		 * only the highest one applies.
+		 */
+		public boolean stacks() {
+			return stacks;
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package model.values;
+
+/**
+ * Expiry of the temporary bonuses given by spells and conditions, keyed by
+ * game round. A bonus scheduled for n rounds is applied to its
+ * {@link Value} at once, and removed from it by the n-th call of
+ * {@link #advance()}, which only recomputes the totals of the values that
+ * lose a bonus.
+ * <p>
+ * The scheduler is a hierarchical timing wheel: {@value #LEVELS} wheels of
+ * {@value #SLOTS} slots, each slot of a wheel covering a whole turn of the
+ * previous one. A bonus is stored in the wheel matching how far its expiry
+ * is, and moves down to a finer wheel when the rounds catch up with its
+ * slot, at most once per wheel. Scheduling, cancelling and expiring a bonus
+ * thus cost a constant time whatever the number of bonuses, and a round in
+ * which nothing expires only reads a few slots. Bonuses expiring beyond the
+ * span of the last wheel wait in it until they come within range.
+ * <p>
+ * A scheduler is not thread-safe, like the values it updates: each game
+ * session owns its own, whose fixed cost is a few kilobytes, so that a JVM
+ * running many sessions holds a million timed bonuses with one small node
+ * each.
+ * <p>
+ * The scheduler only reaches the {@link Value} objects it is given. A 
+ * {@link model.creatures.Creature} keeps the total of each ability score, 
+ * not its bonuses, so its abilities cannot be the target of a timed bonus:
+ * a bonus scheduled on scores which have already been given to a creature
+ * is not seen by it, even when the bonus expires. Such scores must be set 
+ * on the creature again after {@link #advance()} for the creature to see 
+ * the change.
+ * @author TLM
+ */
+public final class BonusScheduler {
+	/**Number of bits of the round giving the slot in one wheel.*/
+	private static final int SLOT_BITS = 6;
+	/**Number of slots in each wheel.*/
+	static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	/**Number of wheels.*/
+	static final int LEVELS = 4;
+	/**Level of a bonus which is not scheduled anymore.*/
+	private static final int DONE = -1;
+
+	// First bonus of each slot of each wheel, null if the slot is empty
+	private final TimedBonus[][] wheels = new TimedBonus[LEVELS][SLOTS];
+	// Current round
+	private long round;
+	// Number of scheduled bonuses
+	private int size;
+
+	/**
+	 * Initialises a scheduler at round 0.
+	 */
+	public BonusScheduler() {
+		this(0);
+	}
+
+	/**
+	 * Initialises a scheduler resuming at a given round.
+	 * @param round	current round of the game.
+	 * @throws IllegalArgumentException if the round is negative.
+	 */
+	public BonusScheduler(long round) {
+		if(round < 0) {
+			throw new IllegalArgumentException("A game cannot be at a negative round: " + round);
+		}
+		this.round = round;
+	}
+
+	/**
+	 * @return the current round.
+	 */
+	public long getRound() {
+		return round;
+	}
+
+	/**
+	 * @return the number of bonuses which have neither expired nor been
+	 * cancelled.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Applies a bonus to a value for a given number of rounds.
+	 * @param target	value receiving the bonus.
+	 * @param bonus		to apply.
+	 * @param rounds	number of calls of {@link #advance()} after which the
+	 * bonus is removed.
+	 * @return the handle of the bonus, to cancel it before it expires.
+	 * @throws IllegalArgumentException if the target or the bonus is null, if
+	 * the number of rounds is not positive, or if the bonus would expire
+	 * after round {@link Long#MAX_VALUE}.
+	 */
+	public TimedBonus schedule(Value target, Bonus bonus, long rounds) {
+		if(target == null) {
+			throw new IllegalArgumentException("Cannot apply a bonus to a null value");
+		}
+		if(rounds <= 0) {
+			throw new IllegalArgumentException("A bonus must last at least one round: " + rounds);
+		}
+		long expiry;
+		try {
+			expiry = Math.addExact(round, rounds);
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("A bonus of " + rounds + " rounds from round " + round 
+					+ " would expire after the last round", e);
+		}
+		target.addBonus(bonus);
+		TimedBonus timed = new TimedBonus(this, target, bonus, expiry);
+		insert(timed);
+		size++;
+		return timed;
+	}
+
+	/**
+	 * Removes a bonus from its value before it expires.
+	 * @param timed	handle given by {@link #schedule(Value, Bonus, long)}.
+	 * @return true if the bonus was still scheduled by this scheduler.
+	 */
+	public boolean cancel(TimedBonus timed) {
+		if(timed == null || timed.owner != this || timed.level == DONE) {
+			return false;
+		}
+		unlink(timed);
+		timed.level = DONE;
+		size--;
+		timed.target.removeBonus(timed.bonus);
+		return true;
+	}
+
+	/**
+	 * Moves to the next round, and removes the bonuses expiring in it from
+	 * their value.
+	 * @return the number of bonuses which have expired.
+	 */
+	public int advance() {
+		round++;
+		// Brings the bonuses of the slots which the round has reached closer,
+		// starting with the coarsest wheel so that they can go down several
+		int top = 0;
+		while(top + 1 < LEVELS && (round & ((1L << ((top + 1) * SLOT_BITS)) - 1)) == 0) {
+			top++;
+		}
+		for(int level = top; level > 0; level--) {
+			TimedBonus timed = detach(level, slotOf(round, level));
+			while(timed != null) {
+				TimedBonus next = timed.next;
+				insert(timed);
+				timed = next;
+			}
+		}
+		int expired = 0;
+		TimedBonus timed = detach(0, slotOf(round, 0));
+		while(timed != null) {
+			TimedBonus next = timed.next;
+			timed.level = DONE;
+			timed.previous = timed.next = null;
+			timed.target.removeBonus(timed.bonus);
+			expired++;
+			timed = next;
+		}
+		size -= expired;
+		return expired;
+	}
+
+	/**
+	 * Moves to a later round, expiring the bonuses of every round in
+	 * between. The rounds are skipped at once if no bonus is scheduled.
+	 * @param target	round to reach.
+	 * @return the number of bonuses which have expired.
+	 * @throws IllegalArgumentException if the round has already passed.
+	 */
+	public int advanceTo(long target) {
+		if(target < round) {
+			throw new IllegalArgumentException("Round " + target + " has already passed, the current round is " + round);
+		}
+		if(size == 0) {
+			round = target;
+			return 0;
+		}
+		int expired = 0;
+		while(round < target) {
+			expired += advance();
+		}
+		return expired;
+	}
+
+	/**
+	 * Stores a bonus in the wheel of the highest bit in which its expiry
+	 * differs from the current round.
+	 * @param timed	bonus to store.
+	 */
+	private void insert(TimedBonus timed) {
+		long difference = timed.expiry ^ round;
+		int level = difference == 0 ? 0 : (63 - Long.numberOfLeadingZeros(difference)) / SLOT_BITS;
+		level = Math.min(level, LEVELS - 1);
+		int slot = slotOf(timed.expiry, level);
+		TimedBonus head = wheels[level][slot];
+		timed.level = level;
+		timed.slot = slot;
+		timed.previous = null;
+		timed.next = head;
+		if(head != null) {
+			head.previous = timed;
+		}
+		wheels[level][slot] = timed;
+	}
+
+	/**
+	 * Empties a slot.
+	 * @param level	of the wheel.
+	 * @param slot	to empty.
+	 * @return the first bonus of the slot, followed by the others.
+	 */
+	private TimedBonus detach(int level, int slot) {
+		TimedBonus head = wheels[level][slot];
+		wheels[level][slot] = null;
+		return head;
+	}
+
+	private void unlink(TimedBonus timed) {
+		if(timed.previous == null) {
+			wheels[timed.level][timed.slot] = timed.next;
+		} else {
+			timed.previous.next = timed.next;
+		}
+		if(timed.next != null) {
+			timed.next.previous = timed.previous;
+		}
+		timed.previous = timed.next = null;
+	}
+
+	private static int slotOf(long round, int level) {
+		return (int) (round >>> (level * SLOT_BITS)) & SLOT_MASK;
+	}
+
+	/**
+	 * Bonus applied to a value until a given round, as scheduled by a
+	 * {@link BonusScheduler}.
+	 * @author TLM
+	 */
+	public static final class TimedBonus {
+		private final BonusScheduler owner;
+		private final Value target;
+		private final Bonus bonus;
+		private final long expiry;
+		// Position in the wheels, level is DONE once the bonus is removed
+		private int level;
+		private int slot;
+		private TimedBonus previous;
+		private TimedBonus next;
+
+		private TimedBonus(BonusScheduler owner, Value target, Bonus bonus, long expiry) {
+			this.owner = owner;
+			this.target = target;
+			this.bonus = bonus;
+			this.expiry = expiry;
+		}
+
+		/**
+		 * @return the value receiving the bonus.
+		 */
+		public Value getTarget() {
+			return target;
+		}
+
+		/**
+		 * @return the bonus applied to the value.
+		 */
+		public Bonus getBonus() {
+			return bonus;
+		}
+
+		/**
+		 * @return the round in which the bonus is removed.
+		 */
+		public long getExpiry() {
+			return expiry;
+		}
+
+		/**
+		 * @return true until the bonus expires or is cancelled.
+		 */
+		public boolean isActive() {
+			return level != DONE;
+		}
+	}
+}
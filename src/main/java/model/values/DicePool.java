@@ -0,0 +1,165 @@
+package model.values;
+
+import java.util.Arrays;
+
+/**
+ * Immutable multiset of dice: for each number of sides, the number of dice
+ * with this number of sides, and how many of the highest or lowest results 
+ * are kept in the total. Two pools with the same dice and the same selection
+ * are equal, which makes them suitable as cache keys.
+ * @author TLM
+ */
+final class DicePool {
+	/**Number of sides of each type of dice, sorted in increasing order.*/
+	final int[] sides;
+	/**Number of dice of each type, in the same order as sides.*/
+	final int[] counts;
+	/**Number of dice whose results are added to the total.*/
+	final int kept;
+	/**Whether the kept dice are the highest ones or the lowest ones.*/
+	final boolean highest;
+	private final int hash;
+	
+	/**
+	 * Initialises a {@link DicePool} keeping all its dice. The input arrays 
+	 * are not copied and must not be modified afterwards.
+	 * @param sides		number of sides of each type of dice, sorted in 
+	 * increasing order without duplicates.
+	 * @param counts	number of dice of each type.
+	 */
+	DicePool(int[] sides, int[] counts) {
+		this(sides, counts, sum(counts), true);
+	}
+	
+	/**
+	 * Initialises a {@link DicePool} keeping only some of its dice. The input
+	 * arrays are not copied and must not be modified afterwards.
+	 * @param sides		number of sides of each type of dice, sorted in 
+	 * increasing order without duplicates.
+	 * @param counts	number of dice of each type.
+	 * @param kept		number of dice to keep, between 1 and the number of 
+	 * dice.
+	 * @param highest	true to keep the highest results, false to keep the 
+	 * lowest ones.
+	 */
+	DicePool(int[] sides, int[] counts, int kept, boolean highest) {
+		this.sides = sides;
+		this.counts = counts;
+		this.kept = kept;
+		//Keeping all the dice is the same selection either way
+		this.highest = highest || kept == sum(counts);
+		this.hash = 31 * (31 * Arrays.hashCode(sides) + Arrays.hashCode(counts)) 
+				+ (this.highest ? kept : -kept);
+	}
+	
+	/**
+	 * @return the total number of dice in the pool.
+	 */
+	int getNumberOfDice() {
+		return sum(counts);
+	}
+	
+	/**
+	 * @return true if the results of all the dice are added to the total.
+	 */
+	boolean keepsAll() {
+		return kept == getNumberOfDice();
+	}
+	
+	/**
+	 * Splits the pool in two parts: the first type of dice and the other 
+	 * ones if there are several types, or two halves of the dice otherwise.
+	 * The first part always contains the first dice of the pool, in the 
+	 * order of the types. Both parts keep all their dice.
+	 * @return two non-empty pools, or null if the pool contains only one die.
+	 */
+	DicePool[] split() {
+		if(sides.length > 1) {
+			return new DicePool[] {
+					new DicePool(new int[] {sides[0]}, new int[] {counts[0]}),
+					new DicePool(Arrays.copyOfRange(sides, 1, sides.length), 
+							Arrays.copyOfRange(counts, 1, counts.length))};
+		}
+		if(counts[0] == 1) {
+			return null;
+		}
+		int half = counts[0] / 2;
+		return new DicePool[] {
+				new DicePool(sides, new int[] {half}),
+				new DicePool(sides, new int[] {counts[0] - half})};
+	}
+	
+	/**
+	 * @return the lowest total the kept dice can roll.
+	 */
+	int getMinimum() {
+		return kept;
+	}
+	
+	/**
+	 * @return the highest total the kept dice can roll: all the dice roll 
+	 * their maximum, and the kept ones are those with the most sides, or the
+	 * fewest sides if the lowest results are kept.
+	 */
+	int getMaximum() {
+		int result = 0;
+		int remaining = kept;
+		for(int i = 0; i < sides.length && remaining > 0; i++) {
+			int type = highest ? sides.length - 1 - i : i;
+			int dice = Math.min(counts[type], remaining);
+			result += sides[type] * dice;
+			remaining -= dice;
+		}
+		return result;
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		if(this == other) {
+			return true;
+		}
+		if(!(other instanceof DicePool)) {
+			return false;
+		}
+		DicePool pool = (DicePool) other;
+		return hash == pool.hash && kept == pool.kept && highest == pool.highest
+				&& Arrays.equals(sides, pool.sides) && Arrays.equals(counts, pool.counts);
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+	
+	/**
+	 * @return the dice of the pool, such as "2d4+3d6", followed by the 
+	 * selection if some dice are discarded, such as "4d6kh3" to keep the 
+	 * three highest dice or "2d20kl1" to keep the lowest one.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for(int type = 0; type < sides.length; type++) {
+			if(type > 0) {
+				result.append('+');
+			}
+			result.append(counts[type]).append('d').append(sides[type]);
+		}
+		if(!keepsAll()) {
+			result.append(highest ? "kh" : "kl").append(kept);
+		}
+		return result.toString();
+	}
+	
+	/**
+	 * @param counts	number of dice of each type.
+	 * @return the total number of dice.
+	 */
+	private static int sum(int[] counts) {
+		int result = 0;
+		for(int count : counts) {
+			result += count;
+		}
+		return result;
+	}
+}
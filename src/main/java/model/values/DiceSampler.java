@@ -0,0 +1,152 @@
+package model.values;
+
+import model.random.RandomSource;
+import service.parameters.ValueParameters;
+
+/**
+ * Rolls several dice with each random number, instead of calling
+ * {@link RandomSource#nextInt(int)} for each die.
+ * <p>
+ * Dice whose number of sides is a power of two are read directly from the
+ * bits of each random number. The other dice are rolled in batches with the
+ * batched version of the nearly divisionless method of Lemire, each random 
+ * number providing two batches, one for each half: the half is seen as a 
+ * fraction of 2^32, multiplied by the number of sides of the first die, 
+ * whose value is the integer part of the product, and the fractional part 
+ * is multiplied again for the next die. The batch is only rejected, and all
+ * its dice rolled again from the next half, if the last fractional part 
+ * falls below a precomputed threshold, which keeps the results unbiased. 
+ * Batches are limited to dice whose product of sides is at most 2^24, so 
+ * that a batch is rejected less than once in 256 times, and that the 
+ * products fit in a long without overflowing.
+ * <p>
+ * The results only depend on the sequence of random numbers, so a seeded
+ * {@link RandomSource} always rolls the same dice.
+ * @author TLM
+ */
+final class DiceSampler {
+	/**Largest product of the sides of the dice of a batch.*/
+	private static final long MAX_BATCH_PRODUCT = 1L << 24;
+	private static final long LOW_MASK = 0xFFFFFFFFL;
+	/*
+	 * Rejection thresholds, indexed by number of sides and number of dice
+	 * in the batch: 2^32 modulo the product of the sides of the batch. The
+	 * length of each array is one more than the size of the largest batch.
+	 */
+	private static final long[][] THRESHOLDS = new long[ValueParameters.MAX_NUMBER_OF_SIDES + 1][];
+
+	static {
+		for(int sides = ValueParameters.MIN_NUMBER_OF_SIDES; sides <= ValueParameters.MAX_NUMBER_OF_SIDES; sides++) {
+			if(isPowerOfTwo(sides)) {
+				continue;
+			}
+			int batch = 0;
+			for(long product = sides; product <= MAX_BATCH_PRODUCT; product *= sides) {
+				batch++;
+			}
+			long[] thresholds = new long[batch + 1];
+			long product = 1;
+			for(int dice = 1; dice <= batch; dice++) {
+				product *= sides;
+				thresholds[dice] = (1L << 32) % product;
+			}
+			THRESHOLDS[sides] = thresholds;
+		}
+	}
+
+	/**Prevents the class from being instantiated.*/
+	private DiceSampler() {}
+
+	/**
+	 * Rolls identical dice.
+	 * @param random		source of the random numbers.
+	 * @param sides			number of sides of the dice.
+	 * @param count			number of dice to roll.
+	 * @param destination	array to write the value of each die in, or null
+	 * if only the total matters.
+	 * @param offset		index of the first value to write in destination.
+	 * @return the sum of the dice.
+	 */
+	static int roll(RandomSource random, int sides, int count, short[] destination, int offset) {
+		if(isPowerOfTwo(sides)) {
+			return rollPowerOfTwo(random, sides, count, destination, offset);
+		}
+		long[] thresholds = THRESHOLDS[sides];
+		int batch = thresholds.length - 1;
+		int total = 0;
+		// Random bits not used yet, in the upper half first, and how many halves are left
+		long bits = 0;
+		int halves = 0;
+		while(count > 0) {
+			int dice = Math.min(batch, count);
+			long threshold = thresholds[dice];
+			int sum;
+			long fraction;
+			do {
+				if(halves == 0) {
+					bits = random.nextLong();
+					halves = 2;
+				}
+				fraction = bits >>> 32;
+				bits <<= 32;
+				halves--;
+				sum = 0;
+				for(int i = 0; i < dice; i++) {
+					long product = fraction * sides;
+					int value = (int) (product >>> 32) + 1;
+					fraction = product & LOW_MASK;
+					sum += value;
+					if(destination != null) {
+						destination[offset + i] = (short) value;
+					}
+				}
+			} while(fraction < threshold);
+			total += sum;
+			offset += dice;
+			count -= dice;
+		}
+		return total;
+	}
+
+	/**
+	 * Rolls identical dice whose number of sides is a power of two, by
+	 * splitting each random number in groups of bits.
+	 * @param random		source of the random numbers.
+	 * @param sides			number of sides of the dice, a power of two.
+	 * @param count			number of dice to roll.
+	 * @param destination	array to write the value of each die in, or null
+	 * if only the total matters.
+	 * @param offset		index of the first value to write in destination.
+	 * @return the sum of the dice.
+	 */
+	private static int rollPowerOfTwo(RandomSource random, int sides, int count, short[] destination,
+			int offset) {
+		int bits = Integer.numberOfTrailingZeros(sides);
+		int batch = Long.SIZE / bits;
+		int mask = sides - 1;
+		int total = 0;
+		while(count > 0) {
+			int dice = Math.min(batch, count);
+			long word = random.nextLong();
+			for(int i = 0; i < dice; i++) {
+				int value = ((int) word & mask) + 1;
+				word >>>= bits;
+				total += value;
+				if(destination != null) {
+					destination[offset + i] = (short) value;
+				}
+			}
+			offset += dice;
+			count -= dice;
+		}
+		return total;
+	}
+
+	/**
+	 * @param sides	number of sides of a die.
+	 * @return true if the number of sides is a power of two.
+	 */
+	private static boolean isPowerOfTwo(int sides) {
+		return (sides & (sides - 1)) == 0;
+	}
+}
@@ -0,0 +1,115 @@
+package model.values;
+
+import service.parameters.ValueParameters;
+
+/**
+ * Selects the highest or lowest results of a set of dice without sorting
+ * them: as dice have at most {@link ValueParameters#MAX_NUMBER_OF_SIDES}
+ * sides, the values are counted in a histogram, which is then walked from
+ * the best value until enough dice are kept. Selecting among n dice with at
+ * most s sides thus costs O(n + s) whatever the number of kept dice.
+ * Each thread has its own instance, whose buffers are reused from one roll
+ * to the next.
+ * @author TLM
+ */
+final class DiceSelection {
+	private static final ThreadLocal<DiceSelection> current = ThreadLocal.withInitial(DiceSelection::new);
+	/**Buffer large enough for the values of any roll, free to use by the caller.*/
+	final short[] values = new short[ValueParameters.MAX_NUMBER_OF_DICE];
+	// Number of dice with each value, always cleared after use
+	private final int[] histogram = new int[ValueParameters.MAX_NUMBER_OF_SIDES + 1];
+
+	private DiceSelection() {}
+
+	/**
+	 * @return the instance of the current thread.
+	 */
+	static DiceSelection current() {
+		return current.get();
+	}
+
+	/**
+	 * Computes the sum of the kept dice. The dice are walked from the end
+	 * where there are fewer dice to take: when most dice are kept, the sum of
+	 * the discarded ones is subtracted from the total instead.
+	 * @param values	of the dice.
+	 * @param length	number of dice to read in values.
+	 * @param total		sum of all the dice.
+	 * @param kept		number of dice to keep.
+	 * @param highest	true to keep the highest dice, false to keep the
+	 * lowest ones.
+	 * @return the sum of the kept dice.
+	 */
+	int keptTotal(short[] values, int length, int total, int kept, boolean highest) {
+		if(kept == length) {
+			return total;
+		}
+		int largest = count(values, length);
+		boolean fromTop = highest == (kept <= length - kept);
+		int remaining = highest == fromTop ? kept : length - kept;
+		int sum = 0;
+		for(int value = fromTop ? largest : 1; remaining > 0; value += fromTop ? -1 : 1) {
+			int taken = Math.min(histogram[value], remaining);
+			sum += taken * value;
+			remaining -= taken;
+		}
+		clear(values, length);
+		return highest == fromTop ? sum : total - sum;
+	}
+
+	/**
+	 * Marks the kept dice. When several dice have the value of the last kept
+	 * die, the first ones are kept.
+	 * @param values	of the dice.
+	 * @param kept		number of dice to keep.
+	 * @param highest	true to keep the highest dice, false to keep the
+	 * lowest ones.
+	 * @return a bit set with the indices of the kept dice.
+	 */
+	long[] keptMask(short[] values, int kept, boolean highest) {
+		int largest = count(values, values.length);
+		// Find the value of the last kept die and how many dice with this value are kept
+		int threshold = highest ? largest : 1;
+		int remaining = kept;
+		while(histogram[threshold] < remaining) {
+			remaining -= histogram[threshold];
+			threshold += highest ? -1 : 1;
+		}
+		clear(values, values.length);
+		long[] result = new long[(values.length + 63) >>> 6];
+		for(int i = 0; i < values.length; i++) {
+			int value = values[i];
+			if(value == threshold ? remaining-- > 0 : (value > threshold) == highest) {
+				result[i >>> 6] |= 1L << i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Fills the histogram.
+	 * @param values	of the dice.
+	 * @param length	number of dice to read in values.
+	 * @return the highest value.
+	 */
+	private int count(short[] values, int length) {
+		int largest = 0;
+		for(int i = 0; i < length; i++) {
+			int value = values[i];
+			histogram[value]++;
+			largest = Math.max(largest, value);
+		}
+		return largest;
+	}
+
+	/**
+	 * Clears the histogram by visiting only the values that were counted.
+	 * @param values	of the dice.
+	 * @param length	number of dice read in values.
+	 */
+	private void clear(short[] values, int length) {
+		for(int i = 0; i < length; i++) {
+			histogram[values[i]] = 0;
+		}
+	}
+}
@@ -3,31 +3,36 @@
  */
 package model.values;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.nio.IntBuffer;
 import java.util.Map;
-import java.util.Random;
+import java.util.TreeMap;
 
 import model.exceptions.IllegalRollException;
+import model.random.RandomSource;
 import service.parameters.ValueParameters;
 
 /**
- * Container for a set of dice, grouped by number of sides.
+ * Immutable definition of a set of dice, grouped by number of sides.
  * The set may contain at most 999 dice, and each die may have at most 999 
  * sides.
+ * Only the highest or lowest results may be kept in the total, as when 
+ * rolling 4d6 and dropping the lowest die.
+ * A {@link Roll} holds no result: each call to {@link #roll()} returns a new
+ * {@link RollResult}, so that the same {@link Roll} may be cached and shared
+ * between threads without locks.
  * @author TLM
  */
-public class Roll {
-	// Set of dice included in the roll
-	private Map<Integer, int[]> dice;
-	// Bonus to add to the roll
-	//private Value modifier;
-	private boolean rolled = false;
+public final class Roll {
 	/*
-	 * RNG used for all the dice roll, static so that it may be seeded for 
-	 * unit testing.
+	 * Number of dice above which the total is drawn from the distribution of
+	 * the roll rather than by rolling each die, when only the total matters.
 	 */
-	private static Random rng = new Random();
+	private static final int SCORE_SAMPLING_THRESHOLD = 16;
+	// Multiset of dice of the roll and kept dice, shared with its distribution and results
+	private final DicePool pool;
+	private final int numberOfDice;
+	// Bonus to add to the roll
+	//private Value modifier;
 	
 	/**
 	 * Initialises a simple set of identical dice.
@@ -43,72 +48,390 @@ public class Roll {
 				|| numberOfSides > ValueParameters.MAX_NUMBER_OF_SIDES) {
 			throw new IllegalRollException(numberOfDice, numberOfSides);
 		}
-		dice = new HashMap<Integer, int[]>();
-		dice.put(numberOfSides, new int[numberOfDice]);
+		this.pool = new DicePool(new int[] {numberOfSides}, new int[] {numberOfDice});
+		this.numberOfDice = numberOfDice;
 	}
 	
 	/**
-	 * Rolls the dice.
-	 * @return the sum of all dice.
+	 * Initialises a set of dice with different numbers of sides.
+	 * The set may contain at most 999 dice, and each die may have at most 999 
+	 * sides.
+	 * @param dice	map with, for each number of sides, the number of dice 
+	 * with this number of sides included in the set. It must contain at 
+	 * least one die.
 	 */
-	public int roll(){
-		rolled = true;
-		for(int sides : dice.keySet()) {
-			for(int i = 0; i < dice.get(sides).length; i++) {
-				dice.get(sides)[i] = rng.nextInt(sides) + 1;
+	public Roll(Map<Integer, Integer> dice) {
+		if(dice == null || dice.isEmpty()) {
+			throw new IllegalRollException(0, 0);
+		}
+		//Sort the types of dice by number of sides
+		TreeMap<Integer, Integer> sorted = new TreeMap<Integer, Integer>(dice);
+		int[] sides = new int[sorted.size()];
+		int[] counts = new int[sorted.size()];
+		int total = 0;
+		int type = 0;
+		for(Map.Entry<Integer, Integer> entry : sorted.entrySet()) {
+			int numberOfSides = entry.getKey();
+			int numberOfDice = entry.getValue() == null ? 0 : entry.getValue();
+			total += numberOfDice;
+			if(numberOfDice < ValueParameters.MIN_NUMBER_OF_DICE 
+					|| numberOfSides < ValueParameters.MIN_NUMBER_OF_SIDES 
+					|| total > ValueParameters.MAX_NUMBER_OF_DICE 
+					|| numberOfSides > ValueParameters.MAX_NUMBER_OF_SIDES) {
+				throw new IllegalRollException(total, numberOfSides);
 			}
+			sides[type] = numberOfSides;
+			counts[type] = numberOfDice;
+			type++;
 		}
-		return computeScore();
+		this.pool = new DicePool(sides, counts);
+		this.numberOfDice = total;
+	}
+	
+	/**
+	 * Initialises a roll with the same dice as another one but a different 
+	 * selection of kept dice.
+	 * @param pool	of dice with the selection.
+	 */
+	private Roll(DicePool pool) {
+		this.pool = pool;
+		this.numberOfDice = pool.getNumberOfDice();
+	}
+	
+	/**
+	 * @return the total number of dice in the set.
+	 */
+	public int getNumberOfDice() {
+		return numberOfDice;
+	}
+	
+	/**
+	 * @return the number of dice whose results are added to the total.
+	 */
+	public int getNumberOfKeptDice() {
+		return pool.kept;
+	}
+	
+	/**
+	 * Returns a roll with the same dice keeping only the highest results in 
+	 * its total, whatever the previous selection of this roll.
+	 * @param number	of dice to keep, between 1 and the number of dice.
+	 * @return a roll such as 4d6kh3.
+	 * @throws IllegalArgumentException if the number of dice to keep is out
+	 * of bounds.
+	 */
+	public Roll keepHighest(int number) {
+		return select(number, true);
+	}
+	
+	/**
+	 * Returns a roll with the same dice keeping only the lowest results in 
+	 * its total, whatever the previous selection of this roll.
+	 * @param number	of dice to keep, between 1 and the number of dice.
+	 * @return a roll such as 2d20kl1.
+	 * @throws IllegalArgumentException if the number of dice to keep is out
+	 * of bounds.
+	 */
+	public Roll keepLowest(int number) {
+		return select(number, false);
 	}
 	
 	/**
-	 * Returns the results of the last roll of the dice set. Rolls the dice if
-	 * it had not been done yet.
-	 * @return an unmodifiable map with, for each number of sides, an array of 
-	 * the result of
-	 * the roll of each die.
+	 * Returns a roll with the same dice discarding the highest results from 
+	 * its total, whatever the previous selection of this roll.
+	 * @param number	of dice to discard, between 0 and the number of dice 
+	 * minus one.
+	 * @return a roll keeping the other dice.
+	 * @throws IllegalArgumentException if the number of dice to discard is 
+	 * out of bounds.
 	 */
-	public Map<Integer, int[]> getResults(){
-		if(!rolled) {
-			roll();
+	public Roll dropHighest(int number) {
+		return select(numberOfDice - number, false);
+	}
+	
+	/**
+	 * Returns a roll with the same dice discarding the lowest results from 
+	 * its total, whatever the previous selection of this roll.
+	 * @param number	of dice to discard, between 0 and the number of dice 
+	 * minus one.
+	 * @return a roll keeping the other dice, such as 4d6 dropping the lowest
+	 * one.
+	 * @throws IllegalArgumentException if the number of dice to discard is 
+	 * out of bounds.
+	 */
+	public Roll dropLowest(int number) {
+		return select(numberOfDice - number, true);
+	}
+	
+	/**
+	 * Rolls the dice with the {@link RandomSource} of the current thread.
+	 * @return the result of each die and the sum of the kept ones.
+	 */
+	public RollResult roll(){
+		return roll(RandomSource.current());
+	}
+	
+	/**
+	 * Rolls the dice with the given {@link RandomSource}.
+	 * @param random	source of the results of the dice.
+	 * @return the result of each die and the sum of the kept ones.
+	 */
+	public RollResult roll(RandomSource random){
+		short[] values = new short[numberOfDice];
+		int total = rollDice(random, values);
+		if(!pool.keepsAll()) {
+			total = DiceSelection.current().keptTotal(values, numberOfDice, total, pool.kept, pool.highest);
 		}
-		return Collections.unmodifiableMap(this.dice);
+		return new RollResult(pool, values, total);
 	}
-
 	
 	/**
-	 * Returns the total result of the last roll of the dice set. Rolls the 
-	 * dice if
-	 * it had not been done yet.
-	 * @return the sum of all the dice in the roll.
+	 * Rolls the dice with the {@link RandomSource} of the current thread, 
+	 * when the total matters more than each die.
+	 * @return the sum of all dice, and the result of each die on demand.
+	 * @see #rollScore(RandomSource)
 	 */
-	public int getScore() {
-		if(!rolled) {
-			return roll();
+	public RollResult rollScore() {
+		return rollScore(RandomSource.current());
+	}
+	
+	/**
+	 * Rolls the dice with the given {@link RandomSource}, when the total
+	 * matters more than each die. For large sets of dice, the total is drawn
+	 * directly from the exact distribution of the roll with a single random
+	 * number, and the value of each die is only drawn if the
+	 * {@link RollResult} is asked for it. The results are then consistent
+	 * with the total, and any combination of dice leading to it is equally
+	 * likely.
+	 * Small sets of dice, and sets keeping only some of their dice, are 
+	 * rolled as with {@link #roll(RandomSource)}.
+	 * @param random	source of the results of the dice.
+	 * @return the sum of all dice, and the result of each die on demand.
+	 */
+	public RollResult rollScore(RandomSource random) {
+		if(numberOfDice <= SCORE_SAMPLING_THRESHOLD || !pool.keepsAll()) {
+			return roll(random);
 		}
-		return computeScore();
+		int score = getDistribution().sample(random);
+		return new RollResult(pool, score, random.nextLong());
 	}
 	
 	/**
-	 * Seeds the random number generator used to roll the dice.
-	 * @param seed
+	 * Rolls the dice with the {@link RandomSource} of the current thread, 
+	 * when only the total matters. This method does not allocate anything.
+	 * @return the sum of the kept dice.
+	 * @see #rollTotal(RandomSource)
 	 */
-	public static void seed(Long seed) {
-		rng = new Random(seed);
+	public int rollTotal() {
+		return rollTotal(RandomSource.current());
+	}
+	
+	/**
+	 * Rolls the dice with the given {@link RandomSource}, when only the total
+	 * matters. This method does not allocate anything. As with
+	 * {@link #rollScore(RandomSource)}, the totals of large sets of dice are
+	 * drawn directly from the distribution of the roll.
+	 * @param random	source of the results of the dice.
+	 * @return the sum of the kept dice.
+	 */
+	public int rollTotal(RandomSource random) {
+		return rollTotal(random, getSampledDistribution());
+	}
+	
+	/**
+	 * Rolls the dice several times and writes the total of each roll in the 
+	 * input array. This method does not allocate anything. As with
+	 * {@link #rollScore()}, the totals of large sets of dice are drawn
+	 * directly from the distribution of the roll.
+	 * @param totals	array to fill.
+	 * @param offset	index of the first total to write in the array.
+	 * @param count		number of independent rolls to make.
+	 * @throws IndexOutOfBoundsException if the array is too small.
+	 */
+	public void rollTotals(int[] totals, int offset, int count) {
+		if(offset < 0 || count < 0 || count > totals.length - offset) {
+			throw new IndexOutOfBoundsException("Cannot write " + count + " totals at index " 
+					+ offset + " of an array of length " + totals.length);
+		}
+		RandomSource random = RandomSource.current();
+		RollDistribution distribution = getSampledDistribution();
+		for(int i = offset; i < offset + count; i++) {
+			totals[i] = rollTotal(random, distribution);
+		}
+	}
+	
+	/**
+	 * Rolls the dice once for each remaining position of the input buffer 
+	 * and writes the total of each roll. This method does not allocate 
+	 * anything.
+	 * @param totals	buffer to fill up to its limit.
+	 */
+	public void rollTotals(IntBuffer totals) {
+		RandomSource random = RandomSource.current();
+		RollDistribution distribution = getSampledDistribution();
+		while(totals.hasRemaining()) {
+			totals.put(rollTotal(random, distribution));
+		}
+	}
+	
+	/**
+	 * Rolls the dice several times and writes the result of each die in the 
+	 * input array: the {@link #getNumberOfDice()} values of the first roll, 
+	 * then those of the second one, etc. Within a roll, the dice are sorted 
+	 * by increasing number of sides. All the dice are written, including 
+	 * those that would be discarded from the total. This method does not 
+	 * allocate anything.
+	 * @param results	array to fill.
+	 * @param offset	index of the first value to write in the array.
+	 * @param count		number of independent rolls to make.
+	 * @throws IndexOutOfBoundsException if the array is too small.
+	 */
+	public void rollDice(int[] results, int offset, int count) {
+		if(offset < 0 || count < 0 || offset > results.length
+				|| numberOfDice != 0 && count > (results.length - offset) / numberOfDice) {
+			throw new IndexOutOfBoundsException("Cannot write " + count + " rolls of " + numberOfDice 
+					+ " dice at index " + offset + " of an array of length " + results.length);
+		}
+		RandomSource random = RandomSource.current();
+		short[] values = DiceSelection.current().values;
+		int index = offset;
+		for(int roll = 0; roll < count; roll++) {
+			rollDice(random, values);
+			for(int i = 0; i < numberOfDice; i++) {
+				results[index++] = values[i];
+			}
+		}
 	}
 	
 	/**
-	 * Computes the total value of the roll.
-	 * @return	the sum of all the dice in the roll.
+	 * Rolls the dice as many times as the remaining space of the input 
+	 * buffer allows and writes the result of each die, in the same order as 
+	 * {@link #rollDice(int[], int, int)}. The positions left after the last 
+	 * complete roll are not written. This method does not allocate anything.
+	 * @param results	buffer to fill.
 	 */
-	private int computeScore() {
-		int result = 0;
-		for(int[] results : dice.values()) {
-			for(int i:results) {
-				result += i;
+	public void rollDice(IntBuffer results) {
+		RandomSource random = RandomSource.current();
+		short[] values = DiceSelection.current().values;
+		while(results.remaining() >= numberOfDice) {
+			rollDice(random, values);
+			for(int i = 0; i < numberOfDice; i++) {
+				results.put(values[i]);
 			}
 		}
-		return result;
+	}
+	
+	/**
+	 * Returns the exact probability distribution of the total of the kept 
+	 * dice. It is computed the first time it is requested for a given set of
+	 * dice and then shared by all the rolls with the same dice, as long as it
+	 * stays in the cache. When only some dice are kept, the cost of the 
+	 * computation grows with the cube of the number of kept dice.
+	 * @return the distribution of {@link RollResult#getScore()}.
+	 * @throws IllegalRollException if only some dice are kept and the 
+	 * computation would need more than 
+	 * {@link RollDistribution#MAX_SELECTION_STATES} states, for instance 
+	 * when keeping 500 of 999d999.
+	 */
+	public RollDistribution getDistribution() {
+		return RollDistribution.of(pool);
+	}
+	
+	/**
+	 * Seeds the random number generator used by the current thread to roll 
+	 * the dice. Each thread has its own generator: once seeded, a thread 
+	 * always rolls the same sequence of results, whatever the other threads 
+	 * do.
+	 * @param seed	of the generator, or null to go back to an unseeded 
+	 * generator.
+	 * @see RandomSource#seed(Long)
+	 */
+	public static void seed(Long seed) {
+		RandomSource.seed(seed);
+	}
+	
+	/**
+	 * Two rolls are equal if they contain the same dice and keep the same 
+	 * results.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return this == other || (other instanceof Roll && pool.equals(((Roll) other).pool));
+	}
+	
+	@Override
+	public int hashCode() {
+		return pool.hashCode();
+	}
+	
+	/**
+	 * @return the dice of the roll, such as "2d4+3d6" or "4d6kh3".
+	 */
+	@Override
+	public String toString() {
+		return pool.toString();
+	}
+	
+	/**
+	 * @param kept		number of dice to keep.
+	 * @param highest	true to keep the highest dice, false to keep the 
+	 * lowest ones.
+	 * @return a roll with the same dice and the given selection.
+	 * @throws IllegalArgumentException if the number of dice to keep is out
+	 * of bounds.
+	 */
+	private Roll select(int kept, boolean highest) {
+		if(kept < 1 || kept > numberOfDice) {
+			throw new IllegalArgumentException("A roll of " + numberOfDice 
+					+ " dice must keep between 1 and " + numberOfDice + " dice, not " + kept);
+		}
+		return new Roll(new DicePool(pool.sides, pool.counts, kept, highest));
+	}
+	
+	/**
+	 * @return the distribution to draw the totals from if the roll is large 
+	 * enough and keeps all its dice, null otherwise. Selecting the kept dice
+	 * only costs a linear pass, whereas their distribution may be expensive.
+	 */
+	private RollDistribution getSampledDistribution() {
+		return numberOfDice > SCORE_SAMPLING_THRESHOLD && pool.keepsAll() ? getDistribution() : null;
+	}
+	
+	/**
+	 * Rolls the dice without storing their results.
+	 * @param random		source of the results of the dice.
+	 * @param distribution	to draw the total from, or null to roll each die.
+	 * @return	the sum of the kept dice in the roll.
+	 */
+	private int rollTotal(RandomSource random, RollDistribution distribution) {
+		if(distribution != null) {
+			return distribution.sample(random);
+		}
+		if(pool.keepsAll()) {
+			return rollDice(random, null);
+		}
+		//The values are needed to select the kept dice
+		DiceSelection selection = DiceSelection.current();
+		int total = rollDice(random, selection.values);
+		return selection.keptTotal(selection.values, numberOfDice, total, pool.kept, pool.highest);
+	}
+	
+	/**
+	 * Rolls each die of the roll, several dice at a time with the 
+	 * {@link DiceSampler}.
+	 * @param random	source of the results of the dice.
+	 * @param values	array to write the value of each die in, sorted by 
+	 * increasing number of sides, or null if only the total matters.
+	 * @return the sum of all the dice in the roll.
+	 */
+	private int rollDice(RandomSource random, short[] values) {
+		int total = 0;
+		int index = 0;
+		for(int type = 0; type < pool.sides.length; type++) {
+			total += DiceSampler.roll(random, pool.sides[type], pool.counts[type], values, index);
+			index += pool.counts[type];
+		}
+		return total;
 	}
 
 }
@@ -0,0 +1,614 @@
+package model.values;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import model.exceptions.IllegalRollException;
+import model.random.RandomSource;
+import service.parameters.ValueParameters;
+
+/**
+ * Exact probability distribution of the total of a {@link Roll}, computed
+ * without sampling.
+ * Small pools of dice are computed by counting the combinations with
+ * integers. Larger pools are computed with a fast Fourier transform, which
+ * is accurate to about 1e-13 for each probability. When only the highest or
+ * lowest dice are kept, the distribution of their total is computed by 
+ * dynamic programming over the value of the last kept die.
+ * Distributions are immutable and kept in a bounded cache shared by all the
+ * rolls with the same dice.
+ * @author TLM
+ */
+public final class RollDistribution {
+	/**
+	 * Largest number of combinations of the dice for which the distribution
+	 * is computed by counting them: up to this value, the counts are exact
+	 * both as longs and as doubles.
+	 */
+	private static final long MAX_EXACT_COMBINATIONS = 1L << 53;
+	/**
+	 * Maximum number of probabilities kept in the cache, which is enough for
+	 * about four distributions of 999d999.
+	 */
+	private static final long MAX_CACHED_PROBABILITIES = 1L << 22;
+	/**
+	 * Maximum number of probabilities in each of the two arrays of states
+	 * used to compute the distribution of a pool keeping only some of its 
+	 * dice, that is 32 MB per array. The number of states is the number of
+	 * kept dice, times this number plus one, times the range of the sum of 
+	 * all kept dice but one: 100d100 keeping 30 dice or 999d999 keeping 16 
+	 * fit, and the largest pools take tens of seconds to compute.
+	 */
+	public static final long MAX_SELECTION_STATES = 1L << 22;
+	/*
+	 * Logarithm of the factorial of each number of dice. CombinatoricsUtils
+	 * computes it in linear time at each call, which made the distributions
+	 * of large pools with discarded dice quadratic.
+	 */
+	private static final double[] LOG_FACTORIALS = new double[ValueParameters.MAX_NUMBER_OF_DICE + 1];
+
+	static {
+		for(int n = 2; n < LOG_FACTORIALS.length; n++) {
+			LOG_FACTORIALS[n] = LOG_FACTORIALS[n - 1] + Math.log(n);
+		}
+	}
+	/*
+	 * The cache is not segmented: each segment would only get a fraction of 
+	 * the maximum weight, which is not enough for the largest distributions.
+	 * Reads do not lock anyway.
+	 */
+	private static final LoadingCache<DicePool, RollDistribution> cache = CacheBuilder.newBuilder()
+			.concurrencyLevel(1)
+			.maximumWeight(MAX_CACHED_PROBABILITIES)
+			.<DicePool, RollDistribution>weigher((pool, distribution) -> distribution.probabilities.length)
+			.build(new CacheLoader<DicePool, RollDistribution>() {
+				@Override
+				public RollDistribution load(DicePool pool) {
+					return new RollDistribution(pool);
+				}
+			});
+
+	private final int minimum;
+	private final int maximum;
+	private final double mean;
+	private final double variance;
+	// Probability of each total, starting with the minimum
+	private final double[] probabilities;
+	// Probability of a total lower than or equal to each total
+	private final double[] cumulative;
+	// Probability of a total greater than or equal to each total
+	private final double[] tail;
+
+	/**
+	 * Returns the distribution of the given pool of dice, from the cache if
+	 * it has already been computed.
+	 * @param pool	of dice to compute the distribution of.
+	 * @return the distribution of the total of the dice.
+	 * @throws IllegalRollException if the pool keeps only some of its dice 
+	 * and needs more than {@link #MAX_SELECTION_STATES} states.
+	 */
+	static RollDistribution of(DicePool pool) {
+		if(!pool.keepsAll()) {
+			long states = selectionStates(pool);
+			if(states > MAX_SELECTION_STATES) {
+				throw new IllegalRollException("The distribution of a roll keeping " + pool.kept 
+						+ " dice needs " + states + " states, more than the maximum of " 
+						+ MAX_SELECTION_STATES);
+			}
+		}
+		return cache.getUnchecked(pool);
+	}
+
+	/**
+	 * @param pool	of dice keeping only some of them.
+	 * @return the number of probabilities in each array of states of 
+	 * {@link #select(DicePool)}.
+	 */
+	private static long selectionStates(DicePool pool) {
+		long kept = pool.kept;
+		long largest = pool.sides[pool.sides.length - 1];
+		return kept * (kept + 1) * ((kept - 1) * largest + 1);
+	}
+
+	/**
+	 * Computes the distribution of the given pool of dice.
+	 * @param pool	of dice to compute the distribution of.
+	 */
+	private RollDistribution(DicePool pool) {
+		minimum = pool.getMinimum();
+		maximum = pool.getMaximum();
+		double mean = 0;
+		double variance = 0;
+		if(pool.keepsAll()) {
+			long combinations = 1;
+			for(int type = 0; type < pool.sides.length; type++) {
+				long sides = pool.sides[type];
+				mean += pool.counts[type] * (sides + 1) / 2.0;
+				variance += pool.counts[type] * (sides * sides - 1) / 12.0;
+				for(int i = 0; i < pool.counts[type] && combinations <= MAX_EXACT_COMBINATIONS; i++) {
+					combinations *= sides;
+				}
+			}
+			if(combinations <= MAX_EXACT_COMBINATIONS) {
+				probabilities = countCombinations(pool, combinations);
+			} else {
+				probabilities = transform(pool);
+			}
+		} else {
+			probabilities = select(pool);
+			//No closed form when some dice are discarded
+			for(int i = 0; i < probabilities.length; i++) {
+				mean += (minimum + i) * probabilities[i];
+			}
+			for(int i = 0; i < probabilities.length; i++) {
+				double deviation = minimum + i - mean;
+				variance += deviation * deviation * probabilities[i];
+			}
+		}
+		this.mean = mean;
+		this.variance = variance;
+		int length = probabilities.length;
+		cumulative = new double[length];
+		tail = new double[length];
+		double sum = 0;
+		for(int i = 0; i < length; i++) {
+			sum += probabilities[i];
+			cumulative[i] = Math.min(sum, 1);
+		}
+		sum = 0;
+		for(int i = length - 1; i >= 0; i--) {
+			sum += probabilities[i];
+			tail[i] = Math.min(sum, 1);
+		}
+	}
+
+	/**
+	 * Computes the probabilities of a small pool by counting, for each
+	 * total, the number of combinations of the dice leading to it.
+	 * @param pool			of dice.
+	 * @param combinations	total number of combinations of the dice.
+	 * @return the probability of each total, starting with the minimum.
+	 */
+	private double[] countCombinations(DicePool pool, long combinations) {
+		// Counts indexed by total, starting from 0 with no dice
+		long[] counts = new long[maximum + 1];
+		long[] next = new long[maximum + 1];
+		counts[0] = 1;
+		int highest = 0;
+		for(int type = 0; type < pool.sides.length; type++) {
+			int sides = pool.sides[type];
+			for(int die = 0; die < pool.counts[type]; die++) {
+				// Sliding window: next[t] = counts[t-sides] + ... + counts[t-1]
+				long window = 0;
+				for(int total = 0; total <= highest + sides; total++) {
+					if(total - 1 >= 0 && total - 1 <= highest) {
+						window += counts[total - 1];
+					}
+					if(total - sides - 1 >= 0) {
+						window -= counts[total - sides - 1];
+					}
+					next[total] = window;
+				}
+				highest += sides;
+				long[] swap = counts;
+				counts = next;
+				next = swap;
+			}
+		}
+		double[] result = new double[maximum - minimum + 1];
+		for(int i = 0; i < result.length; i++) {
+			result[i] = counts[minimum + i] / (double) combinations;
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the probabilities of a large pool with a fast Fourier
+	 * transform: the generating polynomial of each type of dice is
+	 * transformed, raised to the number of dice of this type in the
+	 * frequency domain, multiplied with the other types, and transformed
+	 * back.
+	 * @param pool	of dice.
+	 * @return the probability of each total, starting with the minimum.
+	 */
+	private double[] transform(DicePool pool) {
+		int size = Integer.highestOneBit(maximum) << 1;
+		double[] productReal = new double[size];
+		double[] productImaginary = new double[size];
+		Arrays.fill(productReal, 1);
+		for(int type = 0; type < pool.sides.length; type++) {
+			int sides = pool.sides[type];
+			int count = pool.counts[type];
+			double[][] die = new double[][] {new double[size], new double[size]};
+			for(int value = 1; value <= sides; value++) {
+				die[0][value] = 1.0 / sides;
+			}
+			FastFourierTransformer.transformInPlace(die, DftNormalization.STANDARD, TransformType.FORWARD);
+			for(int i = 0; i < size; i++) {
+				// Raise to the power count in polar form
+				double modulus = Math.pow(Math.hypot(die[0][i], die[1][i]), count);
+				double argument = count * Math.atan2(die[1][i], die[0][i]);
+				double real = modulus * Math.cos(argument);
+				double imaginary = modulus * Math.sin(argument);
+				double productR = productReal[i];
+				productReal[i] = productR * real - productImaginary[i] * imaginary;
+				productImaginary[i] = productR * imaginary + productImaginary[i] * real;
+			}
+		}
+		double[][] product = new double[][] {productReal, productImaginary};
+		FastFourierTransformer.transformInPlace(product, DftNormalization.STANDARD, TransformType.INVERSE);
+		double[] result = new double[maximum - minimum + 1];
+		double sum = 0;
+		for(int i = 0; i < result.length; i++) {
+			// Rounding errors may lead to tiny negative values
+			result[i] = Math.max(productReal[minimum + i], 0);
+			sum += result[i];
+		}
+		for(int i = 0; i < result.length; i++) {
+			result[i] /= sum;
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the probabilities of the total of the kept dice of a pool.
+	 * Each outcome is counted once, for the value of its last kept die: the
+	 * dice strictly better than this threshold are all kept, and the dice
+	 * equal to it complete the selection. For each threshold, the dice are
+	 * added type by type with multinomial weights, tracking the number of 
+	 * better dice, the number of better or equal dice up to the number of 
+	 * kept dice, and the sum of the better dice. The cost grows with the 
+	 * cube of the number of kept dice, but only linearly with the number of 
+	 * discarded ones. The memory grows with the square of the number of kept
+	 * dice times the range of their sum, which is checked against
+	 * {@link #MAX_SELECTION_STATES} beforehand.
+	 * @param pool	of dice keeping only some of them.
+	 * @return the probability of each total, starting with the minimum.
+	 */
+	private double[] select(DicePool pool) {
+		int kept = pool.kept;
+		int largest = pool.sides[pool.sides.length - 1];
+		int sums = (kept - 1) * largest + 1;
+		// Probabilities indexed by number of better dice, of better or equal dice, and sum of better dice
+		double[][][] states = new double[kept][kept + 1][sums];
+		double[][][] next = new double[kept][kept + 1][sums];
+		double[] result = new double[maximum + 1];
+		for(int threshold = 1; threshold <= largest; threshold++) {
+			clear(states);
+			states[0][0][0] = 1;
+			for(int type = 0; type < pool.sides.length; type++) {
+				int sides = pool.sides[type];
+				int count = pool.counts[type];
+				// Values of this type better than the threshold
+				int low = pool.highest ? threshold + 1 : 1;
+				int range = pool.highest ? Math.max(sides - threshold, 0) : Math.min(threshold - 1, sides);
+				int equal = threshold <= sides ? 1 : 0;
+				double[][] weights = multinomialWeights(count, kept, 
+						range / (double) sides, equal / (double) sides, 
+						(sides - range - equal) / (double) sides);
+				double[][] betterSums = uniformSums(weights.length - 1, range);
+				clear(next);
+				for(int better = 0; better < kept; better++) {
+					for(int atLeast = better; atLeast <= kept; atLeast++) {
+						double[] sumsOfBetter = states[better][atLeast];
+						for(int sum = 0; sum < sums; sum++) {
+							double probability = sumsOfBetter[sum];
+							if(probability == 0) {
+								continue;
+							}
+							for(int added = 0; added < weights.length && better + added < kept; added++) {
+								double[] distribution = betterSums[added];
+								int offset = sum + added * low;
+								for(int equals = 0; equals <= kept; equals++) {
+									double weight = probability * weights[added][equals];
+									if(weight == 0) {
+										continue;
+									}
+									double[] target = next[better + added][Math.min(atLeast + added + equals, kept)];
+									for(int i = 0; i < distribution.length; i++) {
+										target[offset + i] += weight * distribution[i];
+									}
+								}
+							}
+						}
+					}
+				}
+				double[][][] swap = states;
+				states = next;
+				next = swap;
+			}
+			for(int better = 0; better < kept; better++) {
+				double[] sumsOfBetter = states[better][kept];
+				for(int sum = 0; sum < sums; sum++) {
+					if(sumsOfBetter[sum] != 0) {
+						result[sum + (kept - better) * threshold] += sumsOfBetter[sum];
+					}
+				}
+			}
+		}
+		double[] probabilities = Arrays.copyOfRange(result, minimum, maximum + 1);
+		double sum = 0;
+		for(double probability : probabilities) {
+			sum += probability;
+		}
+		for(int i = 0; i < probabilities.length; i++) {
+			probabilities[i] /= sum;
+		}
+		return probabilities;
+	}
+
+	/**
+	 * Computes the probability that, among identical dice, a given number of
+	 * them are better than a threshold and another given number are equal 
+	 * to it, the other ones being worse.
+	 * @param count		number of dice.
+	 * @param kept		number of kept dice: only fewer better dice are 
+	 * relevant, and the equal dice are merged above this number.
+	 * @param better	probability for a die to be better than the threshold.
+	 * @param equal		probability for a die to be equal to the threshold.
+	 * @param worse		probability for a die to be worse than the threshold.
+	 * @return the probabilities indexed by number of better dice and number 
+	 * of equal dice.
+	 */
+	private static double[][] multinomialWeights(int count, int kept, double better, double equal, double worse) {
+		//No die can be better than the threshold if it has no value above it
+		double[][] result = new double[better == 0 ? 1 : Math.min(count, kept - 1) + 1][kept + 1];
+		for(int b = 0; b < result.length; b++) {
+			for(int e = 0; e <= count - b; e++) {
+				double logarithm = LOG_FACTORIALS[count] - LOG_FACTORIALS[b]
+						- LOG_FACTORIALS[e] - LOG_FACTORIALS[count - b - e]
+						+ logPower(better, b) + logPower(equal, e) + logPower(worse, count - b - e);
+				result[b][Math.min(e, kept)] += Math.exp(logarithm);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param probability	between 0 and 1.
+	 * @param exponent		non-negative.
+	 * @return the logarithm of the probability raised to the exponent, 
+	 * knowing that 0 raised to 0 is 1.
+	 */
+	private static double logPower(double probability, int exponent) {
+		return exponent == 0 ? 0 : exponent * Math.log(probability);
+	}
+
+	/**
+	 * Computes the distributions of the sum of up to a given number of 
+	 * uniform dice, each one rolling between 0 and range - 1.
+	 * @param number	maximum number of dice.
+	 * @param range		number of values of each die.
+	 * @return the probability of each sum, indexed by number of dice.
+	 */
+	private static double[][] uniformSums(int number, int range) {
+		double[][] result = new double[number + 1][];
+		result[0] = new double[] {1};
+		for(int dice = 1; dice <= number; dice++) {
+			double[] previous = result[dice - 1];
+			double[] current = new double[previous.length + range - 1];
+			// Sliding window over the previous distribution
+			double window = 0;
+			for(int sum = 0; sum < current.length; sum++) {
+				if(sum < previous.length) {
+					window += previous[sum];
+				}
+				if(sum - range >= 0) {
+					window -= previous[sum - range];
+				}
+				current[sum] = window / range;
+			}
+			result[dice] = current;
+		}
+		return result;
+	}
+
+	/**
+	 * Sets all the probabilities to zero.
+	 * @param states	probabilities to reset.
+	 */
+	private static void clear(double[][][] states) {
+		for(double[][] plane : states) {
+			for(double[] line : plane) {
+				Arrays.fill(line, 0);
+			}
+		}
+	}
+
+	/**
+	 * @return the lowest total the dice can roll.
+	 */
+	public int getMinimum() {
+		return minimum;
+	}
+
+	/**
+	 * @return the highest total the dice can roll.
+	 */
+	public int getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * @return the expected value of the total of the dice.
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * @return the variance of the total of the dice.
+	 */
+	public double getVariance() {
+		return variance;
+	}
+
+	/**
+	 * @param total	of the dice.
+	 * @return the probability that the dice roll exactly this total.
+	 */
+	public double getProbability(int total) {
+		if(total < minimum || total > maximum) {
+			return 0;
+		}
+		return probabilities[total - minimum];
+	}
+
+	/**
+	 * @param total	of the dice.
+	 * @return the probability that the dice roll this total or less.
+	 */
+	public double getProbabilityAtMost(int total) {
+		if(total < minimum) {
+			return 0;
+		}
+		if(total >= maximum) {
+			return 1;
+		}
+		return cumulative[total - minimum];
+	}
+
+	/**
+	 * @param total	of the dice.
+	 * @return the probability that the dice roll this total or more.
+	 */
+	public double getProbabilityAtLeast(int total) {
+		if(total <= minimum) {
+			return 1;
+		}
+		if(total > maximum) {
+			return 0;
+		}
+		return tail[total - minimum];
+	}
+
+	/**
+	 * Returns the smallest total such that the dice roll this total or less
+	 * with at least the given probability.
+	 * @param probability	between 0 and 1.
+	 * @return a total between the minimum and the maximum of the dice.
+	 * @throws IllegalArgumentException if the probability is not between 0
+	 * and 1.
+	 */
+	public int getPercentile(double probability) {
+		if(!(probability >= 0 && probability <= 1)) {
+			throw new IllegalArgumentException("A probability must be between 0 and 1, received "
+					+ probability);
+		}
+		int low = 0;
+		int high = cumulative.length - 1;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(cumulative[middle] >= probability) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return minimum + low;
+	}
+	
+	/**
+	 * Draws a total from the distribution by inverting the cumulative 
+	 * probabilities: this costs one random number whatever the number of 
+	 * dice.
+	 * @param random	source of the random number.
+	 * @return a total between the minimum and the maximum of the dice.
+	 */
+	public int sample(RandomSource random) {
+		double probability = random.nextDouble();
+		int low = 0;
+		int high = cumulative.length - 1;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(cumulative[middle] > probability) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return minimum + low;
+	}
+	
+	/**
+	 * Draws the value of each die of a pool, knowing the total they rolled. 
+	 * All the combinations leading to the total are equally likely, as they 
+	 * are when rolling the dice one by one. The pool is split recursively, 
+	 * and the total of each part is drawn from the product of the 
+	 * distributions of both parts.
+	 * <p>
+	 * This does not hold in the extreme tails of large pools, such as 999d999
+	 * totalling less than 1500: the probabilities of both parts are too small
+	 * to be represented, so the total is split between them in proportion to
+	 * their means rather than at random. The dice are then consistent with 
+	 * the total, but not uniformly drawn among its combinations.
+	 * @param pool			of dice.
+	 * @param total			rolled by the dice, between the minimum and the 
+	 * maximum of the pool.
+	 * @param random		source of the random numbers.
+	 * @param destination	array to fill with the value of each die, sorted 
+	 * by increasing number of sides.
+	 */
+	static void sampleDice(DicePool pool, int total, RandomSource random, short[] destination) {
+		int[] positions = new int[pool.sides.length];
+		for(int type = 1; type < positions.length; type++) {
+			positions[type] = positions[type - 1] + pool.counts[type - 1];
+		}
+		sampleDice(pool, total, random, destination, 0, positions);
+	}
+	
+	/**
+	 * Recursive implementation of 
+	 * {@link #sampleDice(DicePool, int, RandomSource, short[])}.
+	 * @param pool			part of the original pool to fill.
+	 * @param total			rolled by the dice of this part.
+	 * @param random		source of the random numbers.
+	 * @param destination	values of the dice of the original pool.
+	 * @param firstType		index in the original pool of the first type of
+	 * dice of this part.
+	 * @param positions		index in destination of the next value to write 
+	 * for each type of dice of the original pool.
+	 */
+	private static void sampleDice(DicePool pool, int total, RandomSource random, 
+			short[] destination, int firstType, int[] positions) {
+		DicePool[] parts = pool.split();
+		if(parts == null) {
+			destination[positions[firstType]++] = (short) total;
+			return;
+		}
+		RollDistribution first = of(parts[0]);
+		RollDistribution second = of(parts[1]);
+		int low = Math.max(first.minimum, total - second.maximum);
+		int high = Math.min(first.maximum, total - second.minimum);
+		double sum = 0;
+		for(int part = low; part <= high; part++) {
+			sum += first.getProbability(part) * second.getProbability(total - part);
+		}
+		int part;
+		if(sum > 0) {
+			double threshold = random.nextDouble() * sum;
+			part = low;
+			for(double cumulative = 0; part < high; part++) {
+				cumulative += first.getProbability(part) * second.getProbability(total - part);
+				if(cumulative > threshold) {
+					break;
+				}
+			}
+		} else {
+			//The probabilities of the parts are too small to be represented: share the total evenly
+			part = (int) Math.round(total * first.mean / (first.mean + second.mean));
+			part = Math.max(low, Math.min(high, part));
+		}
+		sampleDice(parts[0], part, random, destination, firstType, positions);
+		//The second part starts with the next type unless the pool was split in halves
+		int secondType = parts[1].sides[0] == parts[0].sides[0] ? firstType : firstType + 1;
+		sampleDice(parts[1], total - part, random, destination, secondType, positions);
+	}
+}
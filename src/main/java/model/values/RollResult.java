@@ -0,0 +1,169 @@
+package model.values;
+
+import java.util.Arrays;
+
+import model.random.RandomSource;
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+/**
+ * Immutable result of a {@link Roll}: the value of each die and the sum of 
+ * the kept ones.
+ * The values are stored in a single primitive array, sorted by increasing
+ * number of sides. A {@link RollResult} may be read from any thread without
+ * locks.
+ * @author TLM
+ */
+public final class RollResult {
+	// Dice that were rolled
+	private final DicePool pool;
+	private final int score;
+	/*
+	 * Value of each die, or null until they are drawn from the score with a
+	 * generator seeded with seed. Volatile so that a thread never sees a
+	 * partially filled array.
+	 */
+	private volatile short[] values;
+	private final long seed;
+	// Indices of the kept dice, or null until they are first requested
+	private volatile long[] kept;
+
+	/**
+	 * Initialises a {@link RollResult} whose dice have all been rolled.
+	 * @param pool		of dice that were rolled.
+	 * @param values	value of each die, sorted by increasing number of
+	 * sides. The array is not copied and must not be modified afterwards.
+	 * @param score		sum of the kept values.
+	 */
+	RollResult(DicePool pool, short[] values, int score) {
+		this.pool = pool;
+		this.values = values;
+		this.score = score;
+		this.seed = 0;
+	}
+
+	/**
+	 * Initialises a {@link RollResult} whose total has been drawn directly,
+	 * the value of each die being drawn on demand.
+	 * @param pool	of dice that were rolled.
+	 * @param score	total of the dice.
+	 * @param seed	of the generator used to draw the value of each die.
+	 */
+	RollResult(DicePool pool, int score, long seed) {
+		this.pool = pool;
+		this.values = null;
+		this.score = score;
+		this.seed = seed;
+	}
+
+	/**
+	 * @return the sum of the kept dice in the roll.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the total number of dice in the roll.
+	 */
+	public int getNumberOfDice() {
+		return pool.getNumberOfDice();
+	}
+
+	/**
+	 * @return the number of dice added to the score.
+	 */
+	public int getNumberOfKeptDice() {
+		return pool.kept;
+	}
+
+	/**
+	 * Returns whether a die is added to the score. When several dice have the
+	 * value of the last kept die, the first ones are kept.
+	 * @param index	of the die, between 0 and {@link #getNumberOfDice()}.
+	 * @return true if the die is kept.
+	 */
+	public boolean isKept(int index) {
+		if(index < 0 || index >= pool.getNumberOfDice()) {
+			throw new IndexOutOfBoundsException("No die at index " + index);
+		}
+		if(pool.keepsAll()) {
+			return true;
+		}
+		long[] result = kept;
+		if(result == null) {
+			result = DiceSelection.current().keptMask(getValues(), pool.kept, pool.highest);
+			kept = result;
+		}
+		return (result[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Returns the result of one die. The dice are sorted by increasing number
+	 * of sides.
+	 * @param index	of the die, between 0 and {@link #getNumberOfDice()}.
+	 * @return the value rolled by this die.
+	 */
+	public int getValue(int index) {
+		return getValues()[index];
+	}
+
+	/**
+	 * Returns the results of the dice with the given number of sides.
+	 * @param sides	number of sides of the dice.
+	 * @return a new array with the value of each die with this number of
+	 * sides, kept or not, empty if there is none.
+	 */
+	public int[] getResults(int sides) {
+		short[] values = getValues();
+		int offset = 0;
+		for(int type = 0; type < pool.sides.length; type++) {
+			if(pool.sides[type] == sides) {
+				int[] result = new int[pool.counts[type]];
+				for(int i = 0; i < result.length; i++) {
+					result[i] = values[offset + i];
+				}
+				return result;
+			}
+			offset += pool.counts[type];
+		}
+		return new int[0];
+	}
+
+	/**
+	 * Writes the result of each die in the input array, sorted by increasing
+	 * number of sides.
+	 * @param destination	array to fill.
+	 * @param offset		index of the first value to write in the array.
+	 * @throws IndexOutOfBoundsException if the array is too small.
+	 */
+	public void getResults(int[] destination, int offset) {
+		short[] values = getValues();
+		if(offset < 0 || offset + values.length > destination.length) {
+			throw new IndexOutOfBoundsException("Cannot write " + values.length + " dice at index "
+					+ offset + " of an array of length " + destination.length);
+		}
+		for(int i = 0; i < values.length; i++) {
+			destination[offset + i] = values[i];
+		}
+	}
+
+	@Override
+	public String toString() {
+		return pool + "=" + score + Arrays.toString(getValues());
+	}
+
+	/**
+	 * @return the value of each die, drawing them if necessary.
+	 */
+	private short[] getValues() {
+		short[] result = values;
+		if(result == null) {
+			//Drawing twice from the same seed gives the same values
+			result = new short[pool.getNumberOfDice()];
+			RollDistribution.sampleDice(pool, score,
+					RandomSource.create(RandomAlgorithm.SPLITTABLE, seed), result);
+			values = result;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,97 @@
+package model.values;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.random.RandomSource;
+
+/**
+ * Sequence of rolls whose results can be generated again at any time, for
+ * instance to check or replay a game. The rolls of a session are numbered
+ * from 0, and the roll with index k always uses the k-th stream of random
+ * numbers of the session, given by {@link RandomSource#stream(long, long)}.
+ * Regenerating a roll thus costs the same as rolling it the first time,
+ * whatever its index, and does not depend on the other rolls.
+ * <p>
+ * A session is thread-safe: {@link #roll(Roll)} hands out the indices
+ * atomically. Workers that split a batch of rolls between themselves can
+ * also call {@link #replay(Roll, long)} on the indices they are given, and
+ * obtain the same results as a sequential run. Sessions are independent
+ * from each other and from {@link Roll#seed(Long)}.
+ * @author TLM
+ */
+public final class RollSession {
+	private final long session;
+	// Index of the next roll
+	private final AtomicLong next;
+
+	/**
+	 * Initialises a session whose next roll has index 0.
+	 * @param session	identifier of the session, which is the seed of all
+	 * its rolls.
+	 */
+	public RollSession(long session) {
+		this(session, 0);
+	}
+
+	/**
+	 * Initialises a session resuming after a given number of rolls.
+	 * @param session	identifier of the session, which is the seed of all
+	 * its rolls.
+	 * @param rolls		number of rolls already made in the session.
+	 * @throws IllegalArgumentException if the number of rolls is negative.
+	 */
+	public RollSession(long session, long rolls) {
+		if(rolls < 0) {
+			throw new IllegalArgumentException("A session cannot have a negative number of rolls: " + rolls);
+		}
+		this.session = session;
+		this.next = new AtomicLong(rolls);
+	}
+
+	/**
+	 * @return the identifier of the session.
+	 */
+	public long getSession() {
+		return session;
+	}
+
+	/**
+	 * @return the number of rolls made with {@link #roll(Roll)}, which is
+	 * also the index of the next one.
+	 */
+	public long getNumberOfRolls() {
+		return next.get();
+	}
+
+	/**
+	 * Rolls the dice with the next index of the session.
+	 * @param roll	dice to roll.
+	 * @return the result of each die and the sum of the kept ones.
+	 */
+	public RollResult roll(Roll roll) {
+		return replay(roll, next.getAndIncrement());
+	}
+
+	/**
+	 * Rolls the dice with the given index of the session, without changing
+	 * the index of the next roll. Rolling the same dice with the same index
+	 * always gives the same results.
+	 * @param roll	dice to roll.
+	 * @param index	of the roll in the session.
+	 * @return the result of each die and the sum of the kept ones.
+	 */
+	public RollResult replay(Roll roll, long index) {
+		return roll.roll(getSource(index));
+	}
+
+	/**
+	 * Returns the random numbers used by the roll with the given index, for
+	 * methods of {@link Roll} other than {@link Roll#roll(RandomSource)}.
+	 * @param index	of the roll in the session.
+	 * @return a new {@link RandomSource} at the start of the stream of this
+	 * roll.
+	 */
+	public RandomSource getSource(long index) {
+		return RandomSource.stream(session, index);
+	}
+}
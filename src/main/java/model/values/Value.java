@@ -1,11 +1,23 @@
 package model.values;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Container for the base numerical unit of measurement. A Value contains a 
- * base value that may be modified by different instances of {@link Bonus}.
+ * base value that may be modified by different instances of {@link Bonus},
+ * following the stacking rules of their {@link Bonus.Type}.
+ * <p>
+ * The total is computed again each time a bonus is added or removed, so 
+ * that {@link #getValue()} only reads a field however many bonuses apply. 
+ * A Value with bonuses is not thread-safe.
  */
 public class Value {
-    private int value;
+    private final int value;
+    // Bonuses in the order they were added, null while there is none
+    private List<Bonus> bonuses;
+    private int total;
     
     /**
      * Initialises a simple Value object.
@@ -13,12 +25,103 @@ public class Value {
      */
     public Value(int value) {
     	this.value = value;
+    	this.total = value;
+    }
+    
+    /**
+     * Initialises a Value object with the same base value and bonuses as 
+     * another one.
+     * @param other	Value to copy.
+     */
+    public Value(Value other) {
+    	this.value = other.value;
+    	this.total = other.total;
+    	if(other.bonuses != null) {
+    		this.bonuses = new ArrayList<Bonus>(other.bonuses);
+    	}
     }
     
     /**
      * @return the total value of the object.
      */
     public int getValue() {
+    	return this.total;
+    }
+    
+    /**
+     * @return the value of the object without the bonuses.
+     */
+    public int getBaseValue() {
     	return this.value;
     }
+    
+    /**
+     * Applies a bonus to the value.
+     * @param bonus	to apply.
+     * @throws IllegalArgumentException if the bonus is null.
+     */
+    public void addBonus(Bonus bonus) {
+    	if(bonus == null) {
+    		throw new IllegalArgumentException("Cannot add a null bonus");
+    	}
+    	if(bonuses == null) {
+    		bonuses = new ArrayList<Bonus>();
+    	}
+    	bonuses.add(bonus);
+    	total = computeTotal();
+    }
+    
+    /**
+     * Removes a bonus previously applied to the value.
+     * @param bonus	instance to remove.
+     * @return true if the bonus was applied to the value.
+     */
+    public boolean removeBonus(Bonus bonus) {
+    	if(bonuses == null) {
+    		return false;
+    	}
+    	for(int i = 0; i < bonuses.size(); i++) {
+    		if(bonuses.get(i) == bonus) {
+    			bonuses.remove(i);
+    			total = computeTotal();
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+    
+    /**
+     * @return an unmodifiable view of the bonuses applied to the value, in 
+     * the order they were added, including those which do not stack.
+     */
+    public List<Bonus> getBonuses() {
+    	return bonuses == null ? Collections.<Bonus>emptyList() : Collections.unmodifiableList(bonuses);
+    }
+    
+    /**
+     * @return the base value plus the bonuses that apply: all the penalties
+     * and stacking bonuses, and the highest bonus of each other type.
+     */
+    private int computeTotal() {
+    	int result = value;
+    	// Highest bonus of each type that does not stack
+    	int[] highest = null;
+    	for(Bonus bonus : bonuses) {
+    		if(bonus.isPenalty() || bonus.getType().stacks()) {
+    			result += bonus.getValue();
+    		} else {
+    			if(highest == null) {
+    				highest = new int[Bonus.Type.values().length];
+    			}
+    			int type = bonus.getType().ordinal();
+    			highest[type] = Math.max(highest[type], bonus.getValue());
+    		}
+    	}
+    	if(highest != null) {
+    		for(int bonus : highest) {
+    			result += bonus;
+    		}
+    	}
+    	return result;
+    }
 }
@@ -25,4 +25,38 @@ public final class ValueParameters {
 	public static final int MAX_NUMBER_OF_DICE = MAX_INT_VALUE;
 	/**Maximum valid number of sides for a dice. Must be at least 100.*/
 	public static final int MAX_NUMBER_OF_SIDES = MAX_INT_VALUE;
+	
+	/**
+	 * The different algorithms available to generate random numbers.
+	 * None of them is suitable for cryptographic use.
+	 */
+	public static enum RandomAlgorithm{
+		/**
+		 * Linear congruential generator of {@link java.util.Random}, kept for
+		 * compatibility: slow and statistically weak.
+		 */
+		JDK,
+		/**
+		 * Generator of {@link java.util.SplittableRandom}. This is the 
+		 * default algorithm.
+		 */
+		SPLITTABLE,
+		/**
+		 * xoshiro256** generator, fast with a period of 2^256 - 1.
+		 */
+		XOSHIRO,
+		/**
+		 * WELL19937c generator from commons-math3.
+		 */
+		WELL19937C,
+		/**
+		 * Mersenne Twister generator from commons-math3.
+		 */
+		MERSENNE_TWISTER,
+		/**
+		 * Philox4x32-10 counter-based generator, whose numbers can be 
+		 * generated in any order and split in independent streams.
+		 */
+		PHILOX;
+	}
 }
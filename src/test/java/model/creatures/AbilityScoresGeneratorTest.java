@@ -0,0 +1,205 @@
+package model.creatures;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import model.exceptions.IllegalAbilityScoreException;
+
+import model.random.RandomSource;
+import model.values.Roll;
+import model.values.RollDistribution;
+import service.parameters.CreatureParameters.AbilityGenerationMethod;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+public class AbilityScoresGeneratorTest {
+	static long seed = (long) 2;
+
+	/**
+	 * Checks that the STANDARD method defines every ability with a score 
+	 * that three dice can roll, following the distribution of 4d6 keeping 
+	 * the three highest dice.
+	 */
+	@Test
+	public void testStandard() {
+		AbilityScoresGenerator generator = AbilityScoresGenerator.of(AbilityGenerationMethod.STANDARD);
+		assertSame("Generators are shared", generator, AbilityScoresGenerator.of(AbilityGenerationMethod.STANDARD));
+		RollDistribution distribution = new Roll(3 + AbilityGenerationMethod.STANDARD.getParameter(), 6)
+				.keepHighest(3).getDistribution();
+		RandomSource random = RandomSource.create(RandomAlgorithm.SPLITTABLE, seed);
+		int generated = 20000;
+		double mean = 0;
+		for(int i = 0; i < generated; i++) {
+			AbilityScores scores = generator.generate(random);
+			for(AbilityName ability : AbilityName.values()) {
+				int score = scores.getScore(ability).getValue();
+				assertTrue("STANDARD scores are between 3 and 18, obtained " + score, score >= 3 && score <= 18);
+				mean += score / (6.0 * generated);
+			}
+		}
+		//The standard deviation of the mean is about 0.008
+		assertEquals("STANDARD scores must follow the distribution of the kept dice", 
+				distribution.getMean(), mean, 0.05);
+	}
+
+	/**
+	 * Checks that two generations with the same seed are equal.
+	 */
+	@Test
+	public void testSeed() {
+		AbilityScoresGenerator generator = AbilityScoresGenerator.of(AbilityGenerationMethod.STANDARD);
+		AbilityScores first = generator.generate(RandomSource.create(RandomAlgorithm.XOSHIRO, seed));
+		AbilityScores second = generator.generate(RandomSource.create(RandomAlgorithm.XOSHIRO, seed));
+		for(AbilityName ability : AbilityName.values()) {
+			assertEquals("Generating with the same seed must give the same scores", 
+					first.getScore(ability).getValue(), second.getScore(ability).getValue());
+		}
+	}
+
+	/**
+	 * Checks that the DICE_POOL method spreads the extra dice as asked, and
+	 * rejects invalid assignments.
+	 */
+	@Test
+	public void testDicePool() {
+		int pool = AbilityGenerationMethod.DICE_POOL.getParameter();
+		Map<AbilityName, Integer> extraDice = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		extraDice.put(AbilityName.STRENGTH, pool);
+		AbilityScoresGenerator generator = AbilityScoresGenerator.dicePool(extraDice);
+		double strength = new Roll(3 + pool, 6).keepHighest(3).getDistribution().getMean();
+		RandomSource random = RandomSource.create(RandomAlgorithm.SPLITTABLE, seed);
+		int generated = 20000;
+		double[] means = new double[AbilityName.values().length];
+		for(int i = 0; i < generated; i++) {
+			AbilityScores scores = generator.generate(random);
+			for(AbilityName ability : AbilityName.values()) {
+				int score = scores.getScore(ability).getValue();
+				assertTrue("DICE_POOL scores are between 3 and 18, obtained " + score, score >= 3 && score <= 18);
+				means[ability.ordinal()] += score / (double) generated;
+			}
+		}
+		for(AbilityName ability : AbilityName.values()) {
+			assertEquals("Each ability must follow the distribution of its dice", 
+					ability == AbilityName.STRENGTH ? strength : 10.5, means[ability.ordinal()], 0.1);
+		}
+		//The default generator gives one extra die to each ability
+		AbilityScores scores = AbilityScoresGenerator.of(AbilityGenerationMethod.DICE_POOL)
+				.generate(RandomSource.create(RandomAlgorithm.XOSHIRO, seed));
+		for(AbilityName ability : AbilityName.values()) {
+			assertNotNull(scores.getScore(ability));
+		}
+		extraDice.put(AbilityName.DEXTERITY, 1);
+		try {
+			AbilityScoresGenerator.dicePool(extraDice);
+			fail("The extra dice must add up to the parameter of the method");
+		} catch (IllegalArgumentException e) {}
+		extraDice.put(AbilityName.DEXTERITY, -1);
+		extraDice.put(AbilityName.STRENGTH, pool + 1);
+		try {
+			AbilityScoresGenerator.dicePool(extraDice);
+			fail("The number of extra dice cannot be negative");
+		} catch (IllegalArgumentException e) {}
+		try {
+			AbilityScoresGenerator.dicePool(null);
+			fail("The assignment cannot be null");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	/**
+	 * Checks that the DIRECT_ASSIGNMENT method always gives the assigned 
+	 * scores.
+	 */
+	@Test
+	public void testDirectAssignment() {
+		Map<AbilityName, Integer> values = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		for(AbilityName ability : AbilityName.values()) {
+			values.put(ability, 8 + ability.ordinal());
+		}
+		AbilityScoresGenerator generator = AbilityScoresGenerator.directAssignment(values);
+		values.put(AbilityName.STRENGTH, 18);
+		for(AbilityScores scores : generator.generate(seed, 10)) {
+			for(AbilityName ability : AbilityName.values()) {
+				assertEquals("The generator must copy the assigned scores", 
+						8 + ability.ordinal(), scores.getScore(ability).getValue());
+			}
+		}
+		AbilityScores scores = AbilityScoresGenerator.of(AbilityGenerationMethod.DIRECT_ASSIGNMENT).generate();
+		for(AbilityName ability : AbilityName.values()) {
+			assertEquals(10, scores.getScore(ability).getValue());
+		}
+		values.put(AbilityName.STRENGTH, -1);
+		try {
+			AbilityScoresGenerator.directAssignment(values);
+			fail("The assigned scores must be valid");
+		} catch (IllegalAbilityScoreException e) {}
+	}
+
+	/**
+	 * Checks that the generation of many scores gives the same results 
+	 * sequentially, in parallel and with any number of threads.
+	 */
+	@Test
+	public void testStream() throws Exception {
+		int count = 5000;
+		for(AbilityGenerationMethod method : AbilityGenerationMethod.values()) {
+			AbilityScoresGenerator generator = AbilityScoresGenerator.of(method);
+			List<String> expected = generator.stream(seed, count).map(AbilityScoresGeneratorTest::toString)
+					.collect(Collectors.toList());
+			assertEquals(count, expected.size());
+			assertEquals("The element i must use the stream i of the seed", expected.get(42), 
+					toString(generator.generate(RandomSource.stream(seed, 42))));
+			AbilityScores[] array = generator.generate(seed, count);
+			for(int i = 0; i < count; i++) {
+				assertEquals("Parallel generation must match the sequential one", expected.get(i), 
+						toString(array[i]));
+			}
+			for(int threads : new int[] {1, 3}) {
+				ForkJoinPool pool = new ForkJoinPool(threads);
+				try {
+					List<String> actual = pool.submit(() -> generator.stream(seed, count).parallel()
+							.map(AbilityScoresGeneratorTest::toString).collect(Collectors.toList())).get();
+					assertEquals("The results must not depend on the number of threads", expected, actual);
+				} finally {
+					pool.shutdown();
+				}
+			}
+		}
+		try {
+			AbilityScoresGenerator.of(AbilityGenerationMethod.STANDARD).stream(seed, -1);
+			fail("Cannot generate a negative number of scores");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	/**
+	 * Checks that a generator is available for every method.
+	 */
+	@Test
+	public void testOf() {
+		try {
+			AbilityScoresGenerator.of(null);
+			fail("A generator needs a method");
+		} catch (IllegalArgumentException e) {}
+		for(AbilityGenerationMethod method : AbilityGenerationMethod.values()) {
+			assertNotNull(AbilityScoresGenerator.of(method));
+		}
+	}
+
+	/**
+	 * @param scores	to describe.
+	 * @return the value of each ability.
+	 */
+	private static String toString(AbilityScores scores) {
+		StringBuilder result = new StringBuilder();
+		for(AbilityName ability : AbilityName.values()) {
+			result.append(scores.getScore(ability).getValue()).append(' ');
+		}
+		return result.toString();
+	}
+}
@@ -14,6 +14,7 @@ import model.creatures.ROAbilityScores;
 import model.creatures.RWAbilityScores;
 import model.exceptions.IllegalAbilityScoreException;
 import model.values.AbilityScore;
+import model.values.Bonus;
 import service.parameters.CreatureParameters.AbilityName;
 import service.parameters.ValueParameters;
 
@@ -240,6 +241,23 @@ public class AbilityScoresTest {
 		roTest = ((RWAbilityScores) rwTest).getROAbilityScores();
 		testDeepCopyConstructorHelper(rwTest);
 		testDeepCopyConstructorHelper(roTest);
+		//The bonuses are copied with the scores
+		AbilityScore wisdom = rwTest.getScore(AbilityName.WISDOM);
+		int base = wisdom.getValue();
+		((RWAbilityScores) rwTest).addBonus(AbilityName.WISDOM, new Bonus(4, Bonus.Type.ENHANCEMENT));
+		RWAbilityScores copy = new RWAbilityScores(rwTest);
+		assertEquals("The copy must keep the bonuses", base + 4, 
+				copy.getScore(AbilityName.WISDOM).getValue());
+		copy.addBonus(AbilityName.WISDOM, new Bonus(2, Bonus.Type.UNTYPED));
+		assertEquals("The copy must not share its bonuses", base + 4, wisdom.getValue());
+		assertFalse(copy.removeBonus(AbilityName.WISDOM, new Bonus(2, Bonus.Type.UNTYPED)));
+		assertFalse(copy.removeBonus(AbilityName.STRENGTH, new Bonus(2, Bonus.Type.UNTYPED)));
+		try {
+			copy.addBonus(AbilityName.STRENGTH, new Bonus(2, Bonus.Type.UNTYPED));
+			fail("An undefined ability cannot receive a bonus");
+		} catch (IllegalArgumentException e) {
+			assertTrue("The error must name the ability", e.getMessage().contains(AbilityName.STRENGTH.toString()));
+		}
 	}
 	
 	/**
@@ -272,6 +290,43 @@ public class AbilityScoresTest {
 		oneWayChecker.accept(test);
 	}
 	
+	/**
+	 * Checks that {@link AbilityScores#forEach(AbilityScores.AbilityVisitor)},
+	 * {@link AbilityScores#getScores(int[])} and 
+	 * {@link AbilityScores#getModifiers(int[])} are consistent with the 
+	 * other accessors, for every implementation.
+	 */
+	@Test
+	public void testBulkAccessors() {
+		EnumMap<AbilityName, Integer> abilities = basicAbilityScores();
+		abilities.remove(AbilityName.STRENGTH);
+		RWAbilityScores rwTest = new RWAbilityScores(abilities);
+		for(AbilityScores test : new AbilityScores[] {rwTest, rwTest.getROAbilityScores(), 
+				new PackedAbilityScores(abilities)}) {
+			int[] scores = new int[AbilityScores.NUMBER_OF_ABILITIES];
+			int[] modifiers = new int[AbilityScores.NUMBER_OF_ABILITIES + 1];
+			test.getScores(scores);
+			test.getModifiers(modifiers);
+			EnumSet<AbilityName> visited = EnumSet.noneOf(AbilityName.class);
+			test.forEach((ability, score, modifier) -> {
+				assertTrue("The visitor must see each ability once", visited.add(ability));
+				assertEquals(test.getScore(ability).getValue(), score);
+				assertEquals(test.getModifier(ability), modifier);
+			});
+			for(AbilityName ability : AbilityName.values()) {
+				AbilityScore score = test.getScore(ability);
+				assertEquals("Only the defined abilities are visited", score != null, visited.contains(ability));
+				assertEquals(score == null ? AbilityScores.UNDEFINED_SCORE : score.getValue(), 
+						scores[ability.ordinal()]);
+				assertEquals(test.getModifier(ability), modifiers[ability.ordinal()]);
+			}
+			try {
+				test.getModifiers(new int[AbilityScores.NUMBER_OF_ABILITIES - 1]);
+				fail("The output must have room for every ability");
+			} catch (IllegalArgumentException e) {}
+		}
+	}
+	
 	/**
 	 * @return a map with a different value for each ability score, starting 
 	 * at 10.
@@ -0,0 +1,85 @@
+package model.creatures;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import model.exceptions.IllegalAbilityScoreException;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
+
+public class AbilityScoresValidationTest {
+
+	/**
+	 * Checks that valid inputs, with or without the optional abilities, 
+	 * have no problem.
+	 */
+	@Test
+	public void testValid() {
+		EnumMap<AbilityName, Integer> abilities = AbilityScoresTest.basicAbilityScores();
+		assertTrue(AbilityScoresValidation.isValid(AbilityScoresValidation.validate(abilities)));
+		abilities.remove(AbilityName.STRENGTH);
+		abilities.put(AbilityName.WISDOM, ValueParameters.MAX_ABILITY_SCORE);
+		abilities.put(AbilityName.CHARISMA, ValueParameters.MIN_ABILITY_SCORE);
+		int result = AbilityScoresValidation.validate(abilities);
+		assertEquals(AbilityScoresValidation.VALID, result);
+		assertNull("Valid inputs have no exception", AbilityScoresValidation.toException(result, abilities));
+	}
+
+	/**
+	 * Checks that every problem of an input is reported at once, for each 
+	 * ability.
+	 */
+	@Test
+	public void testProblems() {
+		assertEquals(AbilityScoresValidation.NULL_INPUT, AbilityScoresValidation.validate(null));
+		Map<AbilityName, Integer> abilities = new HashMap<AbilityName, Integer>();
+		abilities.put(AbilityName.STRENGTH, ValueParameters.MAX_ABILITY_SCORE + 1);
+		abilities.put(AbilityName.WISDOM, ValueParameters.MIN_ABILITY_SCORE - 1);
+		abilities.put(AbilityName.CONSTITUTION, null);
+		int result = AbilityScoresValidation.validate(abilities);
+		assertFalse(AbilityScoresValidation.isValid(result));
+		for(AbilityName ability : AbilityName.values()) {
+			assertEquals("Only the missing mandatory abilities are reported missing", 
+					ability == AbilityName.DEXTERITY || ability == AbilityName.CHARISMA,
+					AbilityScoresValidation.isMissing(result, ability));
+			assertEquals("Null and out of range values are reported", 
+					ability == AbilityName.STRENGTH || ability == AbilityName.WISDOM 
+					|| ability == AbilityName.CONSTITUTION,
+					AbilityScoresValidation.isOutOfRange(result, ability));
+		}
+		//Missing mandatory abilities are rejected even if all the keys are mandatory
+		abilities.clear();
+		abilities.put(AbilityName.DEXTERITY, 10);
+		abilities.put(AbilityName.WISDOM, 10);
+		result = AbilityScoresValidation.validate(abilities);
+		assertTrue(AbilityScoresValidation.isMissing(result, AbilityName.CHARISMA));
+		assertFalse(AbilityScores.isValidAbilityScoreInput(abilities, false));
+		try {
+			AbilityScores.create(abilities);
+			fail("A mandatory ability is missing");
+		} catch (IllegalAbilityScoreException e) {}
+	}
+
+	/**
+	 * Checks that the exception built from a result describes its first 
+	 * problem.
+	 */
+	@Test
+	public void testToException() {
+		assertNotNull(AbilityScoresValidation.toException(AbilityScoresValidation.NULL_INPUT, null));
+		EnumMap<AbilityName, Integer> abilities = AbilityScoresTest.basicAbilityScores();
+		abilities.put(AbilityName.INTELLIGENCE, -3);
+		IllegalAbilityScoreException exception = AbilityScoresValidation.toException(
+				AbilityScoresValidation.validate(abilities), abilities);
+		assertTrue(exception.getMessage().contains("-3"));
+		abilities.remove(AbilityName.DEXTERITY);
+		exception = AbilityScoresValidation.toException(AbilityScoresValidation.validate(abilities), abilities);
+		assertTrue("Missing abilities are reported first", 
+				exception.getMessage().contains(AbilityName.DEXTERITY.toString()));
+	}
+}
@@ -0,0 +1,139 @@
+package model.creatures;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumMap;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.exceptions.IllegalAbilityScoreException;
+import model.values.AbilityScore;
+import model.values.Bonus;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
+
+public class CreatureStoreTest {
+	CreatureStore store;
+	AbilityScores basic;
+
+	@Before
+	public void setUp() throws Exception {
+		store = new CreatureStore(1);
+		basic = PackedAbilityScores.copyOf(AbilityScores.create(AbilityScoresTest.basicAbilityScores()));
+	}
+
+	/**
+	 * Checks that the views of the rows give the stored scores, and follow
+	 * their changes.
+	 */
+	@Test
+	public void testAdd() {
+		assertEquals(0, store.add(basic));
+		AbilityScores undead = basic.without(AbilityName.CONSTITUTION).with(AbilityName.STRENGTH, 0);
+		assertEquals("The store must grow", 1, store.add(undead));
+		assertEquals(2, store.size());
+		AbilityScores view = store.getAbilityScores(1);
+		assertEquals(undead, store.copyAbilityScores(1));
+		assertEquals(undead.toString(), view.toString());
+		for(Entry<AbilityName, AbilityScore> entry : view) {
+			AbilityScore expected = undead.getScore(entry.getKey());
+			assertEquals(expected == null ? null : expected.getValue(), 
+					entry.getValue() == null ? null : entry.getValue().getValue());
+		}
+		assertNull(view.getScore(AbilityName.CONSTITUTION));
+		assertEquals(0, view.getModifier(AbilityName.CONSTITUTION));
+		assertEquals("A score of 0 is defined", 0, view.getScore(AbilityName.STRENGTH).getValue());
+		int[] scores = new int[AbilityScores.NUMBER_OF_ABILITIES];
+		int[] modifiers = new int[AbilityScores.NUMBER_OF_ABILITIES];
+		view.getScores(scores);
+		view.getModifiers(modifiers);
+		for(AbilityName ability : AbilityName.values()) {
+			AbilityScore expected = undead.getScore(ability);
+			assertEquals(expected == null ? AbilityScores.UNDEFINED_SCORE : expected.getValue(), scores[ability.ordinal()]);
+			assertEquals(undead.getModifier(ability), modifiers[ability.ordinal()]);
+		}
+		store.setAbilityScore(1, AbilityName.CONSTITUTION, 15);
+		assertEquals("The view must follow the changes of its row", 2, view.getModifier(AbilityName.CONSTITUTION));
+		store.removeAbilityScore(1, AbilityName.STRENGTH);
+		assertNull(view.getScore(AbilityName.STRENGTH));
+		assertEquals("Other rows must not change", basic, store.copyAbilityScores(0));
+		store.setAbilityScores(0, undead);
+		assertEquals(undead, store.copyAbilityScores(0));
+		//The bonuses are stored with the scores
+		RWAbilityScores buffed = new RWAbilityScores(basic);
+		buffed.addBonus(AbilityName.STRENGTH, new Bonus(4, Bonus.Type.ENHANCEMENT));
+		store.setAbilityScores(0, buffed);
+		assertEquals(14, store.getAbilityScores(0).getScore(AbilityName.STRENGTH).getValue());
+		buffed.addBonus(AbilityName.STRENGTH, new Bonus(ValueParameters.MAX_ABILITY_SCORE, Bonus.Type.UNTYPED));
+		try {
+			store.add(buffed);
+			fail("A bonus must not take a score out of range");
+		} catch (IllegalAbilityScoreException e) {}
+		assertEquals("A failed addition must not add a row", 2, store.size());
+	}
+
+	@Test
+	public void testInvalidInputs() {
+		store.add(basic);
+		try {
+			store.add(null);
+			fail("Null scores cannot be stored");
+		} catch (IllegalAbilityScoreException e) {}
+		try {
+			store.setAbilityScore(0, AbilityName.STRENGTH, ValueParameters.MAX_ABILITY_SCORE + 1);
+			fail("The score must be valid");
+		} catch (IllegalAbilityScoreException e) {}
+		try {
+			store.removeAbilityScore(0, AbilityName.DEXTERITY);
+			fail("A mandatory ability cannot be removed");
+		} catch (IllegalAbilityScoreException e) {}
+		assertEquals(basic, store.copyAbilityScores(0));
+		try {
+			store.getAbilityScores(1);
+			fail("The row is not in the store");
+		} catch (IndexOutOfBoundsException e) {}
+		try {
+			store.setAbilityScore(-1, AbilityName.STRENGTH, 10);
+			fail("The row is not in the store");
+		} catch (IndexOutOfBoundsException e) {}
+		try {
+			new CreatureStore(-1);
+			fail("The capacity cannot be negative");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	/**
+	 * Compares the statistics of the population with the ones computed from
+	 * a copy of each row.
+	 */
+	@Test
+	public void testAverageModifier() {
+		assertTrue(Double.isNaN(store.averageModifier(AbilityName.DEXTERITY)));
+		Random random = new Random(42);
+		for(int i = 0; i < 1000; i++) {
+			EnumMap<AbilityName, Integer> input = new EnumMap<AbilityName, Integer>(AbilityName.class);
+			for(AbilityName ability : AbilityName.values()) {
+				if(AbilityScores.MANDATORY_ABILITIES.contains(ability) || random.nextInt(4) > 0) {
+					input.put(ability, random.nextInt(40));
+				}
+			}
+			store.add(AbilityScores.create(input));
+		}
+		for(AbilityName ability : AbilityName.values()) {
+			int count = 0;
+			long sum = 0;
+			for(int row = 0; row < store.size(); row++) {
+				AbilityScore score = store.copyAbilityScores(row).getScore(ability);
+				if(score != null) {
+					count++;
+					sum += score.getModifier();
+				}
+			}
+			assertEquals(ability.toString(), count, store.countDefined(ability));
+			assertEquals(ability.toString(), (double) sum / count, store.averageModifier(ability), 1e-9);
+		}
+	}
+}
@@ -2,7 +2,11 @@ package model.creatures;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 
@@ -10,7 +14,10 @@ import model.creatures.AbilityScores;
 import model.creatures.Creature;
 import model.creatures.RWAbilityScores;
 import model.exceptions.IllegalAbilityScoreException;
+import model.values.AbilityScore;
+import model.values.Bonus;
 import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
 
 public class CreatureTest {
 
@@ -49,4 +56,204 @@ public class CreatureTest {
 		 */
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Checks that the creature shares its immutable {@link AbilityScores} 
+	 * and that changing one score does not modify the ones handed out 
+	 * before.
+	 */
+	@Test
+	public void testSetAbilityScore() {
+		Creature creature = new Creature();
+		try {
+			creature.setAbilityScore(AbilityName.STRENGTH, 10);
+			fail("The creature has no ability scores yet");
+		} catch (IllegalStateException e) {}
+		creature.setAbilityScores(AbilityScores.create(AbilityScoresTest.basicAbilityScores()));
+		AbilityScores before = creature.getAbilityScores();
+		assertSame("The scores must be shared rather than wrapped", before, creature.getAbilityScores());
+		creature.setAbilityScores(before);
+		assertSame("Immutable scores must not be copied", before, creature.getAbilityScores());
+		Creature twin = new Creature();
+		twin.setAbilityScores(AbilityScores.create(AbilityScoresTest.basicAbilityScores()));
+		assertNotSame("The scores must only be interned on demand", before, twin.getAbilityScores());
+		AbilityScores interned = AbilityScores.intern(before);
+		creature.setAbilityScores(interned);
+		twin.setAbilityScores(AbilityScores.intern(twin.getAbilityScores()));
+		assertSame("Interned scores must be shared", interned, twin.getAbilityScores());
+		assertSame(interned, creature.getAbilityScores());
+		before = interned;
+		creature.setAbilityScore(AbilityName.STRENGTH, 18);
+		AbilityScores after = creature.getAbilityScores();
+		assertEquals(18, after.getScore(AbilityName.STRENGTH).getValue());
+		assertEquals(10, before.getScore(AbilityName.STRENGTH).getValue());
+		for(AbilityName ability : AbilityName.values()) {
+			if(ability != AbilityName.STRENGTH) {
+				assertSame("The unchanged scores are shared", 
+						before.getScore(ability), after.getScore(ability));
+			}
+		}
+		try {
+			creature.setAbilityScore(AbilityName.STRENGTH, -1);
+			fail("The score must be valid");
+		} catch (IllegalAbilityScoreException e) {}
+		assertSame("A failed change must keep the scores", after, creature.getAbilityScores());
+	}
+
+	/**
+	 * Checks the values of the {@link DerivedStat} of a creature, and that
+	 * changing an ability only makes the statistics depending on it dirty.
+	 */
+	@Test
+	public void testGetDerivedStat() {
+		Creature creature = new Creature();
+		try {
+			creature.getDerivedStat(DerivedStat.WILL);
+			fail("The creature has no ability scores yet");
+		} catch (IllegalStateException e) {}
+		EnumMap<AbilityName, Integer> abilities = AbilityScoresTest.basicAbilityScores();
+		abilities.put(AbilityName.STRENGTH, 14);
+		abilities.put(AbilityName.DEXTERITY, 17);
+		creature.setAbilityScores(AbilityScores.create(abilities));
+		assertEquals(13, creature.getDerivedStat(DerivedStat.ARMOR_CLASS));
+		assertEquals(2, creature.getDerivedStat(DerivedStat.MELEE_ATTACK));
+		assertEquals("The defense adds the maneuver bonus to Dexterity", 
+				15, creature.getDerivedStat(DerivedStat.COMBAT_MANEUVER_DEFENSE));
+		assertEquals(175, creature.getDerivedStat(DerivedStat.CARRYING_CAPACITY));
+		for(DerivedStat stat : DerivedStat.values()) {
+			creature.getDerivedStat(stat);
+		}
+		//Changing Strength only makes the statistics depending on it dirty
+		creature.setAbilityScore(AbilityName.STRENGTH, 25);
+		for(DerivedStat stat : DerivedStat.values()) {
+			boolean strength = stat == DerivedStat.MELEE_ATTACK || stat == DerivedStat.COMBAT_MANEUVER_BONUS
+					|| stat == DerivedStat.COMBAT_MANEUVER_DEFENSE || stat == DerivedStat.CARRYING_CAPACITY
+					|| stat == DerivedStat.CLIMB || stat == DerivedStat.SWIM;
+			assertEquals(stat.toString(), strength, creature.getDerivedStats().isDirty(stat));
+		}
+		assertEquals(7, creature.getDerivedStat(DerivedStat.CLIMB));
+		assertEquals(20, creature.getDerivedStat(DerivedStat.COMBAT_MANEUVER_DEFENSE));
+		assertFalse("Reading a statistic computes its inputs", 
+				creature.getDerivedStats().isDirty(DerivedStat.COMBAT_MANEUVER_BONUS));
+		assertEquals(800, creature.getDerivedStat(DerivedStat.CARRYING_CAPACITY));
+		assertEquals(7, creature.getDerivedStat(DerivedStat.MELEE_ATTACK));
+		//Setting equal scores does not make anything dirty
+		creature.setAbilityScores(AbilityScores.create(abilities).with(AbilityName.STRENGTH, 25));
+		assertFalse(creature.getDerivedStats().isDirty(DerivedStat.MELEE_ATTACK));
+		creature.setAbilityScores(AbilityScores.create(abilities).without(AbilityName.STRENGTH));
+		assertEquals("A creature without Strength cannot carry anything", 
+				0, creature.getDerivedStat(DerivedStat.CARRYING_CAPACITY));
+		assertEquals(0, creature.getDerivedStat(DerivedStat.MELEE_ATTACK));
+		int[] capacities = {0, 10, 100, 115, 400, 460, 1400, 1600, 6400};
+		int[] scores = {0, 1, 10, 11, 20, 21, 29, 30, 40};
+		for(int i = 0; i < scores.length; i++) {
+			creature.setAbilityScore(AbilityName.STRENGTH, scores[i]);
+			assertEquals("Strength " + scores[i], capacities[i], creature.getDerivedStat(DerivedStat.CARRYING_CAPACITY));
+		}
+		creature.setAbilityScore(AbilityName.STRENGTH, ValueParameters.MAX_ABILITY_SCORE);
+		assertEquals("The capacity must not overflow", 
+				Integer.MAX_VALUE, creature.getDerivedStat(DerivedStat.CARRYING_CAPACITY));
+	}
+
+	/**
+	 * Stress test of a creature shared between threads: writers increase 
+	 * Strength and Dexterity together while readers check that they always
+	 * see both changes or none, in the scores and in the derived statistics,
+	 * and no increase may be lost.
+	 */
+	@Test
+	public void testConcurrentUpdates() throws InterruptedException {
+		final int writers = 4;
+		final int readers = 2;
+		final int increments = 200;
+		final Creature creature = new Creature();
+		creature.setAbilityScores(AbilityScores.create(AbilityScoresTest.basicAbilityScores())
+				.with(AbilityName.DEXTERITY, 10));
+		try {
+			creature.updateAbilityScores(scores -> null);
+			fail("The update must give valid scores");
+		} catch (IllegalAbilityScoreException e) {}
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch written = new CountDownLatch(writers);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for(int i = 0; i < writers; i++) {
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+					for(int j = 0; j < increments; j++) {
+						creature.updateAbilityScores(scores -> {
+							int score = scores.getScore(AbilityName.STRENGTH).getValue() + 1;
+							return scores.with(AbilityName.STRENGTH, score).with(AbilityName.DEXTERITY, score);
+						});
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					written.countDown();
+				}
+			}));
+		}
+		for(int i = 0; i < readers; i++) {
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+					do {
+						AbilityScores scores = creature.getAbilityScores();
+						assertEquals("A snapshot must hold both changes or none", 
+								scores.getScore(AbilityName.STRENGTH).getValue(), 
+								scores.getScore(AbilityName.DEXTERITY).getValue());
+						assertEquals("The derived statistics must come from a single snapshot", 
+								0, creature.getDerivedStat(DerivedStat.COMBAT_MANEUVER_DEFENSE) % 2);
+					} while(written.getCount() > 0);
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			}));
+		}
+		for(Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		if(failure.get() != null) {
+			throw new AssertionError(failure.get());
+		}
+		assertEquals("No update may be lost", 10 + writers * increments, 
+				creature.getAbilityScores().getScore(AbilityName.DEXTERITY).getValue());
+		assertEquals(10 + 2 * AbilityScore.computeModifier(10 + writers * increments), 
+				creature.getDerivedStat(DerivedStat.COMBAT_MANEUVER_DEFENSE));
+	}
+
+	/**
+	 * Checks that bonuses taking a score out of range are rejected when the
+	 * scores are given to a creature, instead of corrupting them.
+	 */
+	@Test
+	public void testScoresOutOfRange() {
+		Creature creature = new Creature();
+		creature.setAbilityScores(AbilityScores.create(AbilityScoresTest.basicAbilityScores()));
+		AbilityScores before = creature.getAbilityScores();
+		RWAbilityScores drained = new RWAbilityScores(before);
+		drained.addBonus(AbilityName.STRENGTH, new Bonus(-12, Bonus.Type.UNTYPED));
+		RWAbilityScores undefined = new RWAbilityScores(before);
+		undefined.addBonus(AbilityName.STRENGTH, new Bonus(-11, Bonus.Type.UNTYPED));
+		RWAbilityScores buffed = new RWAbilityScores(before);
+		buffed.addBonus(AbilityName.STRENGTH, new Bonus(ValueParameters.MAX_ABILITY_SCORE, Bonus.Type.UNTYPED));
+		RWAbilityScores sentinel = new RWAbilityScores(before);
+		sentinel.addBonus(AbilityName.STRENGTH, new Bonus(1023 - 10, Bonus.Type.UNTYPED));
+		for(AbilityScores scores : new AbilityScores[] {drained, undefined, buffed, sentinel}) {
+			try {
+				creature.setAbilityScores(scores);
+				fail("A score of " + scores.getScore(AbilityName.STRENGTH).getValue() + " is out of range");
+			} catch (IllegalAbilityScoreException e) {}
+			try {
+				creature.updateAbilityScores(current -> scores);
+				fail("A score of " + scores.getScore(AbilityName.STRENGTH).getValue() + " is out of range");
+			} catch (IllegalAbilityScoreException e) {}
+			assertSame("A rejected update must keep the scores", before, creature.getAbilityScores());
+		}
+		assertEquals(0, creature.getDerivedStat(DerivedStat.MELEE_ATTACK));
+	}
+}
@@ -0,0 +1,170 @@
+package model.creatures;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import model.values.Roll;
+import model.values.RollDistribution;
+import service.parameters.CreatureParameters.AbilityGenerationMethod;
+import service.parameters.CreatureParameters.AbilityName;
+
+public class DicePoolSolverTest {
+	static long seed = (long) 2;
+	static final double EPSILON = 1e-9;
+
+	/**
+	 * Checks that the best weighted sum of the expected scores matches an 
+	 * exhaustive search over every assignment.
+	 */
+	@Test
+	public void testMaximiseMean() {
+		Random random = new Random(seed);
+		for(int test = 0; test < 20; test++) {
+			int pool = random.nextInt(8);
+			Map<AbilityName, Double> weights = new EnumMap<AbilityName, Double>(AbilityName.class);
+			for(AbilityName ability : AbilityName.values()) {
+				if(random.nextInt(4) > 0) {
+					weights.put(ability, random.nextDouble() * 2 - 0.5);
+				}
+			}
+			DicePoolSolver.Allocation allocation = DicePoolSolver.maximiseMean(weights, pool);
+			checkAllocation(allocation, pool);
+			assertEquals("The value must be the one of the assignment", 
+					meanValue(weights, allocation.getExtraDice()), allocation.getValue(), EPSILON);
+			assertEquals("The solver must find the best assignment", 
+					search(new int[AbilityName.values().length], 0, pool, weights, null), 
+					allocation.getValue(), EPSILON);
+		}
+		//With a single positive weight, all the dice go to that ability
+		Map<AbilityName, Double> weights = new EnumMap<AbilityName, Double>(AbilityName.class);
+		weights.put(AbilityName.WISDOM, 1.0);
+		int pool = AbilityGenerationMethod.DICE_POOL.getParameter();
+		DicePoolSolver.Allocation allocation = DicePoolSolver.maximiseMean(weights, pool);
+		assertEquals(pool, allocation.getExtraDice(AbilityName.WISDOM));
+		assertNotNull("The assignment must fit the DICE_POOL method", 
+				AbilityScoresGenerator.dicePool(allocation.getExtraDice()));
+	}
+
+	/**
+	 * Checks that the best probability of reaching every threshold matches 
+	 * an exhaustive search over every assignment.
+	 */
+	@Test
+	public void testMaximiseSuccess() {
+		Random random = new Random(seed);
+		for(int test = 0; test < 20; test++) {
+			int pool = random.nextInt(8);
+			Map<AbilityName, Integer> thresholds = new EnumMap<AbilityName, Integer>(AbilityName.class);
+			for(AbilityName ability : AbilityName.values()) {
+				if(random.nextInt(3) > 0) {
+					thresholds.put(ability, 8 + random.nextInt(9));
+				}
+			}
+			DicePoolSolver.Allocation allocation = DicePoolSolver.maximiseSuccess(thresholds, pool);
+			checkAllocation(allocation, pool);
+			assertEquals("The value must be the one of the assignment", 
+					successValue(thresholds, allocation.getExtraDice()), allocation.getValue(), EPSILON);
+			assertEquals("The solver must find the best assignment", 
+					search(new int[AbilityName.values().length], 0, pool, null, thresholds), 
+					allocation.getValue(), EPSILON);
+		}
+	}
+
+	/**
+	 * Checks that large pools are solved, and that invalid inputs are 
+	 * rejected.
+	 */
+	@Test
+	public void testLargePool() {
+		Map<AbilityName, Double> weights = new EnumMap<AbilityName, Double>(AbilityName.class);
+		for(AbilityName ability : AbilityName.values()) {
+			weights.put(ability, 1.0 + ability.ordinal());
+		}
+		DicePoolSolver.Allocation allocation = DicePoolSolver.maximiseMean(weights, DicePoolSolver.MAX_POOL);
+		checkAllocation(allocation, DicePoolSolver.MAX_POOL);
+		assertEquals("Every score is almost certainly 18", 18 * 21, allocation.getValue(), 1e-6);
+		Map<AbilityName, Integer> thresholds = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		thresholds.put(AbilityName.STRENGTH, 19);
+		assertEquals("A score cannot exceed 18", 0, 
+				DicePoolSolver.maximiseSuccess(thresholds, 10).getValue(), 0);
+		try {
+			DicePoolSolver.maximiseMean(weights, -1);
+			fail("The pool cannot be negative");
+		} catch (IllegalArgumentException e) {}
+		try {
+			DicePoolSolver.maximiseMean(weights, DicePoolSolver.MAX_POOL + 1);
+			fail("The pool cannot be too large");
+		} catch (IllegalArgumentException e) {}
+		weights.put(AbilityName.STRENGTH, Double.NaN);
+		try {
+			DicePoolSolver.maximiseMean(weights, 6);
+			fail("The weights must be finite");
+		} catch (IllegalArgumentException e) {}
+		try {
+			DicePoolSolver.maximiseSuccess(null, 6);
+			fail("The thresholds cannot be null");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	/**
+	 * Checks that an assignment uses exactly the dice of the pool.
+	 * @param allocation	to check.
+	 * @param pool			number of extra dice.
+	 */
+	private static void checkAllocation(DicePoolSolver.Allocation allocation, int pool) {
+		int total = 0;
+		for(AbilityName ability : AbilityName.values()) {
+			assertTrue(allocation.getExtraDice(ability) >= 0);
+			assertEquals(allocation.getExtraDice(ability), (int) allocation.getExtraDice().get(ability));
+			total += allocation.getExtraDice(ability);
+		}
+		assertEquals("Every extra die must be assigned", pool, total);
+	}
+
+	/**
+	 * Tries every assignment of the remaining dice to the remaining abilities.
+	 * @return the best value of the objective given by weights or thresholds.
+	 */
+	private static double search(int[] extraDice, int ability, int remaining, Map<AbilityName, Double> weights,
+			Map<AbilityName, Integer> thresholds) {
+		if(ability == extraDice.length - 1) {
+			extraDice[ability] = remaining;
+			Map<AbilityName, Integer> assignment = new EnumMap<AbilityName, Integer>(AbilityName.class);
+			for(AbilityName name : AbilityName.values()) {
+				assignment.put(name, extraDice[name.ordinal()]);
+			}
+			return weights != null ? meanValue(weights, assignment) : successValue(thresholds, assignment);
+		}
+		double best = Double.NEGATIVE_INFINITY;
+		for(int extra = 0; extra <= remaining; extra++) {
+			extraDice[ability] = extra;
+			best = Math.max(best, search(extraDice, ability + 1, remaining - extra, weights, thresholds));
+		}
+		return best;
+	}
+
+	private static double meanValue(Map<AbilityName, Double> weights, Map<AbilityName, Integer> extraDice) {
+		double result = 0;
+		for(Map.Entry<AbilityName, Double> entry : weights.entrySet()) {
+			result += entry.getValue() * distribution(extraDice.get(entry.getKey())).getMean();
+		}
+		return result;
+	}
+
+	private static double successValue(Map<AbilityName, Integer> thresholds, Map<AbilityName, Integer> extraDice) {
+		double result = 1;
+		for(Map.Entry<AbilityName, Integer> entry : thresholds.entrySet()) {
+			result *= distribution(extraDice.get(entry.getKey())).getProbabilityAtLeast(entry.getValue());
+		}
+		return result;
+	}
+
+	private static RollDistribution distribution(int extraDice) {
+		return new Roll(3 + extraDice, 6).keepHighest(3).getDistribution();
+	}
+}
@@ -0,0 +1,258 @@
+package model.creatures;
+
+import static org.junit.Assert.*;
+
+import java.nio.IntBuffer;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import model.exceptions.IllegalAbilityScoreException;
+import model.values.AbilityScore;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters;
+
+public class PackedAbilityScoresTest {
+
+	/**
+	 * Checks that every valid score is stored and read back with the 
+	 * modifier of {@link AbilityScore#computeModifier(int)}, whatever the 
+	 * ability.
+	 */
+	@Test
+	public void testScores() {
+		AbilityName[] names = AbilityName.values();
+		int[] scores = new int[names.length];
+		for(int score = ValueParameters.MIN_ABILITY_SCORE; score <= ValueParameters.MAX_ABILITY_SCORE; score++) {
+			for(int i = 0; i < scores.length; i++) {
+				scores[i] = Math.min(score + i, ValueParameters.MAX_ABILITY_SCORE);
+			}
+			AbilityScores test = new PackedAbilityScores(scores);
+			for(AbilityName ability : names) {
+				int expected = scores[ability.ordinal()];
+				assertEquals(expected, test.getScore(ability).getValue());
+				assertEquals("Modifiers must match computeModifier", 
+						AbilityScore.computeModifier(expected), test.getModifier(ability));
+				assertEquals(test.getModifier(ability), test.getScore(ability).getModifier());
+			}
+		}
+	}
+
+	/**
+	 * Checks that a map with missing optional abilities gives undefined 
+	 * scores, that the map is copied, and that invalid maps are rejected.
+	 */
+	@Test
+	public void testMapConstructor() {
+		EnumMap<AbilityName, Integer> abilities = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		int i = 0;
+		for(AbilityName ability : AbilityScores.MANDATORY_ABILITIES) {
+			abilities.put(ability, 10 - i++);
+		}
+		AbilityScores test = new PackedAbilityScores(abilities);
+		for(AbilityName ability : AbilityName.values()) {
+			abilities.computeIfPresent(ability, (name, value) -> value + 1);
+		}
+		for(AbilityName ability : AbilityName.values()) {
+			if(AbilityScores.MANDATORY_ABILITIES.contains(ability)) {
+				assertEquals("The constructor must copy the input map", 
+						abilities.get(ability) - 1, test.getScore(ability).getValue());
+			} else {
+				assertNull("getScore must return null for the unspecified values", test.getScore(ability));
+				assertEquals("Undefined abilities have a modifier of 0", 0, test.getModifier(ability));
+			}
+		}
+		abilities.put(AbilityName.STRENGTH, ValueParameters.MAX_ABILITY_SCORE + 1);
+		try {
+			new PackedAbilityScores(abilities);
+			fail("The constructor must reject invalid values");
+		} catch (IllegalAbilityScoreException e) {}
+		try {
+			new PackedAbilityScores((Map<AbilityName, Integer>) null);
+			fail("The constructor must reject null input");
+		} catch (IllegalAbilityScoreException e) {}
+	}
+
+	/**
+	 * Checks that copies keep the defined and undefined scores, and that 
+	 * packed scores are not copied again.
+	 */
+	@Test
+	public void testCopyOf() {
+		EnumMap<AbilityName, Integer> abilities = AbilityScoresTest.basicAbilityScores();
+		abilities.remove(AbilityName.STRENGTH);
+		AbilityScores input = AbilityScores.create(abilities);
+		PackedAbilityScores copy = PackedAbilityScores.copyOf(input);
+		for(AbilityName ability : AbilityName.values()) {
+			if(input.getScore(ability) == null) {
+				assertNull(copy.getScore(ability));
+			} else {
+				assertEquals(input.getScore(ability).getValue(), copy.getScore(ability).getValue());
+			}
+			assertEquals(input.getModifier(ability), copy.getModifier(ability));
+		}
+		assertSame("Immutable scores are shared", copy, PackedAbilityScores.copyOf(copy));
+		try {
+			PackedAbilityScores.copyOf(null);
+			fail("Cannot copy null scores");
+		} catch (IllegalAbilityScoreException e) {}
+	}
+
+	/**
+	 * Checks that updates return new objects, leave the original unchanged,
+	 * and reject invalid changes.
+	 */
+	@Test
+	public void testWith() {
+		EnumMap<AbilityName, Integer> abilities = AbilityScoresTest.basicAbilityScores();
+		AbilityScores original = new PackedAbilityScores(abilities);
+		AbilityScores changed = original.with(AbilityName.WISDOM, 3);
+		assertEquals(3, changed.getScore(AbilityName.WISDOM).getValue());
+		assertEquals((int) abilities.get(AbilityName.WISDOM), original.getScore(AbilityName.WISDOM).getValue());
+		assertSame("Unchanged scores give the same object", original, 
+				original.with(AbilityName.STRENGTH, abilities.get(AbilityName.STRENGTH)));
+		AbilityScores removed = changed.without(AbilityName.STRENGTH);
+		assertNull(removed.getScore(AbilityName.STRENGTH));
+		assertNotNull(changed.getScore(AbilityName.STRENGTH));
+		assertSame(removed, removed.without(AbilityName.STRENGTH));
+		assertEquals("Equal scores give equal objects", original, changed.with(AbilityName.WISDOM, 
+				abilities.get(AbilityName.WISDOM)));
+		assertEquals(original.hashCode(), new PackedAbilityScores(abilities).hashCode());
+		//Mutable implementations give immutable copies
+		RWAbilityScores mutable = new RWAbilityScores(abilities);
+		assertEquals(changed, mutable.with(AbilityName.WISDOM, 3));
+		try {
+			original.without(AbilityName.DEXTERITY);
+			fail("Mandatory abilities cannot be removed");
+		} catch (IllegalAbilityScoreException e) {}
+		try {
+			original.with(AbilityName.DEXTERITY, ValueParameters.MAX_ABILITY_SCORE + 1);
+			fail("The score must be valid");
+		} catch (IllegalAbilityScoreException e) {}
+	}
+
+	/**
+	 * Checks that equal scores are interned into a single instance, whatever
+	 * their implementation, and that creatures share them until they 
+	 * change a score.
+	 */
+	@Test
+	public void testIntern() {
+		EnumMap<AbilityName, Integer> abilities = AbilityScoresTest.basicAbilityScores();
+		AbilityScores canonical = AbilityScores.intern(new PackedAbilityScores(abilities));
+		assertSame(canonical, AbilityScores.intern(new PackedAbilityScores(abilities)));
+		assertSame(canonical, AbilityScores.intern(new RWAbilityScores(abilities)));
+		assertSame(canonical, AbilityScores.intern(canonical.with(AbilityName.WISDOM, 3)
+				.with(AbilityName.WISDOM, abilities.get(AbilityName.WISDOM))));
+		assertNotSame(canonical, AbilityScores.intern(canonical.with(AbilityName.WISDOM, 3)));
+		Creature[] goblins = new Creature[10];
+		for(int i = 0; i < goblins.length; i++) {
+			goblins[i] = new Creature();
+			goblins[i].setAbilityScores(AbilityScores.intern(AbilityScores.create(abilities)));
+			assertSame("Identical creatures share their interned scores", canonical, goblins[i].getAbilityScores());
+		}
+		goblins[0].setAbilityScore(AbilityName.STRENGTH, 3);
+		assertNotSame(canonical, goblins[0].getAbilityScores());
+		assertSame("Changing a creature must not change the others", canonical, goblins[1].getAbilityScores());
+		assertEquals((int) abilities.get(AbilityName.STRENGTH), canonical.getScore(AbilityName.STRENGTH).getValue());
+		try {
+			AbilityScores.intern(null);
+			fail("Cannot intern null scores");
+		} catch (IllegalAbilityScoreException e) {}
+	}
+
+	/**
+	 * Checks that the iterator returns every ability once, in order, with 
+	 * the scores of the object.
+	 */
+	@Test
+	public void testIterator() {
+		EnumMap<AbilityName, Integer> abilities = AbilityScoresTest.basicAbilityScores();
+		abilities.remove(AbilityName.INTELLIGENCE);
+		AbilityScores test = new PackedAbilityScores(abilities);
+		Iterator<Map.Entry<AbilityName, AbilityScore>> iterator = test.iterator();
+		for(AbilityName ability : AbilityName.values()) {
+			assertTrue(iterator.hasNext());
+			Map.Entry<AbilityName, AbilityScore> entry = iterator.next();
+			assertEquals(ability, entry.getKey());
+			assertSame(test.getScore(ability), entry.getValue());
+		}
+		assertFalse(iterator.hasNext());
+	}
+
+	/**
+	 * Checks that the bulk factories build the same scores from columns and
+	 * from a buffer, sequentially and in parallel, and report the invalid 
+	 * inputs.
+	 */
+	@Test
+	public void testCreateAll() {
+		int count = 1000;
+		int[][] columns = new int[AbilityScores.NUMBER_OF_ABILITIES][count];
+		IntBuffer buffer = IntBuffer.allocate(count * AbilityScores.NUMBER_OF_ABILITIES + 2);
+		buffer.put(new int[] {-7, -7});
+		for(int i = 0; i < count; i++) {
+			for(AbilityName ability : AbilityName.values()) {
+				int score = (i * 7 + ability.ordinal() * 13) % 40;
+				if(ability == AbilityName.STRENGTH && i % 3 == 0) {
+					score = AbilityScores.UNDEFINED_SCORE;
+				}
+				if(ability == AbilityName.WISDOM && i % 10 == 0) {
+					score = i % 20 == 0 ? AbilityScores.UNDEFINED_SCORE : ValueParameters.MAX_ABILITY_SCORE + 1;
+				}
+				columns[ability.ordinal()][i] = score;
+				buffer.put(score);
+			}
+		}
+		buffer.position(2);
+		for(boolean parallel : new boolean[] {false, true}) {
+			int[] results = new int[count];
+			int[] bufferResults = new int[count];
+			AbilityScores[] scores = AbilityScores.createAll(columns, results, parallel);
+			AbilityScores[] fromBuffer = AbilityScores.createAll(buffer, bufferResults, parallel);
+			assertEquals("The buffer must not be modified", 2, buffer.position());
+			assertArrayEquals(results, bufferResults);
+			for(int i = 0; i < count; i++) {
+				if(i % 10 == 0) {
+					assertNull("Invalid inputs give null", scores[i]);
+					assertNull(fromBuffer[i]);
+					assertEquals(i % 20 == 0, AbilityScoresValidation.isMissing(results[i], AbilityName.WISDOM));
+					assertEquals(i % 20 != 0, AbilityScoresValidation.isOutOfRange(results[i], AbilityName.WISDOM));
+					continue;
+				}
+				assertEquals(AbilityScoresValidation.VALID, results[i]);
+				for(AbilityName ability : AbilityName.values()) {
+					int expected = columns[ability.ordinal()][i];
+					if(expected == AbilityScores.UNDEFINED_SCORE) {
+						assertNull(scores[i].getScore(ability));
+						assertNull(fromBuffer[i].getScore(ability));
+					} else {
+						assertEquals(expected, scores[i].getScore(ability).getValue());
+						assertEquals(expected, fromBuffer[i].getScore(ability).getValue());
+					}
+				}
+			}
+			try {
+				AbilityScores.createAll(columns, null, parallel);
+				fail("Invalid inputs must throw an exception without results");
+			} catch (IllegalAbilityScoreException e) {
+				assertTrue("The exception describes the first invalid input", 
+						e.getMessage().contains(AbilityName.WISDOM.toString()));
+			}
+		}
+		try {
+			AbilityScores.createAll(new int[][] {{10}, {10}}, null, false);
+			fail("There must be one column for each ability");
+		} catch (IllegalArgumentException e) {}
+		try {
+			AbilityScores.createAll(IntBuffer.allocate(7), null, false);
+			fail("The buffer must hold six scores for each input");
+		} catch (IllegalArgumentException e) {}
+		try {
+			AbilityScores.createAll((int[][]) null, null, false);
+			fail("The input cannot be null");
+		} catch (IllegalAbilityScoreException e) {}
+	}
+}
@@ -0,0 +1,118 @@
+package model.expressions;
+
+import static org.junit.Assert.*;
+
+import java.util.EnumMap;
+
+import org.junit.Test;
+
+import model.creatures.AbilityScores;
+import model.exceptions.IllegalExpressionException;
+import model.random.RandomSource;
+import service.parameters.CreatureParameters.AbilityName;
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+public class DiceExpressionTest {
+	static long seed = (long) 2;
+
+	/**
+	 * Checks that valid expressions are compiled to their canonical form, 
+	 * merging the dice and the constants.
+	 */
+	@Test
+	public void testParse() {
+		assertEquals("3d6+2d8+5", DiceExpression.parse("3d6+2d8+5").toString());
+		assertEquals("3d6+2d8+5", DiceExpression.parse(" 2d8 + 3D6 + 2 + 3 ").toString());
+		assertEquals("4d6kh3", DiceExpression.parse("4d6kh3").toString());
+		assertEquals("4d6kh3", DiceExpression.parse("4d6dl1").toString());
+		assertEquals("2d20kh1", DiceExpression.parse("2d20k").toString());
+		assertEquals("1d20+STR", DiceExpression.parse("d20+STR").toString());
+		assertEquals("1d20-DEX+CHA-3", DiceExpression.parse("d20 - dexterity + cha - 3").toString());
+		assertEquals("-1d4", DiceExpression.parse("-d4").toString());
+		assertEquals("0", DiceExpression.parse("2-2").toString());
+		assertSame("Compiled expressions are cached", DiceExpression.parse("3d6+2d8+5"), 
+				DiceExpression.parse("3d6+2d8+5"));
+		assertFalse(DiceExpression.parse("4d6kh3").usesAbilities());
+		assertTrue(DiceExpression.parse("1+d20+STR").usesAbilities());
+	}
+
+	/**
+	 * Checks that invalid expressions are rejected with the position of the
+	 * error.
+	 */
+	@Test
+	public void testInvalidExpressions() {
+		String[] invalid = new String[] {"", "3d", "3d6+", "3d6 4", "STRENGH", "4d6kx3", "4d6kh5", "0d6", 
+				"3d1000", "d20++2", "99999999999", "*2"};
+		for(String expression : invalid) {
+			try {
+				DiceExpression.parse(expression);
+				fail("\"" + expression + "\" is not a valid expression");
+			} catch (IllegalExpressionException e) {
+				assertTrue(e.getMessage().contains(expression));
+			}
+		}
+		try {
+			DiceExpression.parse(null);
+			fail("A null expression is not valid");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	/**
+	 * Checks that evaluations stay within the bounds of the expression, 
+	 * read the modifiers of the given abilities and are reproducible.
+	 */
+	@Test
+	public void testEvaluate() {
+		EnumMap<AbilityName, Integer> values = new EnumMap<AbilityName, Integer>(AbilityName.class);
+		for(AbilityName ability : AbilityName.values()) {
+			values.put(ability, 10);
+		}
+		values.put(AbilityName.STRENGTH, 18);
+		values.put(AbilityName.DEXTERITY, 7);
+		AbilityScores scores = AbilityScores.create(values);
+		DiceExpression expression = DiceExpression.parse("4d6kh3+STR-DEX+2-1d4");
+		RandomSource random = RandomSource.create(RandomAlgorithm.XOSHIRO, seed);
+		boolean lowest = false;
+		boolean highest = false;
+		for(int i = 0; i < 20000; i++) {
+			int value = expression.evaluate(scores, random);
+			//3 to 18, +4, +2, +2, -1 to -4
+			assertTrue("Evaluation out of bounds: " + value, value >= 7 && value <= 25);
+			lowest |= value == 7;
+			highest |= value == 25;
+		}
+		assertTrue("All values must be reachable", lowest && highest);
+		assertEquals(expression.evaluate(scores, RandomSource.create(RandomAlgorithm.XOSHIRO, seed)), 
+				expression.evaluate(scores, RandomSource.create(RandomAlgorithm.XOSHIRO, seed)));
+		assertEquals(12, DiceExpression.parse("10+STR-2").evaluate(scores));
+		int value = DiceExpression.parse("3d6+2d8+5").evaluate();
+		assertTrue(value >= 10 && value <= 39);
+		try {
+			DiceExpression.parse("d20+STR").evaluate();
+			fail("An expression using abilities needs ability scores");
+		} catch (IllegalArgumentException e) {
+			assertTrue("The error must name the ability", e.getMessage().contains(AbilityName.STRENGTH.toString()));
+		}
+	}
+
+	/**
+	 * Checks that an evaluation overflowing an int is rejected rather than 
+	 * wrapping around.
+	 */
+	@Test
+	public void testOverflow() {
+		RandomSource random = RandomSource.create(RandomAlgorithm.XOSHIRO, seed);
+		String[] overflowing = new String[] {"2147483647+d6", "-2147483647-d6-d6"};
+		for(String expression : overflowing) {
+			try {
+				DiceExpression.parse(expression).evaluate(null, random);
+				fail("\"" + expression + "\" overflows an int");
+			} catch (IllegalExpressionException e) {
+				assertTrue(e.getCause() instanceof ArithmeticException);
+			}
+		}
+		int value = DiceExpression.parse("2147483641+d6").evaluate(null, random);
+		assertTrue("Evaluation out of bounds: " + value, value >= 2147483642);
+	}
+}
@@ -0,0 +1,157 @@
+package model.random;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.math3.stat.inference.ChiSquareTest;
+import org.junit.After;
+import org.junit.Test;
+
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+public class RandomSourceTest {
+	static long seed = (long) 2;
+	
+	@After
+	public void tearDown() {
+		RandomSource.setDefaultAlgorithm(RandomAlgorithm.SPLITTABLE);
+	}
+
+	/**
+	 * Checks with a chi-square test that each algorithm rolls fair dice, 
+	 * for dice with a number of sides that is or is not a power of two.
+	 */
+	@Test
+	public void testFairness() {
+		int[] sides = new int[] {2, 6, 8, 20, 100, 999};
+		ChiSquareTest test = new ChiSquareTest();
+		for(RandomAlgorithm algorithm : RandomAlgorithm.values()) {
+			RandomSource source = RandomSource.create(algorithm, seed);
+			for(int numberOfSides : sides) {
+				long[] observed = new long[numberOfSides];
+				double[] expected = new double[numberOfSides];
+				int rolls = 200 * numberOfSides;
+				for(int i = 0; i < rolls; i++) {
+					int result = source.nextInt(numberOfSides);
+					assertTrue(algorithm + " must generate numbers in [0, " + numberOfSides 
+							+ "), obtained " + result, result >= 0 && result < numberOfSides);
+					observed[result]++;
+				}
+				for(int i = 0; i < numberOfSides; i++) {
+					expected[i] = rolls / (double) numberOfSides;
+				}
+				assertFalse(algorithm + " must roll fair d" + numberOfSides, 
+						test.chiSquareTest(expected, observed, 0.001));
+			}
+		}
+	}
+	
+	/**
+	 * Checks that two sources with the same algorithm and seed generate the
+	 * same numbers.
+	 */
+	@Test
+	public void testSeed() {
+		for(RandomAlgorithm algorithm : RandomAlgorithm.values()) {
+			RandomSource first = RandomSource.create(algorithm, seed);
+			RandomSource second = RandomSource.create(algorithm, seed);
+			for(int i = 0; i < 100; i++) {
+				assertEquals(algorithm + " must be reproducible", first.nextLong(), second.nextLong());
+				assertEquals(algorithm + " must be reproducible", first.nextInt(17), second.nextInt(17));
+			}
+		}
+	}
+	
+	/**
+	 * Checks that {@link RandomSource#nextDouble()} stays in [0, 1).
+	 */
+	@Test
+	public void testNextDouble() {
+		for(RandomAlgorithm algorithm : RandomAlgorithm.values()) {
+			RandomSource source = RandomSource.create(algorithm, seed);
+			for(int i = 0; i < 1000; i++) {
+				double result = source.nextDouble();
+				assertTrue(algorithm + " must generate doubles in [0, 1)", result >= 0 && result < 1);
+			}
+		}
+	}
+	
+	/**
+	 * Checks that the source of a thread can be chosen for this thread only,
+	 * and that changing the default algorithm replaces it.
+	 * @throws InterruptedException if the test is interrupted.
+	 */
+	@Test
+	public void testCurrent() throws InterruptedException {
+		RandomSource chosen = RandomSource.create(RandomAlgorithm.XOSHIRO, seed);
+		RandomSource.setCurrent(chosen);
+		assertSame("The source set on a thread must be used by this thread", 
+				chosen, RandomSource.current());
+		RandomSource[] other = new RandomSource[1];
+		Thread thread = new Thread(() -> other[0] = RandomSource.current());
+		thread.start();
+		thread.join();
+		assertNotSame("The source set on a thread must not be used by the others", 
+				chosen, other[0]);
+		RandomSource.setDefaultAlgorithm(RandomAlgorithm.MERSENNE_TWISTER);
+		assertEquals(RandomAlgorithm.MERSENNE_TWISTER, RandomSource.getDefaultAlgorithm());
+		assertNotSame("Changing the default algorithm must replace the source of each thread", 
+				chosen, RandomSource.current());
+		assertSame("The source of a thread must not change between two calls", 
+				RandomSource.current(), RandomSource.current());
+		try {
+			RandomSource.setCurrent(null);
+			fail("A thread cannot use a null source");
+		} catch (IllegalArgumentException e) {}
+	}
+	
+	/**
+	 * Checks {@link RandomAlgorithm#PHILOX} against the known answers of 
+	 * the reference implementation of Philox4x32-10.
+	 */
+	@Test
+	public void testPhiloxKnownAnswers() {
+		checkPhilox(0, 0, 0, 0xe169c58d6627e8d5L, 0x9b00dbd8bc57ac4cL);
+		checkPhilox(-1L, -1L, -1L, 0x41c83b0e408f276dL, 0x6d5451fda20bc7c6L);
+		checkPhilox(0x299f31d0a4093822L, 0x85a308d3243f6a88L, 0x0370734413198a2eL, 
+				0x94fdccebd16cfe09L, 0x24126ea15001e420L);
+	}
+	
+	/**
+	 * Checks that the streams of a seed are reproducible, start anywhere, 
+	 * and differ from each other.
+	 */
+	@Test
+	public void testStream() {
+		RandomSource first = RandomSource.create(RandomAlgorithm.PHILOX, seed);
+		RandomSource stream = RandomSource.stream(seed, 0);
+		RandomSource other = RandomSource.stream(seed, 1);
+		RandomSource otherAgain = RandomSource.stream(seed, 1);
+		int equal = 0;
+		for(int i = 0; i < 100; i++) {
+			long value = first.nextLong();
+			assertEquals("The stream 0 is the seeded sequence", value, stream.nextLong());
+			long otherValue = other.nextLong();
+			assertEquals("A stream must be reproducible", otherValue, otherAgain.nextLong());
+			if(value == otherValue) {
+				equal++;
+			}
+		}
+		assertEquals("Two streams must differ", 0, equal);
+	}
+	
+	/**
+	 * Checks the first block generated by a Philox source.
+	 * @param key		seed of the source.
+	 * @param position	lower half of the counter.
+	 * @param stream	upper half of the counter.
+	 * @param expectedFirst		first two words of the block.
+	 * @param expectedSecond	last two words of the block.
+	 */
+	private static void checkPhilox(long key, long position, long stream, long expectedFirst, 
+			long expectedSecond) {
+		PhiloxRandomSource source = new PhiloxRandomSource(key, stream);
+		source.seek(position);
+		assertEquals("Philox must match the reference implementation", expectedFirst, source.nextLong());
+		assertEquals("Philox must match the reference implementation", expectedSecond, source.nextLong());
+	}
+}
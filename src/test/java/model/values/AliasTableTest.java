@@ -0,0 +1,45 @@
+package model.values;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.math3.stat.inference.ChiSquareTest;
+import org.junit.Test;
+
+import model.random.RandomSource;
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+public class AliasTableTest {
+	static long seed = (long) 2;
+
+	/**
+	 * Checks with a chi-square test that the totals drawn from an 
+	 * {@link AliasTable} follow the distribution it was built from.
+	 */
+	@Test
+	public void testDistribution() {
+		ChiSquareTest test = new ChiSquareTest();
+		RandomSource random = RandomSource.create(RandomAlgorithm.SPLITTABLE, seed);
+		for(Roll roll : new Roll[] {new Roll(1, 20), new Roll(4, 6).keepHighest(3), new Roll(3, 6), 
+				new Roll(2, 20).keepLowest(1)}) {
+			RollDistribution distribution = roll.getDistribution();
+			AliasTable table = new AliasTable(distribution);
+			assertEquals(distribution.getMinimum(), table.getMinimum());
+			assertEquals(distribution.getMaximum(), table.getMaximum());
+			int length = distribution.getMaximum() - distribution.getMinimum() + 1;
+			long[] observed = new long[length];
+			double[] expected = new double[length];
+			int samples = 100000;
+			for(int i = 0; i < samples; i++) {
+				int total = table.sample(random);
+				assertTrue("The totals of " + roll + " must be between its bounds", 
+						total >= table.getMinimum() && total <= table.getMaximum());
+				observed[total - table.getMinimum()]++;
+			}
+			for(int i = 0; i < length; i++) {
+				expected[i] = samples * distribution.getProbability(table.getMinimum() + i);
+			}
+			assertFalse("The totals of " + roll + " must follow its distribution", 
+					test.chiSquareTest(expected, observed, 0.001));
+		}
+	}
+}
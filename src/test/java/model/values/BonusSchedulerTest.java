@@ -0,0 +1,146 @@
+package model.values;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import model.values.BonusScheduler.TimedBonus;
+
+public class BonusSchedulerTest {
+	BonusScheduler scheduler;
+	Value value;
+
+	@Before
+	public void setUp() throws Exception {
+		scheduler = new BonusScheduler();
+		value = new Value(10);
+	}
+
+	@Test
+	public void testSchedule() {
+		TimedBonus timed = scheduler.schedule(value, new Bonus(2, Bonus.Type.MORALE), 3);
+		assertEquals("The bonus applies at once", 12, value.getValue());
+		assertEquals(3, timed.getExpiry());
+		assertEquals(1, scheduler.size());
+		assertEquals(0, scheduler.advance());
+		assertEquals(0, scheduler.advance());
+		assertEquals("The bonus still applies before it expires", 12, value.getValue());
+		assertEquals(1, scheduler.advance());
+		assertEquals("The bonus must be removed after its rounds", 10, value.getValue());
+		assertFalse(timed.isActive());
+		assertEquals(0, scheduler.size());
+		assertEquals(3, scheduler.getRound());
+		try {
+			scheduler.schedule(value, new Bonus(1, Bonus.Type.LUCK), 0);
+			fail("A bonus must last at least one round");
+		} catch (IllegalArgumentException e) {}
+		try {
+			scheduler.schedule(null, new Bonus(1, Bonus.Type.LUCK), 1);
+			fail("A bonus needs a value");
+		} catch (IllegalArgumentException e) {}
+		try {
+			scheduler.schedule(value, null, 1);
+			fail("A null bonus cannot be scheduled");
+		} catch (IllegalArgumentException e) {}
+		assertEquals("Failed schedules must not change anything", 0, scheduler.size());
+		assertEquals(10, value.getValue());
+		try {
+			new BonusScheduler(-1);
+			fail("A game cannot be at a negative round");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	/**
+	 * Checks that a bonus lasting until the last round stays in the last
+	 * wheel, and that a longer one is rejected without being applied.
+	 */
+	@Test
+	public void testVeryLongDuration() {
+		scheduler.advance();
+		try {
+			scheduler.schedule(value, new Bonus(2, Bonus.Type.MORALE), Long.MAX_VALUE);
+			fail("A bonus cannot expire after the last round");
+		} catch (IllegalArgumentException e) {}
+		assertEquals("A rejected bonus must not be applied", 10, value.getValue());
+		assertEquals(0, scheduler.size());
+		TimedBonus timed = scheduler.schedule(value, new Bonus(2, Bonus.Type.MORALE), Long.MAX_VALUE - 1);
+		assertEquals(Long.MAX_VALUE, timed.getExpiry());
+		assertEquals(0, scheduler.advanceTo(1L << 20));
+		assertTrue(timed.isActive());
+		assertEquals(12, value.getValue());
+		assertTrue(scheduler.cancel(timed));
+		assertEquals(10, value.getValue());
+	}
+
+	@Test
+	public void testCancel() {
+		TimedBonus first = scheduler.schedule(value, new Bonus(2, Bonus.Type.MORALE), 100);
+		TimedBonus second = scheduler.schedule(value, new Bonus(1, Bonus.Type.LUCK), 100);
+		assertEquals(13, value.getValue());
+		assertTrue(scheduler.cancel(first));
+		assertEquals("The cancelled bonus must be removed", 11, value.getValue());
+		assertFalse("A bonus cannot be cancelled twice", scheduler.cancel(first));
+		assertFalse("A bonus can only be cancelled by its scheduler", new BonusScheduler().cancel(second));
+		assertFalse(scheduler.cancel(null));
+		assertEquals(1, scheduler.advanceTo(100));
+		assertEquals(10, value.getValue());
+		assertFalse("An expired bonus cannot be cancelled", scheduler.cancel(second));
+		try {
+			scheduler.advanceTo(99);
+			fail("The rounds cannot go back");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	/**
+	 * Compares the bonuses expiring in each round with their expected expiry,
+	 * with durations spanning every wheel and starting rounds just before
+	 * the turn of each wheel.
+	 */
+	@Test
+	public void testExpiry() {
+		long[] starts = {0, BonusScheduler.SLOTS - 3, (1L << 12) - 2, (1L << 18) - 1, (1L << 24) - 7};
+		long[] durations = {1, 2, 63, 64, 65, 4095, 4097, 1L << 18, (1L << 24) + 5, 3L << 24};
+		Random random = new Random(42);
+		for(long start : starts) {
+			scheduler = new BonusScheduler(start);
+			List<TimedBonus> active = new ArrayList<TimedBonus>();
+			long last = start;
+			for(long duration : durations) {
+				for(int i = 0; i < 3; i++) {
+					long rounds = Math.max(1, duration + random.nextInt(3) - 1);
+					active.add(scheduler.schedule(new Value(0), new Bonus(1, Bonus.Type.UNTYPED), rounds));
+					last = Math.max(last, start + rounds);
+				}
+			}
+			TimedBonus cancelled = active.remove(active.size() / 2);
+			assertTrue(scheduler.cancel(cancelled));
+			while(scheduler.getRound() < last) {
+				long next = Long.MAX_VALUE;
+				for(TimedBonus timed : active) {
+					if(timed.isActive()) {
+						next = Math.min(next, timed.getExpiry());
+					}
+				}
+				assertEquals("No bonus expires before round " + next, 0, scheduler.advanceTo(next - 1));
+				int expected = 0;
+				for(TimedBonus timed : active) {
+					if(timed.getExpiry() == next) {
+						expected++;
+					}
+				}
+				assertEquals("Wrong number of bonuses expiring in round " + next, expected, scheduler.advance());
+				for(TimedBonus timed : active) {
+					assertEquals(timed.getExpiry() > next, timed.isActive());
+					assertEquals(timed.isActive() ? 1 : 0, timed.getTarget().getValue());
+				}
+			}
+			assertEquals(0, scheduler.size());
+			assertEquals(0, cancelled.getTarget().getValue());
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package model.values;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.math3.stat.inference.ChiSquareTest;
+import org.junit.Test;
+
+import model.random.RandomSource;
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+public class DiceSamplerTest {
+	static long seed = (long) 2;
+
+	/**
+	 * Checks with a chi-square test that each position in a batch of dice 
+	 * is fair, for dice with a number of sides that is or is not a power of
+	 * two, and that the returned total is the sum of the dice.
+	 */
+	@Test
+	public void testFairness() {
+		ChiSquareTest test = new ChiSquareTest();
+		RandomSource random = RandomSource.create(RandomAlgorithm.SPLITTABLE, seed);
+		for(int sides : new int[] {2, 3, 4, 6, 8, 10, 20, 100, 999}) {
+			//More dice than a batch, and not a multiple of its size
+			int count = 67;
+			long[][] observed = new long[count][sides];
+			short[] values = new short[count];
+			int rolls = 50 * sides;
+			for(int roll = 0; roll < rolls; roll++) {
+				int total = DiceSampler.roll(random, sides, count, values, 0);
+				int sum = 0;
+				for(int die = 0; die < count; die++) {
+					assertTrue("A d" + sides + " must roll between 1 and " + sides + ", obtained " + values[die], 
+							values[die] >= 1 && values[die] <= sides);
+					observed[die][values[die] - 1]++;
+					sum += values[die];
+				}
+				assertEquals("The total must be the sum of the dice", sum, total);
+			}
+			double[] expected = new double[sides];
+			for(int i = 0; i < sides; i++) {
+				expected[i] = rolls / (double) sides;
+			}
+			for(int die = 0; die < count; die++) {
+				assertFalse("Die " + die + " of a batch must roll a fair d" + sides, 
+						test.chiSquareTest(expected, observed[die], 0.0001));
+			}
+		}
+	}
+
+	/**
+	 * Checks that a batch falling in the biased region of a random number 
+	 * is rolled again with the next one.
+	 */
+	@Test
+	public void testRejection() {
+		long next = 0x0123456789ABCDEFL;
+		long[] words = new long[] {0, next};
+		int[] index = new int[1];
+		short[] rejected = new short[2];
+		DiceSampler.roll(() -> words[index[0]++], 6, 2, rejected, 0);
+		assertEquals("0 is biased for 2d6 and must be rejected", 2, index[0]);
+		short[] direct = new short[2];
+		DiceSampler.roll(() -> next, 6, 2, direct, 0);
+		assertArrayEquals(direct, rejected);
+	}
+
+	/**
+	 * Checks that the same random numbers always roll the same dice, 
+	 * whether their values are stored or not.
+	 */
+	@Test
+	public void testSeed() {
+		for(int sides : new int[] {6, 8, 999}) {
+			short[] first = new short[100];
+			short[] second = new short[100];
+			int total = DiceSampler.roll(RandomSource.create(RandomAlgorithm.XOSHIRO, seed), sides, 100, first, 0);
+			assertEquals(total, DiceSampler.roll(RandomSource.create(RandomAlgorithm.XOSHIRO, seed), sides, 100, 
+					second, 0));
+			assertArrayEquals("The same seed must roll the same dice", first, second);
+			assertEquals("Rolling without storing the dice must not change them", total, 
+					DiceSampler.roll(RandomSource.create(RandomAlgorithm.XOSHIRO, seed), sides, 100, null, 0));
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package model.values;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import model.exceptions.IllegalRollException;
+import model.random.RandomSource;
+import service.parameters.ValueParameters.RandomAlgorithm;
+
+public class RollDistributionTest {
+	static final double EPSILON = 1e-12;
+
+	/**
+	 * Checks the distribution of small rolls against the rulebook values.
+	 */
+	@Test
+	public void testSmallRolls() {
+		RollDistribution oneDie = new Roll(1, 6).getDistribution();
+		for(int i = 1; i <= 6; i++) {
+			assertEquals("Each side of a die is equally likely", 1 / 6.0, oneDie.getProbability(i), EPSILON);
+		}
+		assertEquals(0, oneDie.getProbability(0), 0);
+		assertEquals(0, oneDie.getProbability(7), 0);
+		RollDistribution twoDice = new Roll(2, 6).getDistribution();
+		int[] combinations = new int[] {1, 2, 3, 4, 5, 6, 5, 4, 3, 2, 1};
+		for(int i = 0; i < combinations.length; i++) {
+			assertEquals("2d6 must follow the triangular distribution", 
+					combinations[i] / 36.0, twoDice.getProbability(i + 2), EPSILON);
+		}
+		assertEquals(2, twoDice.getMinimum());
+		assertEquals(12, twoDice.getMaximum());
+		assertEquals(7, twoDice.getMean(), EPSILON);
+		assertEquals(35 / 6.0, twoDice.getVariance(), EPSILON);
+		assertEquals("P(2d6 <= 4) is 6/36", 6 / 36.0, twoDice.getProbabilityAtMost(4), EPSILON);
+		assertEquals("P(2d6 >= 10) is 6/36", 6 / 36.0, twoDice.getProbabilityAtLeast(10), EPSILON);
+		assertEquals(1, twoDice.getProbabilityAtLeast(1), 0);
+		assertEquals(0, twoDice.getProbabilityAtLeast(13), 0);
+		assertEquals(0, twoDice.getProbabilityAtMost(1), 0);
+		assertEquals(1, twoDice.getProbabilityAtMost(12), 0);
+		assertEquals("The median of 2d6 is 7", 7, twoDice.getPercentile(0.5));
+		assertEquals(2, twoDice.getPercentile(0));
+		assertEquals(12, twoDice.getPercentile(1));
+		try {
+			twoDice.getPercentile(1.5);
+			fail("A percentile must be between 0 and 1");
+		} catch (IllegalArgumentException e) {}
+	}
+	
+	/**
+	 * Checks the distribution of a mixed roll against a brute-force count.
+	 */
+	@Test
+	public void testMixedRoll() {
+		Map<Integer, Integer> dice = new HashMap<Integer, Integer>();
+		dice.put(4, 1);
+		dice.put(6, 2);
+		dice.put(10, 1);
+		RollDistribution distribution = new Roll(dice).getDistribution();
+		int[] counts = new int[27];
+		for(int a = 1; a <= 4; a++) {
+			for(int b = 1; b <= 6; b++) {
+				for(int c = 1; c <= 6; c++) {
+					for(int d = 1; d <= 10; d++) {
+						counts[a + b + c + d]++;
+					}
+				}
+			}
+		}
+		for(int total = 0; total < counts.length; total++) {
+			assertEquals("The distribution of a mixed roll must count all combinations", 
+					counts[total] / 1440.0, distribution.getProbability(total), EPSILON);
+		}
+		assertEquals(2.5 + 7 + 5.5, distribution.getMean(), EPSILON);
+	}
+	
+	/**
+	 * Checks the distribution of rolls keeping only some of their dice 
+	 * against a brute-force enumeration.
+	 */
+	@Test
+	public void testKeptDice() {
+		RollDistribution standard = new Roll(4, 6).dropLowest(1).getDistribution();
+		assertEquals(3, standard.getMinimum());
+		assertEquals(18, standard.getMaximum());
+		assertEquals("4d6 drop lowest rolls 18 in 21 out of 1296 combinations", 
+				21 / 1296.0, standard.getProbability(18), EPSILON);
+		assertEquals("4d6 drop lowest rolls 3 only with four ones", 
+				1 / 1296.0, standard.getProbability(3), EPSILON);
+		assertEquals(15869 / 1296.0, standard.getMean(), EPSILON);
+		RollDistribution advantage = new Roll(2, 20).keepHighest(1).getDistribution();
+		RollDistribution disadvantage = new Roll(2, 20).keepLowest(1).getDistribution();
+		for(int i = 1; i <= 20; i++) {
+			assertEquals("P(2d20kh1 = i) is (2i-1)/400", (2 * i - 1) / 400.0, advantage.getProbability(i), EPSILON);
+			assertEquals("P(2d20kl1 = i) is (41-2i)/400", (41 - 2 * i) / 400.0, disadvantage.getProbability(i), EPSILON);
+		}
+		Map<Integer, Integer> dice = new HashMap<Integer, Integer>();
+		dice.put(4, 1);
+		dice.put(6, 2);
+		dice.put(10, 1);
+		int[] sides = new int[] {4, 6, 6, 10};
+		for(int kept = 1; kept <= sides.length; kept++) {
+			checkKeptDistribution(new Roll(dice).keepHighest(kept).getDistribution(), sides, kept, true);
+			checkKeptDistribution(new Roll(dice).keepLowest(kept).getDistribution(), sides, kept, false);
+		}
+		RollDistribution large = new Roll(100, 20).keepHighest(3).getDistribution();
+		assertEquals(3, large.getMinimum());
+		assertEquals(60, large.getMaximum());
+		assertEquals("100d20 keeping the best three is almost always 60", 
+				1 - Math.pow(0.95, 100) - 100 * 0.05 * Math.pow(0.95, 99) 
+				- 4950 * 0.05 * 0.05 * Math.pow(0.95, 98), large.getProbability(60), 1e-9);
+		try {
+			new Roll(999, 999).keepHighest(500).getDistribution();
+			fail("Keeping 500 of 999d999 needs too many states");
+		} catch (IllegalRollException e) {}
+		try {
+			new Roll(999, 999).keepLowest(17).getDistribution();
+			fail("Keeping 17 of 999d999 needs too many states");
+		} catch (IllegalRollException e) {}
+	}
+	
+	/**
+	 * Checks that the distribution of pools too large to be counted, which 
+	 * rely on a Fourier transform, are consistent with a direct convolution.
+	 */
+	@Test
+	public void testLargeRoll() {
+		int numberOfDice = 30;
+		int numberOfSides = 20;
+		RollDistribution distribution = new Roll(numberOfDice, numberOfSides).getDistribution();
+		double[] expected = new double[] {1};
+		for(int die = 0; die < numberOfDice; die++) {
+			double[] next = new double[expected.length + numberOfSides];
+			for(int total = 0; total < expected.length; total++) {
+				for(int value = 1; value <= numberOfSides; value++) {
+					next[total + value] += expected[total] / numberOfSides;
+				}
+			}
+			expected = next;
+		}
+		for(int total = 0; total < expected.length; total++) {
+			assertEquals("The transform must match the direct convolution", 
+					expected[total], distribution.getProbability(total), EPSILON);
+		}
+	}
+	
+	/**
+	 * Checks that the largest possible roll is computed in a reasonable way
+	 * and that the distributions are shared between rolls with the same 
+	 * dice.
+	 */
+	@Test
+	public void testLargestRoll() {
+		RollDistribution distribution = new Roll(999, 999).getDistribution();
+		assertSame("Rolls with the same dice must share their distribution", 
+				distribution, new Roll(999, 999).getDistribution());
+		assertEquals(999, distribution.getMinimum());
+		assertEquals(999 * 999, distribution.getMaximum());
+		double mean = 0;
+		for(int total = distribution.getMinimum(); total <= distribution.getMaximum(); total++) {
+			mean += total * distribution.getProbability(total);
+		}
+		assertEquals("The probabilities must be consistent with the mean", 
+				distribution.getMean(), mean, 1e-5);
+		assertEquals("The median of a symmetric distribution is its mean", 
+				500 * 999, distribution.getPercentile(0.5));
+		assertEquals("The distribution must be symmetric", 
+				distribution.getProbabilityAtMost(490000), 
+				distribution.getProbabilityAtLeast(1000 * 999 - 490000), 1e-9);
+	}
+	
+	/**
+	 * Checks that the dice drawn for a total in the extreme tail of a large 
+	 * pool, where the probabilities of its parts are too small to be 
+	 * represented, are still consistent with the total.
+	 */
+	@Test
+	public void testSampleExtremeTotals() {
+		DicePool pool = new DicePool(new int[] {999}, new int[] {999});
+		DicePool[] parts = pool.split();
+		RollDistribution first = RollDistribution.of(parts[0]);
+		RollDistribution second = RollDistribution.of(parts[1]);
+		RandomSource random = RandomSource.create(RandomAlgorithm.XOSHIRO, 2);
+		short[] dice = new short[999];
+		for(int total : new int[] {999, 1000, 1499, 999 * 999 - 1}) {
+			if(total < 999 * 999 / 2) {
+				for(int part = first.getMinimum(); part <= total - second.getMinimum(); part++) {
+					assertEquals("The split of " + total + " must underflow", 
+							0, first.getProbability(part) * second.getProbability(total - part), 0);
+				}
+			}
+			RollDistribution.sampleDice(pool, total, random, dice);
+			int sum = 0;
+			for(short die : dice) {
+				assertTrue("Invalid die " + die, die >= 1 && die <= 999);
+				sum += die;
+			}
+			assertEquals("The dice must add up to the total", total, sum);
+		}
+	}
+	
+	/**
+	 * Compares a distribution with the one obtained by enumerating all the 
+	 * combinations of the dice and sorting each of them.
+	 * @param distribution	to check.
+	 * @param sides			number of sides of each die.
+	 * @param kept			number of kept dice.
+	 * @param highest		true if the highest dice are kept.
+	 */
+	private static void checkKeptDistribution(RollDistribution distribution, int[] sides, int kept, 
+			boolean highest) {
+		int combinations = 1;
+		for(int side : sides) {
+			combinations *= side;
+		}
+		double[] expected = new double[distribution.getMaximum() + 2];
+		int[] values = new int[sides.length];
+		for(int combination = 0; combination < combinations; combination++) {
+			int rest = combination;
+			for(int die = 0; die < sides.length; die++) {
+				values[die] = rest % sides[die] + 1;
+				rest /= sides[die];
+			}
+			int[] sorted = values.clone();
+			Arrays.sort(sorted);
+			int total = 0;
+			for(int i = 0; i < kept; i++) {
+				total += sorted[highest ? sorted.length - 1 - i : i];
+			}
+			expected[total] += 1.0 / combinations;
+		}
+		for(int total = 0; total < expected.length; total++) {
+			assertEquals("The distribution of the kept dice must count all combinations", 
+					expected[total], distribution.getProbability(total), EPSILON);
+		}
+	}
+}
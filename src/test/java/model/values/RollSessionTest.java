@@ -0,0 +1,81 @@
+package model.values;
+
+import static org.junit.Assert.*;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class RollSessionTest {
+	static long seed = (long) 2;
+
+	/**
+	 * Checks that any roll of a session can be replayed directly, whatever
+	 * the rolls made before it.
+	 */
+	@Test
+	public void testReplay() {
+		Roll roll = new Roll(10, 20);
+		RollSession session = new RollSession(seed);
+		RollResult[] results = new RollResult[50];
+		for(int i = 0; i < results.length; i++) {
+			results[i] = session.roll(roll);
+		}
+		assertEquals(results.length, session.getNumberOfRolls());
+		//Rolling unrelated dice in between must not change anything
+		Roll.seed(null);
+		new Roll(3, 6).roll();
+		RollSession replay = new RollSession(seed);
+		for(int i = results.length - 1; i >= 0; i--) {
+			checkEquality(results[i], replay.replay(roll, i));
+		}
+		assertEquals("Replaying must not move the session", 0, replay.getNumberOfRolls());
+		RollSession resumed = new RollSession(seed, 40);
+		checkEquality(results[40], resumed.roll(roll));
+		assertEquals(results[7].getScore(), roll.rollTotal(session.getSource(7)));
+		try {
+			new RollSession(seed, -1);
+			fail("A session cannot have a negative number of rolls");
+		} catch (IllegalArgumentException e) {}
+	}
+
+	/**
+	 * Checks that rolls made in parallel on explicit indices match a 
+	 * sequential run, and that sessions are independent.
+	 */
+	@Test
+	public void testParallel() {
+		Roll roll = new Roll(4, 6).keepHighest(3);
+		RollSession sequential = new RollSession(seed);
+		int[] expected = new int[10000];
+		for(int i = 0; i < expected.length; i++) {
+			expected[i] = sequential.roll(roll).getScore();
+		}
+		RollSession parallel = new RollSession(seed);
+		int[] actual = IntStream.range(0, expected.length).parallel()
+				.map(i -> parallel.replay(roll, i).getScore()).toArray();
+		assertArrayEquals("Parallel rolls must match the sequential ones", expected, actual);
+		RollSession other = new RollSession(seed + 1);
+		int differences = 0;
+		for(int i = 0; i < expected.length; i++) {
+			if(other.roll(roll).getScore() != expected[i]) {
+				differences++;
+			}
+		}
+		assertTrue("Two sessions must roll different results", differences > expected.length / 2);
+	}
+
+	/**
+	 * Verifies that two results are equal.
+	 * @param expected	first result.
+	 * @param actual	second result.
+	 */
+	private static void checkEquality(RollResult expected, RollResult actual) {
+		int[] expectedValues = new int[expected.getNumberOfDice()];
+		int[] actualValues = new int[actual.getNumberOfDice()];
+		expected.getResults(expectedValues, 0);
+		actual.getResults(actualValues, 0);
+		assertArrayEquals("A replayed roll must give the same results", expectedValues, actualValues);
+		assertEquals(expected.getScore(), actual.getScore());
+	}
+}
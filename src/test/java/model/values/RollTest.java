@@ -2,6 +2,9 @@ package model.values;
 
 import static org.junit.Assert.*;
 
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Test;
@@ -66,15 +69,62 @@ public class RollTest {
 	}
 
 	/**
-	 * Tests that the {@link Roll#roll()} method returns results consistent 
-	 * with {@link Roll#getResults()}.
+	 * Checks that {@link Roll#Roll(Map)} accepts sets of dice with different 
+	 * numbers of sides, rolls each of them, and rejects invalid sets.
+	 */
+	@Test
+	public void testMixedConstructor() {
+		Map<Integer, Integer> dice = new HashMap<Integer, Integer>();
+		dice.put(20, 1);
+		dice.put(6, 3);
+		dice.put(4, 2);
+		Roll mixed = new Roll(dice);
+		assertEquals("A mixed roll contains all its dice", 6, mixed.getNumberOfDice());
+		assertEquals("The dice are sorted by number of sides", "2d4+3d6+1d20", mixed.toString());
+		Roll.seed(seed);
+		for(int i = 0; i < 1000; i++) {
+			RollResult result = mixed.roll();
+			assertEquals(6, result.getNumberOfDice());
+			int expected = 0;
+			for(Map.Entry<Integer, Integer> entry : dice.entrySet()) {
+				int[] values = result.getResults(entry.getKey());
+				assertEquals("Each type of dice must have its own results", 
+						entry.getValue().intValue(), values.length);
+				for(int value : values) {
+					assertTrue("A die must roll between 1 and its number of sides", 
+							value > 0 && value <= entry.getKey());
+					expected += value;
+				}
+			}
+			assertEquals("The result of a mixed roll is the sum of all its dice", 
+					expected, result.getScore());
+			assertEquals("A type of dice absent from the roll has no results", 
+					0, result.getResults(8).length);
+		}
+		dice.put(8, ValueParameters.MAX_NUMBER_OF_DICE);
+		try {
+			new Roll(dice);
+			fail("More than MAX_NUMBER_OF_DICE (" + ValueParameters.MAX_NUMBER_OF_DICE
+					+ ") dice in total is not valid");
+		} catch (IllegalRollException e) {}
+		dice.put(8, 0);
+		try {
+			new Roll(dice);
+			fail("A type of dice without any die is not valid");
+		} catch (IllegalRollException e) {}
+		try {
+			new Roll(new HashMap<Integer, Integer>());
+			fail("A roll without dice is not valid");
+		} catch (IllegalRollException e) {}
+	}
+
+	/**
+	 * Tests that the score of a {@link RollResult} is consistent with 
+	 * {@link RollResult#getResults(int)}.
 	 */
 	@Test
 	public void testRollSum() {
 		/*
-		 * XXX This method only tests with one type of dice.
-		 * When Roll handle several types of dice at the same time, 
-		 * this method will have to be adapted.
 		 * XXX This method does not take bonuses into account. When Roll handle
 		 * them, this method will have to be adapted.
 		 */
@@ -82,30 +132,25 @@ public class RollTest {
 		Roll multiDice = new Roll(10, 20); //Tests with 10 dice
 		Roll.seed(seed);
 		for(int i = 0; i < 1000; i++) {
-			int actualMono = monoDie.roll();
-			int actualMulti = multiDice.roll();
+			RollResult actualMono = monoDie.roll();
+			RollResult actualMulti = multiDice.roll();
 			assertEquals("The result of throwing one die is the value of the die",
-					monoDie.getResults().get(12)[0], actualMono);
+					actualMono.getResults(12)[0], actualMono.getScore());
 			int expectedMulti = 0;
-			for (int j:multiDice.getResults().get(20)) {
+			for (int j:actualMulti.getResults(20)) {
 				expectedMulti += j;
 			}
 			assertEquals("The result of throwing multiple dice is the sum of their values", 
-					expectedMulti, actualMulti);
+					expectedMulti, actualMulti.getScore());
 		}
 	}
 	
 	/**
-	 * Tests that the {@link Roll#getResults()} method returns results 
-	 * consistent with the dice.
+	 * Tests that the {@link RollResult#getResults(int)} method returns 
+	 * results consistent with the dice.
 	 */
 	@Test
 	public void testGetResultsDiceConsistency() {
-		/*
-		 * XXX this method only tests with one type of dice.
-		 * When Roll handle several types of dice at the same time, 
-		 * this method will have to be adapted
-		 */
 		int firstNumberOfDice = 1;
 		int firstNumberOfSides = 20;
 		int secondNumberOfDice = 3;
@@ -114,19 +159,19 @@ public class RollTest {
 		Roll firstRoll = new Roll(firstNumberOfDice, firstNumberOfSides);
 		Roll secondRoll = new Roll(secondNumberOfDice, secondNumberOfSides);
 		for (int i = 0; i < 1000; i++) {
-			int[] firstResults = firstRoll.getResults().get(firstNumberOfSides);
-			int[] secondResults = secondRoll.getResults().get(secondNumberOfSides);
-			assertEquals("Roll.getResults() does not have the expected size", 
+			int[] firstResults = firstRoll.roll().getResults(firstNumberOfSides);
+			int[] secondResults = secondRoll.roll().getResults(secondNumberOfSides);
+			assertEquals("RollResult.getResults() does not have the expected size", 
 					firstNumberOfDice, firstResults.length);
-			assertEquals("Roll.getResults() does not have the expected size", 
+			assertEquals("RollResult.getResults() does not have the expected size", 
 					secondNumberOfDice, secondResults.length);
 			for (int j = 0; j < firstResults.length; j++) {
-				assertTrue("Roll.getResults() must produces integers between 1 and number of"
+				assertTrue("RollResult.getResults() must produces integers between 1 and number of"
 						+ "sides, obtained " + firstResults[j], 
 						firstResults[j] > 0 && firstResults[j] <= firstNumberOfSides);
 			}
 			for (int j = 0; j < secondResults.length; j++) {
-				assertTrue("Roll.getResults() must produces integers between 1 and number of"
+				assertTrue("RollResult.getResults() must produces integers between 1 and number of"
 						+ "sides, obtained " + secondResults[j], 
 						secondResults[j] > 0 && secondResults[j] <= secondNumberOfSides);
 			}
@@ -144,92 +189,366 @@ public class RollTest {
 		Roll second = new Roll(1,numberOfSides);
 		Roll pair = new Roll(2,numberOfSides);
 		Roll.seed(seed);
-		int[] resultSeparate = new int[] {first.roll(), second.roll()};
+		int[] resultSeparate = new int[] {first.roll().getScore(), second.roll().getScore()};
 		Roll.seed(seed);
-		int[] resultPair = pair.getResults().get(numberOfSides);
-		for (int i = 0; i < resultPair.length; i++) {
-			assertEquals("Seeded dice should roll the same results", resultPair[i], resultSeparate[i]);
-		}
+		assertArrayEquals("Seeded dice should roll the same results", resultSeparate, 
+				new int[] {first.roll().getScore(), second.roll().getScore()});
+		//Dice rolled together share random numbers, so they differ from dice rolled separately
+		Roll.seed(seed);
+		int[] resultPair = pair.roll().getResults(numberOfSides);
+		Roll.seed(seed);
+		assertArrayEquals("Seeded dice should roll the same results", resultPair, 
+				pair.roll().getResults(numberOfSides));
+		Roll.seed(null);
 	}
 	
 
 	/**
-	 * Ensures that getResults rolls the dice if need be and that
-	 * it always returns the same results if called successively without 
-	 * rolling the dice.
+	 * Ensures that seeding the Roll only affects the current thread, and 
+	 * that two threads using the same seed roll the same numbers.
+	 * @throws InterruptedException if the test is interrupted.
+	 */
+	@Test
+	public void testSeedPerThread() throws InterruptedException {
+		int numberOfDice = 20;
+		int numberOfSides = 100;
+		Roll roll = new Roll(numberOfDice, numberOfSides);
+		Roll.seed(seed);
+		int[] expected = roll.roll().getResults(numberOfSides);
+		int[][] actual = new int[1][];
+		Roll.seed(seed);
+		Thread other = new Thread(() -> {
+			//Rolling unseeded dice on this thread must not affect the other one
+			roll.roll();
+			Roll.seed(seed);
+			actual[0] = roll.roll().getResults(numberOfSides);
+		});
+		other.start();
+		other.join();
+		assertArrayEquals("Threads seeded with the same seed should roll the same results", 
+				expected, actual[0]);
+		assertArrayEquals("Seeding another thread should not affect the current one", 
+				expected, roll.roll().getResults(numberOfSides));
+	}
+
+	/**
+	 * Ensures that a {@link RollResult} always returns the same results, 
+	 * that they cannot be modified from the outside, and that rolling the 
+	 * same {@link Roll} again does not affect them.
 	 */
 	@Test 
 	public void testGetResults() {
-		/*
-		 * XXX this method only tests with one type of dice.
-		 * When Roll handle several types of dice at the same time, 
-		 * this method will have to be adapted
-		 */
 		//First, test with only one dice.
 		int numberOfSides = 53;
 		Roll first = new Roll(1,numberOfSides);
 		Roll second = new Roll(1,numberOfSides);
+		assertEquals("Rolls with the same dice are equal", first, second);
+		assertEquals("Rolls with the same dice are equal", first.hashCode(), second.hashCode());
+		assertNotEquals("Rolls with different dice are not equal", first, new Roll(2, numberOfSides));
 		Roll.seed(seed);
-		//checks that getResults rolls the dice if necessary 
-		Map<Integer, int[]> firstResults = first.getResults();
+		RollResult firstResult = first.roll();
 		Roll.seed(seed);
-		int secondRoll = second.roll();
-		Map<Integer, int[]> secondResults = second.getResults();
-		Map<Integer, int[]> firstResults2 = first.getResults();
-		Map<Integer, int[]> secondResults2 = second.getResults();
-		/*
-		 * With the same seed, firstResults and secondResults should be equal.
-		 * Without rolling the dice, firstResults2 and secondResults2 should 
-		 * be equal to firstResults and secondResults.
-		 */
-		checkResultsEquality(1, firstResults, secondResults, firstResults2, secondResults2);
+		RollResult secondResult = second.roll();
+		//With the same seed, both results should be equal.
+		checkResultsEquality(firstResult, secondResult);
+		int[] results = secondResult.getResults(numberOfSides);
+		results[0] = 0;
+		checkResultsEquality(firstResult, secondResult);
 		//Roll again, and make sure the roll is not equal to the first
-		int rollAgain;
+		RollResult rollAgain;
 		do {
 			rollAgain = second.roll();
 		}
-		while(rollAgain == secondRoll);
-		Map<Integer, int[]> getResultsAgain = second.getResults();
-		checkGetResultsSize(getResultsAgain, 1);
+		while(rollAgain.getScore() == secondResult.getScore());
+		checkResultsEquality(firstResult, secondResult);
 		try {
-			assertArrayEquals(getResultsAgain.get(numberOfSides), secondResults.get(numberOfSides));
-			fail("Two getResults() separated by a roll() can only be equal if the rolls are equal");
+			assertArrayEquals(rollAgain.getResults(numberOfSides), secondResult.getResults(numberOfSides));
+			fail("Two results can only be equal if the rolls are equal");
 		} catch (AssertionError e) {}
 		//Second, test again with several dice
 		numberOfSides = 79;
 		int numberOfDice = 10;
-		Roll multipleDice = new Roll(numberOfDice, numberOfSides);
-		//Check that getResults rolls the dice if need be, and only then.
-		Map<Integer, int[]> multipleResults = multipleDice.getResults();
-		Map<Integer, int[]> multipleResults2 = multipleDice.getResults();
-		checkResultsEquality(1, multipleResults, multipleResults2);
+		RollResult multipleResult = new Roll(numberOfDice, numberOfSides).roll();
+		checkResultsEquality(multipleResult, multipleResult);
+		int[] allResults = new int[numberOfDice + 1];
+		multipleResult.getResults(allResults, 1);
+		for(int i = 0; i < numberOfDice; i++) {
+			assertEquals("All the results must be copied in order", 
+					multipleResult.getValue(i), allResults[i + 1]);
+		}
 	}
 	
 	/**
-	 * Checks that the number of keys in the map is equal to the number of 
-	 * types of dice rolled.
-	 * @param map			result of a roll.
-	 * @param numberOfTypes
+	 * Checks that a {@link Roll} may be shared between threads rolling at the
+	 * same time.
+	 * @throws InterruptedException if the test is interrupted.
 	 */
-	private void checkGetResultsSize(Map<Integer, int[]> map, int numberOfTypes) {
-		assertEquals("Roll.getResults() must return a map consistent with the number of types of die",
-				numberOfTypes, map.size());
+	@Test
+	public void testConcurrentRolls() throws InterruptedException {
+		Roll roll = new Roll(10, 6);
+		Thread[] threads = new Thread[4];
+		boolean[] valid = new boolean[threads.length];
+		for(int t = 0; t < threads.length; t++) {
+			int thread = t;
+			threads[t] = new Thread(() -> {
+				valid[thread] = true;
+				for(int i = 0; i < 10000; i++) {
+					RollResult result = roll.roll();
+					int total = 0;
+					for(int value : result.getResults(6)) {
+						total += value;
+					}
+					valid[thread] &= total == result.getScore();
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		for(boolean threadValid : valid) {
+			assertTrue("Results of a shared roll must not interfere with each other", threadValid);
+		}
 	}
+	
 	/**
-	 * Verifies that all the provided maps are equal. Fails with an 
-	 * {@link AssertionError} otherwise.
-	 * @param numberOfTypes	number of types of dice thrown.
-	 * @param maps			results of calling {@link Roll#getResults()}.
+	 * Ensures that {@link Roll#rollTotals(int[], int, int)}, 
+	 * {@link Roll#rollTotals(IntBuffer)} and {@link Roll#rollTotal()} roll 
+	 * the same totals as successive calls to {@link Roll#roll()}.
 	 */
-	@SafeVarargs
-	final private void checkResultsEquality(int numberOfTypes, Map<Integer, int[]>... maps) {
-		for (int i = 0; i < maps.length; i++){
-			checkGetResultsSize(maps[i], numberOfTypes);
-			for(int k : maps[0].keySet()) {
-					assertArrayEquals("Two getResults without rolling the dice should return the same results",
-							maps[0].get(k), maps[i].get(k));
+	@Test
+	public void testRollTotals() {
+		int numberOfRolls = 100;
+		Roll roll = new Roll(3, 8);
+		int[] expected = new int[numberOfRolls];
+		Roll.seed(seed);
+		for(int i = 0; i < numberOfRolls; i++) {
+			expected[i] = roll.roll().getScore();
+		}
+		Roll.seed(seed);
+		int[] totals = new int[numberOfRolls + 2];
+		roll.rollTotals(totals, 1, numberOfRolls);
+		for(int i = 0; i < numberOfRolls; i++) {
+			assertEquals("A batch of totals must be equal to successive rolls", 
+					expected[i], totals[i + 1]);
+		}
+		assertEquals("rollTotals must not write outside of the range", 0, totals[0]);
+		assertEquals("rollTotals must not write outside of the range", 0, totals[numberOfRolls + 1]);
+		Roll.seed(seed);
+		IntBuffer buffer = IntBuffer.allocate(numberOfRolls);
+		roll.rollTotals(buffer);
+		assertArrayEquals("A buffer of totals must be equal to successive rolls", 
+				expected, buffer.array());
+		Roll.seed(seed);
+		for(int i = 0; i < numberOfRolls; i++) {
+			assertEquals("rollTotal must be equal to successive rolls", expected[i], roll.rollTotal());
+		}
+		try {
+			roll.rollTotals(totals, 5, numberOfRolls);
+			fail("rollTotals must reject an array too small for the batch");
+		} catch (IndexOutOfBoundsException e) {}
+	}
+	
+	/**
+	 * Ensures that {@link Roll#rollDice(int[], int, int)} and 
+	 * {@link Roll#rollDice(IntBuffer)} roll the same dice as successive 
+	 * calls to {@link Roll#roll()}.
+	 */
+	@Test
+	public void testRollDice() {
+		int numberOfRolls = 50;
+		int numberOfDice = 4;
+		int numberOfSides = 6;
+		Roll roll = new Roll(numberOfDice, numberOfSides);
+		assertEquals(numberOfDice, roll.getNumberOfDice());
+		int[] expected = new int[numberOfRolls * numberOfDice];
+		Roll.seed(seed);
+		for(int i = 0; i < numberOfRolls; i++) {
+			roll.roll().getResults(expected, i * numberOfDice);
+		}
+		Roll.seed(seed);
+		int[] results = new int[numberOfRolls * numberOfDice];
+		roll.rollDice(results, 0, numberOfRolls);
+		assertArrayEquals("A batch of dice must be equal to successive rolls", expected, results);
+		Roll.seed(seed);
+		//One extra position which cannot hold a full roll
+		IntBuffer buffer = IntBuffer.allocate(numberOfRolls * numberOfDice + 1);
+		roll.rollDice(buffer);
+		assertEquals("rollDice must only write complete rolls", 1, buffer.remaining());
+		for(int i = 0; i < expected.length; i++) {
+			assertEquals("A buffer of dice must be equal to successive rolls", expected[i], buffer.get(i));
+		}
+		try {
+			roll.rollDice(results, 1, numberOfRolls);
+			fail("rollDice must reject an array too small for the batch");
+		} catch (IndexOutOfBoundsException e) {}
+	}
+	
+	/**
+	 * Ensures that {@link Roll#rollTotals(int[], int, int)} and 
+	 * {@link Roll#rollDice(int[], int, int)} reject counts so large that the 
+	 * end of the batch overflows an int, without writing anything.
+	 */
+	@Test
+	public void testHugeCounts() {
+		Roll roll = new Roll(4, 6);
+		int[] results = new int[16];
+		try {
+			roll.rollTotals(results, 1, Integer.MAX_VALUE);
+			fail("rollTotals must reject a count overflowing the end of the batch");
+		} catch (IndexOutOfBoundsException e) {}
+		try {
+			//4 dice per roll: the number of values wraps around to a negative int
+			roll.rollDice(results, 0, Integer.MAX_VALUE / 4 + 1);
+			fail("rollDice must reject a count overflowing the number of values");
+		} catch (IndexOutOfBoundsException e) {}
+		assertArrayEquals("A rejected batch must not write anything", new int[16], results);
+	}
+	
+	/**
+	 * Ensures that {@link Roll#rollScore()} rolls totals within the bounds 
+	 * of the roll, that the {@link RollResult} then draws dice consistent 
+	 * with the total, and always returns the same dice.
+	 */
+	@Test
+	public void testRollScore() {
+		Map<Integer, Integer> dice = new HashMap<Integer, Integer>();
+		dice.put(6, 40);
+		dice.put(999, 999 - 40);
+		Roll[] rolls = new Roll[] {new Roll(4, 6), new Roll(100, 20), new Roll(dice)};
+		Roll.seed(seed);
+		for(Roll roll : rolls) {
+			RollDistribution distribution = roll.getDistribution();
+			for(int i = 0; i < 20; i++) {
+				RollResult result = roll.rollScore();
+				int score = result.getScore();
+				assertTrue("rollScore must roll a possible total, obtained " + score, 
+						score >= distribution.getMinimum() && score <= distribution.getMaximum());
+				int[] values = new int[roll.getNumberOfDice()];
+				result.getResults(values, 0);
+				int total = 0;
+				for(int value : values) {
+					assertTrue("A die must roll between 1 and its number of sides", 
+							value > 0 && value <= 999);
+					total += value;
+				}
+				assertEquals("The dice drawn after rollScore must add up to the total", score, total);
+				int[] again = new int[roll.getNumberOfDice()];
+				result.getResults(again, 0);
+				assertArrayEquals("A result must not draw the dice twice", values, again);
 			}
 		}
+		for(int value : new Roll(dice).rollScore().getResults(6)) {
+			assertTrue("A die must roll between 1 and its number of sides", value > 0 && value <= 6);
+		}
+	}
+	
+	/**
+	 * Checks that the totals drawn by {@link Roll#rollScore()} for large 
+	 * rolls follow the distribution of the roll: the mean of many totals must
+	 * be close to the mean of the distribution.
+	 */
+	@Test
+	public void testRollScoreDistribution() {
+		Roll roll = new Roll(50, 10);
+		RollDistribution distribution = roll.getDistribution();
+		int numberOfRolls = 20000;
+		int[] totals = new int[numberOfRolls];
+		Roll.seed(seed);
+		roll.rollTotals(totals, 0, numberOfRolls);
+		double mean = 0;
+		for(int total : totals) {
+			mean += total / (double) numberOfRolls;
+		}
+		//The standard deviation of the mean is about 0.14
+		assertEquals("Sampled totals must follow the distribution of the roll", 
+				distribution.getMean(), mean, 1);
+	}
+	
+	/**
+	 * Checks that rolls keeping the highest or lowest dice add exactly these
+	 * dice to their score, and that the selection is validated.
+	 */
+	@Test
+	public void testKeepAndDrop() {
+		Roll standard = new Roll(4, 6).dropLowest(1);
+		assertEquals("Dropping the lowest die keeps the three highest ones", 
+				new Roll(4, 6).keepHighest(3), standard);
+		assertEquals("4d6kh3", standard.toString());
+		assertEquals(4, standard.getNumberOfDice());
+		assertEquals(3, standard.getNumberOfKeptDice());
+		assertEquals("Keeping all the dice is the plain roll", new Roll(4, 6), standard.keepLowest(4));
+		assertEquals(new Roll(4, 6).keepLowest(1), new Roll(4, 6).dropHighest(3));
+		for(int invalid : new int[] {0, 5, -1}) {
+			try {
+				standard.keepHighest(invalid);
+				fail("A roll cannot keep " + invalid + " out of 4 dice");
+			} catch (IllegalArgumentException e) {}
+		}
+		try {
+			standard.dropLowest(4);
+			fail("A roll cannot drop all its dice");
+		} catch (IllegalArgumentException e) {}
+		Roll[] rolls = new Roll[] {standard, new Roll(2, 20).keepLowest(1), 
+				new Roll(ValueParameters.MAX_NUMBER_OF_DICE, ValueParameters.MAX_NUMBER_OF_SIDES).keepHighest(500),
+				new Roll(ValueParameters.MAX_NUMBER_OF_DICE, 6).dropHighest(10)};
+		boolean[] highest = new boolean[] {true, false, true, false};
+		for(int test = 0; test < rolls.length; test++) {
+			Roll roll = rolls[test];
+			for(int i = 0; i < 100; i++) {
+				RollResult result = i % 2 == 0 ? roll.roll() : roll.rollScore();
+				int[] values = new int[result.getNumberOfDice()];
+				result.getResults(values, 0);
+				int keptTotal = 0;
+				int numberOfKept = 0;
+				int worstKept = highest[test] ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+				int bestDropped = highest[test] ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+				for(int die = 0; die < values.length; die++) {
+					if(result.isKept(die)) {
+						keptTotal += values[die];
+						numberOfKept++;
+						worstKept = highest[test] ? Math.min(worstKept, values[die]) : Math.max(worstKept, values[die]);
+					} else {
+						bestDropped = highest[test] ? Math.max(bestDropped, values[die]) : Math.min(bestDropped, values[die]);
+					}
+				}
+				assertEquals(roll.getNumberOfKeptDice(), numberOfKept);
+				assertEquals(roll.getNumberOfKeptDice(), result.getNumberOfKeptDice());
+				assertEquals("The score must be the sum of the kept dice", keptTotal, result.getScore());
+				assertTrue("No discarded die can be better than a kept one", 
+						highest[test] ? worstKept >= bestDropped : worstKept <= bestDropped);
+				int[] sorted = values.clone();
+				Arrays.sort(sorted);
+				int expected = 0;
+				for(int die = 0; die < roll.getNumberOfKeptDice(); die++) {
+					expected += sorted[highest[test] ? sorted.length - 1 - die : die];
+				}
+				assertEquals(expected, result.getScore());
+			}
+			Roll.seed(seed);
+			int score = roll.roll().getScore();
+			Roll.seed(seed);
+			assertEquals("rollTotal must select the same dice as roll", score, roll.rollTotal());
+			Roll.seed(null);
+		}
+	}
+	
+	/**
+	 * Verifies that all the provided results are equal. Fails with an 
+	 * {@link AssertionError} otherwise.
+	 * @param results	of rolls of the same dice.
+	 */
+	final private void checkResultsEquality(RollResult... results) {
+		int[] expected = new int[results[0].getNumberOfDice()];
+		results[0].getResults(expected, 0);
+		for (int i = 0; i < results.length; i++){
+			int[] actual = new int[results[i].getNumberOfDice()];
+			results[i].getResults(actual, 0);
+			assertArrayEquals("Two results of the same roll with the same seed must be equal",
+					expected, actual);
+			assertEquals("Two results of the same roll with the same seed must be equal",
+					results[0].getScore(), results[i].getScore());
+		}
 		
 	}
 
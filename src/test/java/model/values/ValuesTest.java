@@ -20,17 +20,75 @@ public class ValuesTest {
 		assertEquals("Positive values work", 13, new Value(13).getValue());
 	}
 
-//	@Test
-//	public void testAddBonus() {
-//		v.addBonus(1, Type.RACIAL, true, true);
-//		assertEquals("Adding a simple bonus to a bonusless value must work",
-//				1, v.getValue());
-//		fail("Not yet implemented"); // TODO
-//	}
-//
-//	@Test
-//	public void testRemoveBonus() {
-//		fail("Not yet implemented"); // TODO
-//	}
+	/**
+	 * Checks the stacking rules of the bonuses: only the highest bonus of a
+	 * type that does not stack applies, while untyped and dodge bonuses and
+	 * all penalties are added.
+	 */
+	@Test
+	public void testAddBonus() {
+		v.addBonus(new Bonus(1, Bonus.Type.RACIAL));
+		assertEquals("Adding a simple bonus to a bonusless value must work", 1, v.getValue());
+		v.addBonus(new Bonus(3, Bonus.Type.RACIAL));
+		v.addBonus(new Bonus(2, Bonus.Type.RACIAL));
+		assertEquals("Only the highest bonus of a type applies", 3, v.getValue());
+		v.addBonus(new Bonus(2, Bonus.Type.LUCK));
+		assertEquals("Bonuses of different types stack", 5, v.getValue());
+		v.addBonus(new Bonus(1, Bonus.Type.DODGE));
+		v.addBonus(new Bonus(1, Bonus.Type.DODGE));
+		v.addBonus(new Bonus(2, Bonus.Type.UNTYPED));
+		v.addBonus(new Bonus(2, Bonus.Type.UNTYPED));
+		assertEquals("Dodge and untyped bonuses stack", 11, v.getValue());
+		v.addBonus(new Bonus(-2, Bonus.Type.RACIAL));
+		v.addBonus(new Bonus(-1, Bonus.Type.RACIAL));
+		assertEquals("Penalties stack", 8, v.getValue());
+		assertEquals("The base value does not change", 0, v.getBaseValue());
+		assertEquals(10, v.getBonuses().size());
+		try {
+			v.addBonus(null);
+			fail("A null bonus cannot be added");
+		} catch (IllegalArgumentException e) {}
+		try {
+			new Bonus(1, null);
+			fail("A bonus needs a type");
+		} catch (IllegalArgumentException e) {}
+	}
 
+	/**
+	 * Checks that removing a bonus updates the total, and that equal 
+	 * bonuses from different sources are removed separately.
+	 */
+	@Test
+	public void testRemoveBonus() {
+		Bonus first = new Bonus(4, Bonus.Type.MORALE);
+		Bonus second = new Bonus(4, Bonus.Type.MORALE);
+		Bonus lower = new Bonus(2, Bonus.Type.MORALE);
+		v.addBonus(first);
+		v.addBonus(second);
+		v.addBonus(lower);
+		assertEquals(4, v.getValue());
+		assertTrue(v.removeBonus(first));
+		assertEquals("The other source still applies", 4, v.getValue());
+		assertTrue(v.removeBonus(second));
+		assertEquals("The next highest bonus applies", 2, v.getValue());
+		assertFalse("A bonus cannot be removed twice", v.removeBonus(second));
+		assertTrue(v.removeBonus(lower));
+		assertEquals(0, v.getValue());
+		assertFalse(new Value(3).removeBonus(lower));
+	}
+
+	/**
+	 * Checks that a copy has the same bonuses, and is independent from the
+	 * original.
+	 */
+	@Test
+	public void testCopy() {
+		v.addBonus(new Bonus(2, Bonus.Type.ENHANCEMENT));
+		Value copy = new Value(v);
+		assertEquals(2, copy.getValue());
+		copy.addBonus(new Bonus(-1, Bonus.Type.UNTYPED));
+		assertEquals(1, copy.getValue());
+		assertEquals("The original must not change", 2, v.getValue());
+		assertEquals(1, v.getBonuses().size());
+	}
 }